@@ -24,9 +24,8 @@ import com.berryworks.edireader.error.ISA16SubElementDelimiterException;
 import com.berryworks.edireader.error.ISAFixedLengthException;
 import com.berryworks.edireader.error.MissingMandatoryElementException;
 import com.berryworks.edireader.error.RecoverableSyntaxException;
-import com.berryworks.edireader.tokenizer.EDITokenizer;
+import com.berryworks.edireader.error.SyntaxErrorCode;
 import com.berryworks.edireader.tokenizer.Token;
-import com.berryworks.edireader.util.ContentHandlerBase64Encoder;
 import com.berryworks.edireader.util.FixedLength;
 import com.berryworks.edireader.util.sax.QueuedContentHandler;
 import org.slf4j.Logger;
@@ -36,11 +35,7 @@ import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
 import java.lang.invoke.MethodHandles;
-import java.nio.charset.StandardCharsets;
 
 import static com.berryworks.edireader.tokenizer.Token.TokenType.SEGMENT_END;
 import static com.berryworks.edireader.tokenizer.Token.TokenType.SEGMENT_START;
@@ -59,6 +54,8 @@ import static java.lang.Character.*;
  */
 public class AnsiReader extends StandardReader {
     private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass().getSimpleName());
+    // Offsets of the delimiters preceding ISA01 through ISA16 in a fixed-length ISA
+    private static final int[] ISA_DELIMITER_OFFSETS = {3, 6, 17, 20, 31, 34, 50, 53, 69, 76, 81, 83, 89, 99, 101, 103};
 
     /**
      * Group-level function code (for example: PO) GS01
@@ -170,7 +167,7 @@ public class AnsiReader extends StandardReader {
 
         // We should have already noted ISA16, the sub-element delimiter, when we previewed this interchange.
         // If one was not established, then report it as a recoverable syntax error.
-        if (getSubDelimiter() == '\000') {
+        if (getSubDelimiter() == '\000' && !collect(SyntaxErrorCode.ISA16_SUB_ELEMENT_DELIMITER, INVALID_SUB_ELEMENT_DELIMITER, null, null)) {
             RecoverableSyntaxException syntaxException = new ISA16SubElementDelimiterException();
             if (!recover(syntaxException)) {
                 throw syntaxException;
@@ -282,10 +279,15 @@ public class AnsiReader extends StandardReader {
         if (value == null) {
             throw new EDISyntaxException(ISA_SEGMENT_HAS_TOO_FEW_FIELDS, getTokenizer());
         } else if (value.length() != expectedLength) {
-            RecoverableSyntaxException re = new ISAFixedLengthException(elementName, expectedLength, value.length(), getTokenizer());
-            setSyntaxException(re);
-            if (!recover(re)) {
-                throw re;
+            if (getSyntaxErrorCollector() != null) {
+                collect(SyntaxErrorCode.ISA_FIXED_LENGTH, "ISA fixed-length field " + elementName + " has incorrect length",
+                        expectedLength, value.length());
+            } else {
+                RecoverableSyntaxException re = new ISAFixedLengthException(elementName, expectedLength, value.length(), getTokenizer());
+                setSyntaxException(re);
+                if (!recover(re)) {
+                    throw re;
+                }
             }
             value = FixedLength.valueOf(value, expectedLength);
         }
@@ -350,13 +352,16 @@ public class AnsiReader extends StandardReader {
             value = getTokenizer().nextSimpleValue();
         } catch (EDISyntaxException e) {
             if (e.getMessage().startsWith("Mandatory")) {
-                MissingMandatoryElementException missingMandatoryElementException =
-                        new MissingMandatoryElementException(MANDATORY_ELEMENT_MISSING,
-                                "at least one non-space character", "(empty)", getTokenizer());
-                setSyntaxException(missingMandatoryElementException);
-                if (!recover(missingMandatoryElementException)) {
-                    logger.warn(missingMandatoryElementException.getMessage());
-                    throw missingMandatoryElementException;
+                if (!collect(SyntaxErrorCode.MISSING_MANDATORY_ELEMENT, MANDATORY_ELEMENT_MISSING,
+                        "at least one non-space character", "(empty)")) {
+                    MissingMandatoryElementException missingMandatoryElementException =
+                            new MissingMandatoryElementException(MANDATORY_ELEMENT_MISSING,
+                                    "at least one non-space character", "(empty)", getTokenizer());
+                    setSyntaxException(missingMandatoryElementException);
+                    if (!recover(missingMandatoryElementException)) {
+                        logger.warn(missingMandatoryElementException.getMessage());
+                        throw missingMandatoryElementException;
+                    }
                 }
             } else {
                 logger.warn(e.getMessage());
@@ -459,6 +464,7 @@ public class AnsiReader extends StandardReader {
         Token t;
         int segCount = 2;
         long charCountAtBeginning = getTokenizer().getCharCount() - 3; // "ST*" is included in the charCount.
+        long startNanos = getParseMetricsSink() == null ? 0 : System.nanoTime();
 
         if (getTransactionCallback() != null)
             getTransactionCallback().startTransaction(token.getValue());
@@ -467,7 +473,8 @@ public class AnsiReader extends StandardReader {
         getDocumentAttributes().addCDATA(getXMLTags().getDocumentType(),
                 documentType = getTokenizer().nextSimpleValue(false));
 
-        logger.debug("Parsing {} transaction", documentType);
+        if (logger.isDebugEnabled())
+            logger.debug("Parsing {} transaction", documentType);
 
         String version = groupVersion;
         if (version.length() > 6) version = version.substring(0, 6);
@@ -545,6 +552,8 @@ public class AnsiReader extends StandardReader {
             long size = getTokenizer().getCharCount() - charCountAtBeginning;
             getTransactionCallback().end(getXMLTags().getDocumentTag(), documentType, isPresent(st03Version) ? st03Version : groupVersion, controlNumber, size);
         }
+        if (getParseMetricsSink() != null)
+            getParseMetricsSink().transaction(documentType, controlNumber, segCount, System.nanoTime() - startNanos);
 
         return t;
     }
@@ -604,13 +613,8 @@ public class AnsiReader extends StandardReader {
             throw se;
         }
 
-        char[] dataObject = getTokenizer().getChars(length);
+        parseBinaryObject("BIN", null, length);
         getTokenizer().nextToken();
-
-        getDocumentAttributes().clear();
-        startElement(getXMLTags().getPackageTag(), getDocumentAttributes());
-        new ContentHandlerBase64Encoder().encode(dataObject, getContentHandler());
-        endElement(getXMLTags().getPackageTag());
     }
 
 
@@ -648,10 +652,20 @@ public class AnsiReader extends StandardReader {
         char c = buf[3];
         setDelimiter(c);
 
-        int indexOf16thFieldSeparator = indexOf(c, buf, 16);
-        if (indexOf16thFieldSeparator < 0) {
-            logger.warn(ISA_SEGMENT_HAS_TOO_FEW_FIELDS);
-            throw new EDISyntaxException(ISA_SEGMENT_HAS_TOO_FEW_FIELDS);
+        // Nearly every ISA has the standard fixed-length layout, with each delimiter at a known offset.
+        // Only when it does not are the delimiters located by counting them.
+        int indexOf11thFieldSeparator;
+        int indexOf16thFieldSeparator;
+        if (isFixedLengthISA(buf, c)) {
+            indexOf11thFieldSeparator = ISA_DELIMITER_OFFSETS[10];
+            indexOf16thFieldSeparator = ISA_DELIMITER_OFFSETS[15];
+        } else {
+            indexOf16thFieldSeparator = indexOf(c, buf, 16);
+            if (indexOf16thFieldSeparator < 0) {
+                logger.warn(ISA_SEGMENT_HAS_TOO_FEW_FIELDS);
+                throw new EDISyntaxException(ISA_SEGMENT_HAS_TOO_FEW_FIELDS);
+            }
+            indexOf11thFieldSeparator = indexOf(c, buf, 11);
         }
 
         // Determine the sub-element delimiter
@@ -676,7 +690,6 @@ public class AnsiReader extends StandardReader {
 
         // Determine the repetition character. This changed in 4.6.5 to support repetition chars
         // introduced in version 4020 of the ANSI X12 standard.
-        int indexOf11thFieldSeparator = indexOf(getDelimiter(), buf, 11);
         char repetitionChar = buf[indexOf11thFieldSeparator + 1];
         if (Character.isLetterOrDigit(repetitionChar) ||
             repetitionChar == getTerminator() ||
@@ -700,19 +713,25 @@ public class AnsiReader extends StandardReader {
             logger.warn(se.getMessage());
             throw se;
         }
-        InputStream byteStream = inputSource.getByteStream();
-        if (byteStream != null) {
-            // The parser was created using a byte stream.
-            Reader replacementReader = new InputStreamReader(byteStream, StandardCharsets.UTF_8);
-            char[] preRead = getPreviewString().toCharArray();
-            EDITokenizer newTokenizer = new EDITokenizer(replacementReader, preRead);
-            setInputReader(replacementReader);
-            setTokenizer(newTokenizer);
-        }
-
         setPreviewed(true);
     }
 
+    /**
+     * Returns true if the ISA in the buffer has the standard fixed-length layout,
+     * with the delimiter preceding each of the 16 elements at its expected offset.
+     */
+    private static boolean isFixedLengthISA(char[] buf, char delimiter) {
+        if (buf.length <= ISA_DELIMITER_OFFSETS[15] + 2) {
+            return false;
+        }
+        for (int offset : ISA_DELIMITER_OFFSETS) {
+            if (buf[offset] != delimiter) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static int indexOf(char c, char[] buf, int n) {
         int result = -1;
         int count = 0;
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2005-2026 by BerryWorks Software, LLC. All rights reserved.
+ *
+ * This file is part of EDIReader. You may obtain a license for its use directly from
+ * BerryWorks Software, and you may also choose to use this software under the terms of the
+ * GPL version 3. Other products in the EDIReader software suite are available only by licensing
+ * with BerryWorks. Only those files bearing the GPL statement below are available under the GPL.
+ *
+ * EDIReader is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * EDIReader is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with EDIReader.  If not,
+ * see <http://www.gnu.org/licenses/>.
+ */
+
+package com.berryworks.edireader;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A ReplyGenerator that hands each acknowledgment call to another ReplyGenerator
+ * running on a separate writer thread.
+ * <p>
+ * Each call made by the parser is recorded as a small task holding its arguments and placed on a
+ * bounded queue, so the parsing thread does not wait for the acknowledgment to be formatted and
+ * written unless the queue is full. The writer thread is started by the first call and runs the tasks
+ * in order against the delegate, producing exactly the same 997, 999, or CONTRL output as it would
+ * synchronously. finish() waits for the queue to empty and reports any exception thrown by the delegate;
+ * StandardReader calls it before parse() returns, so the acknowledgment is complete at that point.
+ * <p>
+ * The delegate may refer to the StandardReader for delimiters and other properties, which do not change
+ * within an interchange. Arguments that the parser reuses, such as Attributes, must be copied
+ * before they are captured in a task.
+ */
+public class AsyncReplyGenerator extends ReplyGenerator {
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /**
+     * A call to be made against the delegate ReplyGenerator on the writer thread.
+     */
+    public interface Task {
+        void renderTo(ReplyGenerator generator) throws IOException;
+    }
+
+    private static final Task END = generator -> {
+    };
+
+    private final ReplyGenerator delegate;
+    private final BlockingQueue<Task> queue;
+    private Thread writerThread;
+    private volatile Exception failure;
+
+    public AsyncReplyGenerator(ReplyGenerator delegate) {
+        this(delegate, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public AsyncReplyGenerator(ReplyGenerator delegate, int queueCapacity) {
+        if (delegate == null)
+            throw new IllegalArgumentException("AsyncReplyGenerator requires a delegate");
+        this.delegate = delegate;
+        this.standardReader = delegate.standardReader;
+        queue = new ArrayBlockingQueue<>(Math.max(queueCapacity, 1));
+    }
+
+    public ReplyGenerator getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public void generateAcknowledgementWrapup() throws IOException {
+        submit(ReplyGenerator::generateAcknowledgementWrapup);
+    }
+
+    @Override
+    public void generateTransactionAcknowledgment(String documentType, String control) throws IOException {
+        submit(generator -> generator.generateTransactionAcknowledgment(documentType, control));
+    }
+
+    @Override
+    public void generateAcknowledgmentHeader(String firstSegment, String groupSender, String groupReceiver,
+                                             int i, String groupVersion, String groupFunctionCode,
+                                             String groupControlNumber) throws IOException {
+        submit(generator -> generator.generateAcknowledgmentHeader(firstSegment, groupSender, groupReceiver,
+                i, groupVersion, groupFunctionCode, groupControlNumber));
+    }
+
+    @Override
+    public void generateAcknowledgmentHeader(String syntaxIdentifier, String syntaxVersionNumber,
+                                             String fromId, String fromQual, String toId, String toQual,
+                                             String interchangeControlNumber) throws IOException {
+        submit(generator -> generator.generateAcknowledgmentHeader(syntaxIdentifier, syntaxVersionNumber,
+                fromId, fromQual, toId, toQual, interchangeControlNumber));
+    }
+
+    @Override
+    public void generateGroupAcknowledgmentTrailer(int docCount) throws IOException {
+        submit(generator -> generator.generateGroupAcknowledgmentTrailer(docCount));
+    }
+
+    @Override
+    public void generateNegativeACK() throws IOException {
+        submit(ReplyGenerator::generateNegativeACK);
+    }
+
+    @Override
+    public void setControlDateAndTime(String overrideValue) {
+        delegate.setControlDateAndTime(overrideValue);
+    }
+
+    @Override
+    public String controlDateAndTime(String groupVersion, char delimiter) {
+        return delegate.controlDateAndTime(groupVersion, delimiter);
+    }
+
+    /**
+     * Queue a task to be run against the delegate on the writer thread, waiting for
+     * room in the queue if necessary.
+     *
+     * @param task to be run
+     * @throws IOException if an earlier task failed, or if the calling thread is interrupted
+     */
+    public void submit(Task task) throws IOException {
+        checkFailure();
+        if (writerThread == null) {
+            writerThread = new Thread(this::drain, "EDIReader acknowledgment writer");
+            writerThread.setDaemon(true);
+            writerThread.start();
+        }
+        try {
+            queue.put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while queueing an acknowledgment");
+        }
+    }
+
+    /**
+     * Wait until every queued task has been run and stop the writer thread. A later call to submit()
+     * starts a new one.
+     *
+     * @throws IOException if any task failed, or if the calling thread is interrupted
+     */
+    public void finish() throws IOException {
+        if (writerThread != null) {
+            try {
+                queue.put(END);
+                writerThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for acknowledgments to be written");
+            } finally {
+                writerThread = null;
+            }
+        }
+        checkFailure();
+    }
+
+    private void drain() {
+        try {
+            Task task;
+            while ((task = queue.take()) != END) {
+                // After a failure, keep taking tasks so that the parsing thread is not blocked
+                if (failure == null) {
+                    try {
+                        task.renderTo(delegate);
+                    } catch (IOException | RuntimeException e) {
+                        failure = e;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            failure = new InterruptedIOException("Acknowledgment writer interrupted");
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        Exception e = failure;
+        if (e instanceof IOException)
+            throw (IOException) e;
+        if (e != null)
+            throw new IOException("Unable to generate acknowledgment", e);
+    }
+}
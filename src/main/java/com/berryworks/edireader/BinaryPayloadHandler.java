@@ -0,0 +1,48 @@
+/*
+ * Copyright 2005-2026 by BerryWorks Software, LLC. All rights reserved.
+ *
+ * This file is part of EDIReader. You may obtain a license for its use directly from
+ * BerryWorks Software, and you may also choose to use this software under the terms of the
+ * GPL version 3. Other products in the EDIReader software suite are available only by licensing
+ * with BerryWorks. Only those files bearing the GPL statement below are available under the GPL.
+ *
+ * EDIReader is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * EDIReader is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with EDIReader.  If not,
+ * see <http://www.gnu.org/licenses/>.
+ */
+
+package com.berryworks.edireader;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A BinaryPayloadHandler defines a callback interface by which a program using EDIReader can receive
+ * the raw data of a binary object, such as the data following an ANSI X.12 BIN segment or an
+ * EDIFACT UNO segment, instead of having it appear as Base64-encoded characters in the SAX events.
+ * <p>
+ * The data is read directly from the EDI input as the handler reads the InputStream, so an object of
+ * any size can be processed without being held in memory. Each char of EDI input is presented as one byte.
+ * The package element still appears in the SAX events, but with no content. If the handler returns
+ * without reading all of the data, the rest is skipped. java.nio.channels.Channels.newChannel() can
+ * be used to read the data through a ReadableByteChannel.
+ */
+public interface BinaryPayloadHandler {
+    /**
+     * Process the data of a binary object.
+     *
+     * @param segmentType      BIN or UNO
+     * @param packageReference package reference number, or null if the EDI standard has none
+     * @param length           number of bytes of data
+     * @param data             stream from which the data can be read; it does not need to be closed
+     * @throws IOException if the data cannot be processed
+     */
+    void binaryObject(String segmentType, String packageReference, int length, InputStream data) throws IOException;
+}
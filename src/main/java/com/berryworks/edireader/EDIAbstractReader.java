@@ -21,12 +21,14 @@
 package com.berryworks.edireader;
 
 import com.berryworks.edireader.error.EDISyntaxExceptionHandler;
+import com.berryworks.edireader.error.SyntaxErrorCollector;
 import com.berryworks.edireader.tokenizer.EDITokenizer;
 import com.berryworks.edireader.tokenizer.Tokenizer;
 import com.berryworks.edireader.util.BranchingWriter;
 import org.xml.sax.*;
 
 import java.io.*;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Locale;
 
@@ -46,7 +48,8 @@ public abstract class EDIAbstractReader implements XMLReader {
     private ContentHandler contentHandler;
 
     /**
-     * The first PREVIEW_LENGTH bytes of the EDI input, read during
+     * The first PREVIEW_LENGTH bytes of the EDI input, decoded as ISO-8859-1,
+     * captured when createReader peeks at a byte stream
      */
     private static String previewString;
 
@@ -55,6 +58,11 @@ public abstract class EDIAbstractReader implements XMLReader {
      */
     private Tokenizer tokenizer;
 
+    /**
+     * The same tokenizer, if it is an EDITokenizer, so that it can be reached without an interface call
+     */
+    private EDITokenizer ediTokenizer;
+
     /**
      * The Reader providing the EDI input. Typically assigned by createEDIReader in EDIReaderFactory.
      */
@@ -63,6 +71,8 @@ public abstract class EDIAbstractReader implements XMLReader {
 
     private EDISyntaxExceptionHandler syntaxExceptionHandler;
 
+    private SyntaxErrorCollector syntaxErrorCollector;
+
     private ErrorHandler errorHandler;
 
     private EntityResolver entityResolver;
@@ -191,6 +201,17 @@ public abstract class EDIAbstractReader implements XMLReader {
 
     private TransactionCallback transactionCallback;
 
+    private BinaryPayloadHandler binaryPayloadHandler;
+
+    private ParseMetricsSink parseMetricsSink;
+
+    private ParseControl parseControl = new ParseControl();
+
+    /**
+     * If acknowledgements are being written, should they be rendered by a separate thread?
+     */
+    private boolean asynchronousAcknowledgment;
+
     public void parse() throws IOException, SAXException {
         parse(inputReader);
     }
@@ -342,6 +363,17 @@ public abstract class EDIAbstractReader implements XMLReader {
 
     public void setTokenizer(Tokenizer t) {
         tokenizer = t;
+        ediTokenizer = t instanceof EDITokenizer ? (EDITokenizer) t : null;
+    }
+
+    /**
+     * Returns the tokenizer if it is an EDITokenizer. Because EDITokenizer is final, calls made through
+     * this reference in the per-element parsing path are bound statically and can be inlined.
+     *
+     * @return the EDITokenizer, or null if the tokenizer is some other implementation of Tokenizer
+     */
+    protected EDITokenizer getEDITokenizer() {
+        return ediTokenizer;
     }
 
     public void setCopyWriter(Writer writer) {
@@ -359,19 +391,26 @@ public abstract class EDIAbstractReader implements XMLReader {
         if (theReader == null) {
             InputStream inputStream = source.getByteStream();
             if (inputStream != null) {
-                // We have a byte stream. Read PREVIEW_LENGTH bytes to String with ISO-8859-1 encoding,
-                // and be prepared to create a Reader using a different character set depending on what we see in the UNB.
+                // We have a byte stream. Peek at the first PREVIEW_LENGTH bytes to choose the character set,
+                // then decode the entire stream, from its beginning, with that character set.
+                if (!inputStream.markSupported())
+                    inputStream = new BufferedInputStream(inputStream);
+                inputStream.mark(PREVIEW_LENGTH);
                 byte[] previewBytes = new byte[PREVIEW_LENGTH];
+                int length = 0;
                 try {
-                    int read = inputStream.read(previewBytes);
-                    if (read == -1)
+                    int n;
+                    while (length < PREVIEW_LENGTH && (n = inputStream.read(previewBytes, length, PREVIEW_LENGTH - length)) != -1)
+                        length += n;
+                    if (length == 0)
                         throw new IOException("No bytes available from InputSource ByteStream");
+                    inputStream.reset();
                 } catch (IOException e) {
                     throw new IOException("Problem reading from InputSource ByteStream: " + e.getMessage());
                 }
-                previewString = new String(previewBytes, StandardCharsets.ISO_8859_1);
+                previewString = new String(previewBytes, 0, length, StandardCharsets.ISO_8859_1);
 
-                theReader = new StringReader(previewString);
+                theReader = new InputStreamReader(inputStream, previewCharset(previewBytes, length));
             } else {
                 String systemId = source.getSystemId();
                 if (systemId != null) {
@@ -396,6 +435,39 @@ public abstract class EDIAbstractReader implements XMLReader {
         return theReader;
     }
 
+    /**
+     * Determine the character set in which a byte stream of EDI is encoded by examining its first few bytes.
+     * For an EDIFACT interchange, the syntax identifier in the UNB, following an optional UNA,
+     * designates the character set. Other EDI is decoded as UTF-8.
+     *
+     * @param bytes  the first bytes of the EDI input
+     * @param length number of bytes available
+     * @return Charset for decoding the input
+     */
+    static Charset previewCharset(byte[] bytes, int length) {
+        int i = 0;
+        while (i < length && Character.isWhitespace(bytes[i]))
+            i++;
+
+        if (startsWith(bytes, length, i, 'U', 'N', 'A')) {
+            // Skip the 9 bytes of the UNA and any whitespace following its terminator
+            i += 9;
+            while (i < length && !Character.isLetter(bytes[i]))
+                i++;
+        }
+
+        // UNB+UNOA...
+        // 01234567
+        if (startsWith(bytes, length, i, 'U', 'N', 'B') && i + 7 < length)
+            return EdifactReader.charsetFor((char) bytes[i + 7]);
+
+        return StandardCharsets.UTF_8;
+    }
+
+    private static boolean startsWith(byte[] bytes, int length, int i, char c0, char c1, char c2) {
+        return i + 2 < length && bytes[i] == c0 && bytes[i + 1] == c1 && bytes[i + 2] == c2;
+    }
+
     /**
      * Prepare the parser for its parse method to be called. This involves
      * previewing some of the interchange to discover syntactic details, and
@@ -495,6 +567,70 @@ public abstract class EDIAbstractReader implements XMLReader {
         this.transactionCallback = transactionCallback;
     }
 
+    public BinaryPayloadHandler getBinaryPayloadHandler() {
+        return binaryPayloadHandler;
+    }
+
+    /**
+     * Set a handler to receive the raw data of binary objects, such as those following
+     * BIN or UNO segments, instead of presenting it Base64-encoded to the ContentHandler.
+     *
+     * @param binaryPayloadHandler handler for binary objects, or null for the default Base64 behavior
+     */
+    public void setBinaryPayloadHandler(BinaryPayloadHandler binaryPayloadHandler) {
+        this.binaryPayloadHandler = binaryPayloadHandler;
+    }
+
+    public ParseMetricsSink getParseMetricsSink() {
+        return parseMetricsSink;
+    }
+
+    /**
+     * Set a sink to receive counts and timings by segment, loop, and transaction. By default there is none,
+     * and the measurements are not taken.
+     *
+     * @param parseMetricsSink sink for parse measurements, or null
+     */
+    public void setParseMetricsSink(ParseMetricsSink parseMetricsSink) {
+        this.parseMetricsSink = parseMetricsSink;
+    }
+
+    /**
+     * Returns the ParseControl through which a ContentHandler may stop the parse early.
+     *
+     * @return ParseControl for this EDIReader
+     */
+    public ParseControl getParseControl() {
+        return parseControl;
+    }
+
+    /**
+     * Set the ParseControl to be observed while parsing, so that several EDIReaders can be stopped together.
+     *
+     * @param parseControl ParseControl to observe
+     */
+    public void setParseControl(ParseControl parseControl) {
+        if (parseControl == null)
+            throw new IllegalArgumentException("ParseControl cannot be null");
+        this.parseControl = parseControl;
+    }
+
+    public boolean isAsynchronousAcknowledgment() {
+        return asynchronousAcknowledgment;
+    }
+
+    /**
+     * Indicate that acknowledgments are to be rendered and written by a separate thread, so that
+     * the time spent writing them is not added to the time spent parsing. The acknowledgments are
+     * the same either way, and are complete when parse() returns.
+     *
+     * @param asynchronousAcknowledgment true to generate acknowledgments on a separate thread
+     * @see AsyncReplyGenerator
+     */
+    public void setAsynchronousAcknowledgment(boolean asynchronousAcknowledgment) {
+        this.asynchronousAcknowledgment = asynchronousAcknowledgment;
+    }
+
     public EDISyntaxExceptionHandler getSyntaxExceptionHandler() {
         return syntaxExceptionHandler;
     }
@@ -503,6 +639,20 @@ public abstract class EDIAbstractReader implements XMLReader {
         this.syntaxExceptionHandler = syntaxExceptionHandler;
     }
 
+    public SyntaxErrorCollector getSyntaxErrorCollector() {
+        return syntaxErrorCollector;
+    }
+
+    /**
+     * Set a collector in which recoverable syntax errors are recorded, allowing parsing to continue
+     * without creating exceptions or logging. When set, it takes the place of the EDISyntaxExceptionHandler.
+     *
+     * @param syntaxErrorCollector collector for recoverable syntax errors, or null
+     */
+    public void setSyntaxErrorCollector(SyntaxErrorCollector syntaxErrorCollector) {
+        this.syntaxErrorCollector = syntaxErrorCollector;
+    }
+
     public boolean isNamespaceEnabled() {
         return namespaceEnabled;
     }
@@ -22,6 +22,7 @@ package com.berryworks.edireader;
 
 import com.berryworks.edireader.error.ErrorMessages;
 import com.berryworks.edireader.plugin.PluginControllerFactoryInterface;
+import com.berryworks.edireader.tokenizer.Tokenizer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.Attributes;
@@ -66,12 +67,19 @@ public class EDIReader extends EDIAbstractReader implements ErrorMessages {
      */
     public void parse(InputSource source) throws SAXException, IOException {
 
-        startXMLDocument();
+        // A stop() from an earlier parse does not carry over to this one
+        getParseControl().reset();
 
-        char[] leftOver = null;
+        try {
+            startXMLDocument();
+        } catch (ParseControl.Stopped stopped) {
+            return;
+        }
+
+        Tokenizer tokenizer = null;
         while (true) {
             if (theReader == null) {
-                theReader = EDIReaderFactory.createEDIReader(source, leftOver);
+                theReader = EDIReaderFactory.createNextEDIReader(source, tokenizer);
                 if (theReader == null) {
                     logger.debug("EDIReader.parse(InputSource) hit end of input");
                     break;
@@ -83,8 +91,13 @@ public class EDIReader extends EDIAbstractReader implements ErrorMessages {
                 theReader.setExternalXmlDocumentStart(true);
                 theReader.setAcknowledgment(getAckStream());
                 theReader.setAlternateAcknowledgment(getAlternateAckStream());
+                theReader.setAsynchronousAcknowledgment(isAsynchronousAcknowledgment());
+                theReader.setParseMetricsSink(getParseMetricsSink());
+                theReader.setParseControl(getParseControl());
                 theReader.setContentHandler(getContentHandler());
                 theReader.setSyntaxExceptionHandler(getSyntaxExceptionHandler());
+                theReader.setSyntaxErrorCollector(getSyntaxErrorCollector());
+                theReader.setBinaryPayloadHandler(getBinaryPayloadHandler());
                 theReader.setNamespaceEnabled(isNamespaceEnabled());
                 theReader.setIncludeSyntaxCharacters(isIncludeSyntaxCharacters());
                 theReader.setKeepSpacesOnlyElements(isKeepSpacesOnlyElements());
@@ -103,7 +116,12 @@ public class EDIReader extends EDIAbstractReader implements ErrorMessages {
             setTerminator(theReader.getTerminator());
             setTerminatorSuffix(theReader.getTerminatorSuffix());
 
-            leftOver = theReader.getTokenizer().getBuffered();
+            if (getParseControl().isStopped()) {
+                theReader = null;
+                return;
+            }
+
+            tokenizer = theReader.getTokenizer();
             theReader = null;
         }
 
@@ -116,8 +134,6 @@ public class EDIReader extends EDIAbstractReader implements ErrorMessages {
         // Special case. The terminator suffix is not handled by the tokenizer like other syntax characters
         // but is held on the EDIReader itself. If an exception is thrown during parsing, the EDIReader delegate
         // will know the terminator suffix, but it will not get propagated upward.
-        // The EdiProber deliberately throws an exception to abort parsing after the first document is seen,
-        // so we need this special case to let the prober discover the actual terminator suffix.
         String result = super.getTerminatorSuffix();
         if (result == null && theReader != null) {
             result = theReader.getTerminatorSuffix();
@@ -164,6 +180,7 @@ public class EDIReader extends EDIAbstractReader implements ErrorMessages {
     protected void startElement(String tag, Attributes attributes)
             throws SAXException {
         getContentHandler().startElement("", tag, tag, attributes);
+        getParseControl().checkpoint();
     }
 
     protected void endElement(String tag) throws SAXException {
@@ -124,7 +124,35 @@ public abstract class EDIReaderFactory {
                 (preRead == null || preRead.length == 0) ?
                         new EDITokenizer(inputReader) :
                         new EDITokenizer(inputReader, preRead);
+        return createEDIReader(source, inputReader, tokenizer);
+    }
+
+    /**
+     * Factory method to create an instance of a subclass of EDIReader for the next
+     * interchange in an input that contains several. The tokenizer used by the parser of
+     * the previous interchange is re-armed and used again, so that chars it has buffered
+     * are seen as the beginning of the next interchange without being copied. If the tokenizer
+     * cannot be re-armed, a new one is created with the chars it has buffered.
+     *
+     * @param source    EDI source
+     * @param tokenizer tokenizer used for the previous interchange, or null if there was none
+     * @return created EDIReader instance, or null if there is no more input
+     * @throws IOException        for problem reading EDI data
+     * @throws EDISyntaxException if invalid EDI is detected
+     */
+    public static EDIReader createNextEDIReader(InputSource source, Tokenizer tokenizer)
+            throws EDISyntaxException, IOException {
+        if (tokenizer == null)
+            return createEDIReader(source, null, false);
+
+        if (!tokenizer.rearm())
+            return createEDIReader(source, tokenizer.getBuffered(), false);
 
+        return createEDIReader(source, tokenizer.getReader(), tokenizer);
+    }
+
+    private static EDIReader createEDIReader(InputSource source, Reader inputReader, Tokenizer tokenizer)
+            throws EDISyntaxException, IOException {
         // Skip past any leading whitespace
         tokenizer.scanTerminatorSuffix();
 
@@ -21,6 +21,7 @@
 package com.berryworks.edireader;
 
 import com.berryworks.edireader.error.EDISyntaxExceptionHandler;
+import com.berryworks.edireader.error.SyntaxErrorCollector;
 import com.berryworks.edireader.tokenizer.Tokenizer;
 import com.berryworks.edireader.util.BranchingWriter;
 import org.xml.sax.*;
@@ -195,6 +196,46 @@ public class EDIReaderWrapper extends EDIReader {
         wrappedEDIReader.setTransactionCallback(transactionCallback);
     }
 
+    @Override
+    public BinaryPayloadHandler getBinaryPayloadHandler() {
+        return wrappedEDIReader.getBinaryPayloadHandler();
+    }
+
+    @Override
+    public void setBinaryPayloadHandler(BinaryPayloadHandler binaryPayloadHandler) {
+        wrappedEDIReader.setBinaryPayloadHandler(binaryPayloadHandler);
+    }
+
+    @Override
+    public ParseMetricsSink getParseMetricsSink() {
+        return wrappedEDIReader.getParseMetricsSink();
+    }
+
+    @Override
+    public void setParseMetricsSink(ParseMetricsSink parseMetricsSink) {
+        wrappedEDIReader.setParseMetricsSink(parseMetricsSink);
+    }
+
+    @Override
+    public ParseControl getParseControl() {
+        return wrappedEDIReader.getParseControl();
+    }
+
+    @Override
+    public void setParseControl(ParseControl parseControl) {
+        wrappedEDIReader.setParseControl(parseControl);
+    }
+
+    @Override
+    public boolean isAsynchronousAcknowledgment() {
+        return wrappedEDIReader.isAsynchronousAcknowledgment();
+    }
+
+    @Override
+    public void setAsynchronousAcknowledgment(boolean asynchronousAcknowledgment) {
+        wrappedEDIReader.setAsynchronousAcknowledgment(asynchronousAcknowledgment);
+    }
+
     @Override
     public EDISyntaxExceptionHandler getSyntaxExceptionHandler() {
         return wrappedEDIReader.getSyntaxExceptionHandler();
@@ -205,6 +246,16 @@ public class EDIReaderWrapper extends EDIReader {
         wrappedEDIReader.setSyntaxExceptionHandler(syntaxExceptionHandler);
     }
 
+    @Override
+    public SyntaxErrorCollector getSyntaxErrorCollector() {
+        return wrappedEDIReader.getSyntaxErrorCollector();
+    }
+
+    @Override
+    public void setSyntaxErrorCollector(SyntaxErrorCollector syntaxErrorCollector) {
+        wrappedEDIReader.setSyntaxErrorCollector(syntaxErrorCollector);
+    }
+
     @Override
     public ContentHandler getContentHandler() {
         return wrappedEDIReader.getContentHandler();
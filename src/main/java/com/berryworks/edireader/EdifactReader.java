@@ -21,20 +21,16 @@
 package com.berryworks.edireader;
 
 import com.berryworks.edireader.error.ErrorMessages;
-import com.berryworks.edireader.tokenizer.EDITokenizer;
 import com.berryworks.edireader.tokenizer.Token;
-import com.berryworks.edireader.util.ContentHandlerBase64Encoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
 import java.lang.invoke.MethodHandles;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static com.berryworks.edireader.util.FixedLength.emptyIfNull;
@@ -376,6 +372,7 @@ public class EdifactReader extends StandardReader {
         String messageVersion = "";
         String messageRelease = "";
         int segCount = 2;
+        long startNanos = getParseMetricsSink() == null ? 0 : System.nanoTime();
 
         getDocumentAttributes().clear();
         getDocumentAttributes().addCDATA(getXMLTags().getControl(),
@@ -386,7 +383,8 @@ public class EdifactReader extends StandardReader {
             String s = v.get(0);
             if (s != null) {
                 messageType = s;
-                logger.debug("Parsing {} message", messageType);
+                if (logger.isDebugEnabled())
+                    logger.debug("Parsing {} message", messageType);
                 getDocumentAttributes().addCDATA(getXMLTags().getDocumentType(), messageType);
             }
             if (n > 1) {
@@ -456,7 +454,10 @@ public class EdifactReader extends StandardReader {
         /*
          * Skip over this UNT segment and return the SEGMENT_END token
          */
-        return getTokenizer().skipSegment();
+        Token t = getTokenizer().skipSegment();
+        if (getParseMetricsSink() != null)
+            getParseMetricsSink().transaction(messageType, control, segCount, System.nanoTime() - startNanos);
+        return t;
     }
 
     protected void parseUNOUNPSequence() throws SAXException, IOException {
@@ -479,7 +480,9 @@ public class EdifactReader extends StandardReader {
 
         getTokenizer().skipSegment();
 
-        char[] dataObject = getTokenizer().getChars(length);
+        // The package element is emitted as the object is read, before the UNP is validated,
+        // so that the object need not be held in memory.
+        parseBinaryObject("UNO", packageReference, length);
 
         Token token = getTokenizer().nextToken();
 
@@ -513,12 +516,6 @@ public class EdifactReader extends StandardReader {
             logger.warn(se.getMessage());
             throw se;
         }
-
-        getDocumentAttributes().clear();
-        getDocumentAttributes().addCDATA(getXMLTags().getIdAttribute(), packageReference);
-        startElement(getXMLTags().getPackageTag(), getDocumentAttributes());
-        new ContentHandlerBase64Encoder().encode(dataObject, getContentHandler());
-        endElement(getXMLTags().getPackageTag());
     }
 
     /**
@@ -567,6 +564,7 @@ public class EdifactReader extends StandardReader {
         boolean decimalMarkDetermined = false;
         boolean terminatorDetermined = false;
         boolean terminatorSuffixDetermined = false;
+        int unbOffset = 0;
 
         setTerminatorSuffix("");
 
@@ -598,45 +596,36 @@ public class EdifactReader extends StandardReader {
             }
             setTerminator(buf[8]);
             terminatorDetermined = true;
-            terminatorSuffixDetermined = shiftUNBoverUNA(buf);
+            unbOffset = skipTerminatorSuffix(buf);
+            terminatorSuffixDetermined = unbOffset > 9;
         }
 
-        previewUNB(buf, delimiterDetermined, subDelimiterDetermined,
+        previewUNB(buf, unbOffset, delimiterDetermined, subDelimiterDetermined,
                 decimalMarkDetermined, releaseDetermined,
                 terminatorDetermined, terminatorSuffixDetermined);
         setPreviewed(true);
     }
 
     /**
-     * Shift the buffer to look at the UNB. This is a little tricky because we
-     * don't know exactly how many bytes to shift. We need to find the first U
-     * soon after the end of the UNA segment. Remember, there might be
-     * whitespace chars between the terminator and the UNB. Take note of this
-     * whitespace, saving it as a terminatorSuffix, so that a segment could be
-     * generated with matching whitespace conventions.
+     * Find the UNB following the UNA. We don't know exactly where it starts
+     * because there might be whitespace chars between the terminator and the UNB.
+     * Take note of this whitespace, saving it as a terminatorSuffix, so that a
+     * segment could be generated with matching whitespace conventions.
      *
-     * @param buf buffer containing chars to be shifted
-     * @return true if a terminator suffix was recognized
+     * @param buf preview buffer beginning with the UNA
+     * @return index of the UNB in the buffer
      */
-    private boolean shiftUNBoverUNA(char[] buf) {
-        boolean terminatorSuffixDetermined = false;
-        int nShift = 9;
-        for (int j = 9; j < 14; j++) {
-            // buf[9] is the 1st char after UNA terminator
-            if (Character.isLetter(buf[j])) {
-                nShift = j;
-                break;
-            }
-            setTerminatorSuffix(getTerminatorSuffix() + buf[j]);
-            terminatorSuffixDetermined = true;
+    private int skipTerminatorSuffix(char[] buf) {
+        int unbOffset = 9;
+        // buf[9] is the 1st char after UNA terminator
+        while (unbOffset < 14 && !Character.isLetter(buf[unbOffset])) {
+            setTerminatorSuffix(getTerminatorSuffix() + buf[unbOffset]);
+            unbOffset++;
         }
-        for (int j = 0; j < buf.length - nShift; j++) {
-            buf[j] = buf[j + nShift];
-        }
-        return terminatorSuffixDetermined;
+        return unbOffset;
     }
 
-    private void previewUNB(char[] buf, boolean delimiterDetermined,
+    private void previewUNB(char[] buf, int offset, boolean delimiterDetermined,
                             boolean subDelimiterDetermined, boolean decimalMarkDetermined, boolean releaseDetermined,
                             boolean terminatorDetermined, boolean terminatorSuffixDetermined)
             throws EDISyntaxException {
@@ -644,50 +633,30 @@ public class EdifactReader extends StandardReader {
         // UNB+UNOA...
         // 01234567
 
-        if (buf[2] != 'B') {
+        if (buf[offset + 2] != 'B') {
             EDISyntaxException se = new EDISyntaxException("Required UNB segment not found in EDIFACT interchange");
             logger.warn(se.getMessage());
             throw se;
         }
 
-        InputSource inputSource;
-        InputStream byteStream;
-        String msg;
-
-        inputSource = getInputSource();
+        InputSource inputSource = getInputSource();
         if (inputSource == null) {
-            msg = "EDIFACT parser must have an InputSource.";
-            EDISyntaxException se = new EDISyntaxException(msg);
+            EDISyntaxException se = new EDISyntaxException("EDIFACT parser must have an InputSource.");
             logger.warn(se.getMessage());
             throw se;
         }
 
-        EDITokenizer newTokenizer;
-        Reader replacementReader;
-        char[] preRead;
-        char syntaxIdentifier = buf[7];
-        switch (syntaxIdentifier) {
-            case 'A':
-            case 'B':
-            case 'C':
-                byteStream = inputSource.getByteStream();
-                if (byteStream == null) {
-                    // We already have a character stream and a Reader ready to use.
-                    // Since UNOA/B/C use ISO-8859-1, we will assume that the Reader is suitable.
-                    setSyntaxCharacters(buf, delimiterDetermined, subDelimiterDetermined, decimalMarkDetermined, releaseDetermined, terminatorDetermined, syntaxIdentifier);
-                    break;
-                } else {
-                    changeCharSet(syntaxIdentifier, "ISO-8859-1", inputSource);
-                }
-                break;
-            case 'D':
-                changeCharSet(syntaxIdentifier, "ISO-8859-2", inputSource);
-                break;
-            case 'E':
-                changeCharSet(syntaxIdentifier, "ISO-8859-5", inputSource);
-                break;
+        // The Reader was established by createReader, which chose the character set from the UNB
+        // before any characters were decoded. A character stream supplied by the caller is assumed to be
+        // suitable unless the syntax identifier designates a character set that cannot be assumed.
+        char syntaxIdentifier = buf[offset + 7];
+        if ((syntaxIdentifier == 'D' || syntaxIdentifier == 'E') && inputSource.getByteStream() == null) {
+            EDISyntaxException se = new EDISyntaxException(
+                    "EDIFACT parser with UNB+UNO" + syntaxIdentifier + " must be created with a byte stream InputSource.");
+            logger.warn(se.getMessage());
+            throw se;
         }
-        setSyntaxCharacters(buf, delimiterDetermined, subDelimiterDetermined, decimalMarkDetermined, releaseDetermined, terminatorDetermined, syntaxIdentifier);
+        setSyntaxCharacters(buf, offset, delimiterDetermined, subDelimiterDetermined, decimalMarkDetermined, releaseDetermined, terminatorDetermined, syntaxIdentifier);
 
         if (!terminatorSuffixDetermined)
             // We still have not observed a terminator suffix
@@ -695,34 +664,34 @@ public class EdifactReader extends StandardReader {
             // Therefore, we must scan the buffer until we see the
             // segment terminator, and then note suffix characters
             // following.
-            setTerminatorSuffix(scanForSuffix(buf, 3));
+            setTerminatorSuffix(scanForSuffix(buf, offset + 3));
     }
 
-    private void changeCharSet(char letter, String charSetName, InputSource inputSource) throws EDISyntaxException {
-        String msg;
-        char[] preRead;
-        Reader replacementReader;
-        EDITokenizer newTokenizer;
-        Charset designatedCharset;
-        InputStream byteStream;
-        designatedCharset = Charset.forName(charSetName);
-        byteStream = inputSource.getByteStream();
-        if (byteStream == null) {
-            msg = "EDIFACT parser with UNB+UNO" + letter + " must be created with a byte stream InputSource.";
-            EDISyntaxException se = new EDISyntaxException(msg);
-            logger.warn(se.getMessage());
-            throw se;
+    /**
+     * Returns the character set designated by the syntax identifier in a UNB,
+     * where the letter is the one following UNO. UNOA, UNOB, UNOC and any letter
+     * not listed here are decoded as ISO-8859-1.
+     *
+     * @param syntaxIdentifier letter following UNO in the syntax identifier
+     * @return Charset for decoding the interchange
+     */
+    static Charset charsetFor(char syntaxIdentifier) {
+        switch (syntaxIdentifier) {
+            case 'D':
+                return Charset.forName("ISO-8859-2");
+            case 'E':
+                return Charset.forName("ISO-8859-5");
+            case 'W':
+            case 'Y':
+                return StandardCharsets.UTF_8;
+            default:
+                return StandardCharsets.ISO_8859_1;
         }
-        replacementReader = new InputStreamReader(byteStream, designatedCharset);
-        preRead = getPreviewString().toCharArray();
-        newTokenizer = new EDITokenizer(replacementReader, preRead);
-        setInputReader(replacementReader);
-        setTokenizer(newTokenizer);
     }
 
-    private void setSyntaxCharacters(char[] buf, boolean delimiterDetermined, boolean subDelimiterDetermined, boolean decimalMarkDetermined, boolean releaseDetermined, boolean terminatorDetermined, char syntaxIdentifier) throws EDISyntaxException {
+    private void setSyntaxCharacters(char[] buf, int offset, boolean delimiterDetermined, boolean subDelimiterDetermined, boolean decimalMarkDetermined, boolean releaseDetermined, boolean terminatorDetermined, char syntaxIdentifier) throws EDISyntaxException {
         if (!Character.isLetter(syntaxIdentifier)) {
-            EDISyntaxException se = new EDISyntaxException("Unknown Syntax Identifier in UNB segment: " + new String(buf, 4, 4));
+            EDISyntaxException se = new EDISyntaxException("Unknown Syntax Identifier in UNB segment: " + new String(buf, offset + 4, 4));
             logger.warn(se.getMessage());
             throw se;
         }
@@ -730,7 +699,7 @@ public class EdifactReader extends StandardReader {
         if (!delimiterDetermined)
             setDelimiter('+');
 
-        if (buf[3] != getDelimiter()) {
+        if (buf[offset + 3] != getDelimiter()) {
             EDISyntaxException se = new EDISyntaxException("Expected data element separator after UNB segment tag");
             logger.warn(se.getMessage());
             throw se;
@@ -30,7 +30,8 @@ public class EdifactReaderWithCONTRL extends EdifactReader {
     protected void startInterchange(EDIAttributes attributes)
             throws SAXException {
         super.startInterchange(attributes);
-        getEdifactCONTRLGenerator().generateAcknowledgmentHeader(attributes);
+        EDIAttributes copy = new EDIAttributes(attributes);
+        generate(generator -> generator.generateAcknowledgmentHeader(copy));
     }
 
     @Override
@@ -47,29 +48,30 @@ public class EdifactReaderWithCONTRL extends EdifactReader {
     protected void startSenderAddress(EDIAttributes attributes)
             throws SAXException {
         super.startSenderAddress(attributes);
-        getEdifactCONTRLGenerator().setSender(attributes);
+        EDIAttributes copy = new EDIAttributes(attributes);
+        generate(generator -> generator.setSender(copy));
     }
 
     @Override
     protected void startReceiverAddress(EDIAttributes attributes)
             throws SAXException {
         super.startReceiverAddress(attributes);
-        getEdifactCONTRLGenerator().setReceiver(attributes);
+        EDIAttributes copy = new EDIAttributes(attributes);
+        generate(generator -> generator.setReceiver(copy));
     }
 
     @Override
     protected void startMessage(EDIAttributes attributes) throws SAXException {
         super.startMessage(attributes);
-        try {
-            getEdifactCONTRLGenerator().generateTransactionAcknowledgment(
-                    attributes);
-        } catch (IOException e) {
-            throw new SAXException(e);
-        }
+        EDIAttributes copy = new EDIAttributes(attributes);
+        generate(generator -> generator.generateTransactionAcknowledgment(copy));
     }
 
     protected EdifactCONTRLGenerator getEdifactCONTRLGenerator() {
-        return (EdifactCONTRLGenerator) getAckGenerator();
+        ReplyGenerator generator = getAckGenerator();
+        if (generator instanceof AsyncReplyGenerator)
+            generator = ((AsyncReplyGenerator) generator).getDelegate();
+        return (EdifactCONTRLGenerator) generator;
     }
 
     @Override
@@ -80,4 +82,24 @@ public class EdifactReaderWithCONTRL extends EdifactReader {
         return super.getAckGenerator();
     }
 
+    /**
+     * Make a CONTRL-specific call on the generator, directly or by way of the
+     * acknowledgment writer thread.
+     */
+    private void generate(CONTRLTask task) throws SAXException {
+        try {
+            ReplyGenerator generator = getAckGenerator();
+            if (generator instanceof AsyncReplyGenerator)
+                ((AsyncReplyGenerator) generator).submit(g -> task.renderTo((EdifactCONTRLGenerator) g));
+            else
+                task.renderTo((EdifactCONTRLGenerator) generator);
+        } catch (IOException e) {
+            throw new SAXException(e);
+        }
+    }
+
+    private interface CONTRLTask {
+        void renderTo(EdifactCONTRLGenerator generator) throws IOException;
+    }
+
 }
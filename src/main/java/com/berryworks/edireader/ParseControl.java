@@ -0,0 +1,90 @@
+/*
+ * Copyright 2005-2026 by BerryWorks Software, LLC. All rights reserved.
+ *
+ * This file is part of EDIReader. You may obtain a license for its use directly from
+ * BerryWorks Software, and you may also choose to use this software under the terms of the
+ * GPL version 3. Other products in the EDIReader software suite are available only by licensing
+ * with BerryWorks. Only those files bearing the GPL statement below are available under the GPL.
+ *
+ * EDIReader is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * EDIReader is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with EDIReader.  If not,
+ * see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.berryworks.edireader;
+
+import org.xml.sax.SAXException;
+
+/**
+ * Allows a ContentHandler, or another thread, to end a parse early without throwing an exception of its own.
+ * <p>
+ * Each EDIReader has a ParseControl, available through getParseControl(). When stop() is called, the parser
+ * ends at the next element boundary, and parse() returns normally without delivering any further SAX events,
+ * including the endElement() calls for elements still open and endDocument(). Acknowledgments are not completed.
+ * This is intended for uses such as routing, where only the envelope information at the start of an
+ * interchange is of interest. For example, a handler can call stop() from startElement() for the first
+ * transaction after noting its attributes.
+ * <p>
+ * Once stopped, a ParseControl remains stopped until reset(). EDIReader.parse() resets it when it begins,
+ * so an EDIReader that was stopped can be used again.
+ */
+public final class ParseControl {
+
+    private volatile boolean stopped;
+
+    /**
+     * Request that parsing end at the next element boundary.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Returns true if stop() has been called since this ParseControl was created or last reset.
+     *
+     * @return true if stopped
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Clear a previous stop() so that the EDIReader can be used for another parse.
+     */
+    public void reset() {
+        stopped = false;
+    }
+
+    /**
+     * Called by the parser after each SAX event that a ContentHandler might use to decide to stop.
+     *
+     * @throws Stopped if stop() has been called
+     */
+    void checkpoint() throws Stopped {
+        if (stopped)
+            throw new Stopped();
+    }
+
+    /**
+     * Unwinds the parser when stopped. It never reaches the caller of parse(), and therefore
+     * does not need a stack trace.
+     */
+    static final class Stopped extends SAXException {
+        Stopped() {
+            super("Parsing stopped by ParseControl");
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
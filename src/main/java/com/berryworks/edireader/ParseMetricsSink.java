@@ -0,0 +1,67 @@
+/*
+ * Copyright 2005-2026 by BerryWorks Software, LLC. All rights reserved.
+ *
+ * This file is part of EDIReader. You may obtain a license for its use directly from
+ * BerryWorks Software, and you may also choose to use this software under the terms of the
+ * GPL version 3. Other products in the EDIReader software suite are available only by licensing
+ * with BerryWorks. Only those files bearing the GPL statement below are available under the GPL.
+ *
+ * EDIReader is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * EDIReader is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with EDIReader.  If not,
+ * see <http://www.gnu.org/licenses/>.
+ */
+
+package com.berryworks.edireader;
+
+/**
+ * Receives measurements of parsing, if one is set on an EDIReader with setParseMetricsSink().
+ * <p>
+ * Every method has an empty default, so an implementation need only override those of interest; it may, for
+ * example, forward to a metrics library or simply log. ParseMetricsRegistry is an implementation that
+ * accumulates the measurements in memory and can be viewed through JMX. When no sink is set, the parser
+ * does not take any of these measurements.
+ * <p>
+ * The methods are called on the parsing thread. A sink shared by EDIReaders on several threads must be thread-safe.
+ *
+ * @see com.berryworks.edireader.util.ParseMetricsRegistry
+ */
+public interface ParseMetricsSink {
+
+    /**
+     * Called at the end of each segment within a transaction or message.
+     *
+     * @param segmentType  segment tag, for example: NM1
+     * @param elementCount number of elements in the segment, including empty ones
+     * @param charCount    number of characters in the segment, including delimiters and terminator
+     */
+    default void segment(String segmentType, int elementCount, int charCount) {
+    }
+
+    /**
+     * Called when a plugin determines that a segment marks a transition from one loop to another.
+     *
+     * @param loopName     name of the loop entered or resumed
+     * @param nestingLevel nesting level after the transition, with 1 for a loop directly within the transaction
+     * @param loopsClosed  number of loops closed by the transition
+     */
+    default void loopTransition(String loopName, int nestingLevel, int loopsClosed) {
+    }
+
+    /**
+     * Called at the end of each transaction or message.
+     *
+     * @param documentType  for example: 837 or ORDERS
+     * @param controlNumber control number of the transaction or message
+     * @param segmentCount  number of segments, including the header and trailer
+     * @param nanos         time spent parsing the transaction, in nanoseconds
+     */
+    default void transaction(String documentType, String controlNumber, int segmentCount, long nanos) {
+    }
+}
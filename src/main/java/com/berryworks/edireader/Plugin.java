@@ -23,6 +23,7 @@ package com.berryworks.edireader;
 import com.berryworks.edireader.plugin.LoopDescriptor;
 import com.berryworks.edireader.plugin.PluginControllerImpl;
 import com.berryworks.edireader.plugin.PluginPreparation;
+import com.berryworks.edireader.tokenizer.SegmentTag;
 import com.berryworks.edireader.tokenizer.Tokenizer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -178,6 +179,22 @@ public abstract class Plugin {
      * @return descriptor matching query parameters, or null if none
      */
     public LoopDescriptor query(String segment, String currentLoopStack, int currentLevel, Set<String> resultFlags) {
+        return query(SegmentTag.pack(segment), segment, currentLoopStack, currentLevel, resultFlags);
+    }
+
+    /**
+     * Query the plugin about a loop that starts with a designated segment type,
+     * given that you are already within a particular loop. The LoopDescriptors
+     * are found by the segment tag code provided by the tokenizer, without hashing the segment type.
+     *
+     * @param segmentTag       code of the segment type, as by SegmentTag.pack()
+     * @param segment          type of segment encountered
+     * @param currentLoopStack stack representing nested loops in current state
+     * @param currentLevel     nesting level of current state
+     * @param resultFlags      unused
+     * @return descriptor matching query parameters, or null if none
+     */
+    public LoopDescriptor query(int segmentTag, String segment, String currentLoopStack, int currentLevel, Set<String> resultFlags) {
         LoopDescriptor result = null;
 //        logger.debug("plugin query for segment {}", segment);
 
@@ -187,15 +204,22 @@ public abstract class Plugin {
         if (optimizedForm == null)
             throw new RuntimeException("Internal error: plugin not properly constructed");
 
-        List<LoopDescriptor> descriptorList = optimizedForm.getList(segment);
-        if (descriptorList == null) {
+        LoopDescriptor[] descriptors;
+        if (segmentTag == SegmentTag.NONE) {
+            // A segment type that cannot be encoded, which is rare, is looked up by name
+            List<LoopDescriptor> descriptorList = optimizedForm.getList(segment);
+            descriptors = descriptorList == null ? null : descriptorList.toArray(new LoopDescriptor[0]);
+        } else {
+            descriptors = optimizedForm.getDescriptors(segmentTag);
+        }
+        if (descriptors == null) {
 //            logger.debug("No descriptors found");
             return null;
         }
-//        logger.debug("Number of descriptors found: {}", descriptorList.size());
+//        logger.debug("Number of descriptors found: {}", descriptors.length);
 
-        for (LoopDescriptor descriptor : descriptorList) {
-            boolean candidate = matchesWithoutRegardToFlagConditionals(descriptor, segment, currentLoopStack, currentLevel);
+        for (LoopDescriptor descriptor : descriptors) {
+            boolean candidate = matchesWithoutRegardToFlagConditionals(descriptor, currentLoopStack, currentLevel);
             if (candidate) {
                 // Now check to see if it has any flag-related conditions.
                 Set<String> conditions = descriptor.getConditionFlags();
@@ -222,11 +246,9 @@ public abstract class Plugin {
         return result;
     }
 
-    private boolean matchesWithoutRegardToFlagConditionals(LoopDescriptor descriptor, String segment, String currentLoopStack, int currentLevel) {
+    // The descriptors were grouped by first segment when the plugin was prepared, so that is not checked again here.
+    private boolean matchesWithoutRegardToFlagConditionals(LoopDescriptor descriptor, String currentLoopStack, int currentLevel) {
 
-        if (!descriptor.getFirstSegment().startsWith(segment)) {
-            throw new RuntimeException("Internal error: optimized plugin structure invalid");
-        }
         int levelContext = descriptor.getLevelContext();
 //        logger.debug("checking level context {}", levelContext);
         if (levelContext > -1) {
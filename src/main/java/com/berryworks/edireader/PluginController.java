@@ -55,6 +55,19 @@ public class PluginController {
         return false;
     }
 
+    /**
+     * Compute a state transition, as with transition(String), given also the segment type
+     * encoded as an int by the tokenizer.
+     *
+     * @param segmentName type of segment encountered
+     * @param segmentTag  code of the segment type, as by SegmentTag.pack()
+     * @return true if there was a transition to a new loop, false otherwise
+     * @throws com.berryworks.edireader.EDISyntaxException Description of the Exception
+     */
+    public boolean transition(String segmentName, int segmentTag) throws EDISyntaxException {
+        return transition(segmentName);
+    }
+
     /**
      * Reset the state so that the same controller and plugin be used with another document of the same type.
      */
@@ -24,7 +24,11 @@ import com.berryworks.edireader.error.*;
 import com.berryworks.edireader.plugin.CompositeAwarePlugin;
 import com.berryworks.edireader.plugin.PluginControllerFactory;
 import com.berryworks.edireader.plugin.PluginControllerFactoryInterface;
+import com.berryworks.edireader.tokenizer.EDITokenizer;
 import com.berryworks.edireader.tokenizer.Token;
+import com.berryworks.edireader.tokenizer.TokenImpl;
+import com.berryworks.edireader.tokenizer.Tokenizer;
+import com.berryworks.edireader.util.ContentHandlerBase64Encoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.InputSource;
@@ -32,6 +36,8 @@ import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
 import java.lang.invoke.MethodHandles;
 import java.util.List;
 import java.util.ServiceLoader;
@@ -45,6 +51,7 @@ import static com.berryworks.edireader.util.FixedLength.isPresent;
  */
 public abstract class StandardReader extends EDIReader {
     private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass().getSimpleName());
+    private static final int BINARY_CHUNK_SIZE = 4096;
 
     /**
      * Interchange Control Number
@@ -76,8 +83,13 @@ public abstract class StandardReader extends EDIReader {
         if (getContentHandler() == null)
             setContentHandler(new DefaultHandler());
 
-        if (!isExternalXmlDocumentStart())
-            startXMLDocument();
+        if (!isExternalXmlDocumentStart()) {
+            try {
+                startXMLDocument();
+            } catch (ParseControl.Stopped stopped) {
+                return;
+            }
+        }
 
         parseSetup(source);
 
@@ -87,14 +99,21 @@ public abstract class StandardReader extends EDIReader {
         getTokenizer().setRepetitionSeparator(getRepetitionSeparator());
         getTokenizer().setTerminator(getTerminator());
 
+        boolean completed = false;
         try {
             parseInterchange(recognizeBeginning());
+            completed = true;
+        } catch (ParseControl.Stopped stopped) {
+            // A ContentHandler called ParseControl.stop(); end quietly, with no further SAX events
+            return;
         } catch (EDISyntaxException e) {
             if (ackGenerator != null)
                 ackGenerator.generateNegativeACK();
             if (alternateAckGenerator != null)
                 alternateAckGenerator.generateNegativeACK();
             throw e;
+        } finally {
+            finishAcknowledgments(completed);
         }
 
         if (!isExternalXmlDocumentStart())
@@ -226,6 +245,30 @@ public abstract class StandardReader extends EDIReader {
         }
     }
 
+    /**
+     * If a SyntaxErrorCollector is set, record a recoverable syntax error in it instead of creating an exception.
+     *
+     * @param code        kind of error
+     * @param description fixed part of the message
+     * @param expected    value that was expected, or null
+     * @param actual      value that was found, or null
+     * @return true if the error was recorded and parsing should continue, false if there is no collector
+     */
+    protected boolean collect(SyntaxErrorCode code, String description, String expected, String actual) {
+        SyntaxErrorCollector collector = getSyntaxErrorCollector();
+        if (collector == null)
+            return false;
+        Tokenizer tokenizer = getTokenizer();
+        collector.add(code, description, tokenizer.getSegmentCount(), tokenizer.getElementInSegmentCount(),
+                tokenizer.getCharCount(), expected, actual);
+        return true;
+    }
+
+    protected boolean collect(SyntaxErrorCode code, String description, int expected, int actual) {
+        return getSyntaxErrorCollector() != null &&
+               collect(code, description, String.valueOf(expected), String.valueOf(actual));
+    }
+
     protected boolean recover(RecoverableSyntaxException e) {
         boolean result = false;
         EDISyntaxExceptionHandler handler = getSyntaxExceptionHandler();
@@ -290,8 +333,49 @@ public abstract class StandardReader extends EDIReader {
         throw se;
     }
 
+    /**
+     * Read the data of a binary object, such as follows a BIN or UNO segment, and present it
+     * as the content of a package element. The data passes from the tokenizer in chunks of bounded size,
+     * either Base64-encoded to the ContentHandler or, if a BinaryPayloadHandler has been set, as raw bytes
+     * to that handler. In neither case is the object held in memory as a whole.
+     *
+     * @param segmentType      BIN or UNO
+     * @param packageReference value of the Id attribute of the package element, or null for none
+     * @param length           number of chars of data
+     * @throws SAXException for problem emitting SAX events
+     * @throws IOException  for problem reading EDI data
+     */
+    protected void parseBinaryObject(String segmentType, String packageReference, int length) throws SAXException, IOException {
+        getDocumentAttributes().clear();
+        if (packageReference != null) {
+            getDocumentAttributes().addCDATA(getXMLTags().getIdAttribute(), packageReference);
+        }
+        startElement(getXMLTags().getPackageTag(), getDocumentAttributes());
+
+        BinaryPayloadHandler payloadHandler = getBinaryPayloadHandler();
+        if (payloadHandler == null) {
+            ContentHandlerBase64Encoder encoder = new ContentHandlerBase64Encoder();
+            encoder.begin(getContentHandler());
+            char[] chunk = new char[Math.min(length, BINARY_CHUNK_SIZE)];
+            for (int remaining = length; remaining > 0; ) {
+                int n = Math.min(remaining, chunk.length);
+                getTokenizer().getChars(chunk, 0, n);
+                encoder.encode(chunk, 0, n);
+                remaining -= n;
+            }
+            encoder.end();
+        } else {
+            BinaryObjectInputStream inputStream = new BinaryObjectInputStream(length);
+            payloadHandler.binaryObject(segmentType, packageReference, length, inputStream);
+            inputStream.skipRemaining();
+        }
+
+        endElement(getXMLTags().getPackageTag());
+    }
+
     protected void checkGroupCount(int groupCount, int n, String errorMessage) throws GroupCountException {
         if (groupCount != n) {
+            if (collect(SyntaxErrorCode.GROUP_COUNT, errorMessage, groupCount, n)) return;
             GroupCountException se = new GroupCountException(errorMessage, groupCount, n, getTokenizer());
             setSyntaxException(se);
             if (!recover(se))
@@ -301,6 +385,7 @@ public abstract class StandardReader extends EDIReader {
 
     protected void checkTransactionCount(int segCount, int n, String errorMessage) throws TransactionCountException {
         if (segCount != n) {
+            if (collect(SyntaxErrorCode.TRANSACTION_COUNT, errorMessage, segCount, n)) return;
             TransactionCountException se = new TransactionCountException(errorMessage, segCount, n, getTokenizer());
             setSyntaxException(se);
             if (!recover(se))
@@ -310,6 +395,7 @@ public abstract class StandardReader extends EDIReader {
 
     protected void checkSegmentCount(int segCount, int n, String errorMessage) throws SegmentCountException {
         if (segCount != n) {
+            if (collect(SyntaxErrorCode.SEGMENT_COUNT, errorMessage, segCount, n)) return;
             SegmentCountException se = new SegmentCountException(errorMessage, segCount, n, getTokenizer());
             setSyntaxException(se);
             if (!recover(se))
@@ -322,6 +408,7 @@ public abstract class StandardReader extends EDIReader {
             actual = "(omitted)";
         }
         if (!actual.equals(expected)) {
+            if (collect(SyntaxErrorCode.INTERCHANGE_CONTROL_NUMBER, errorMessage, expected, actual)) return;
             InterchangeControlNumberException se = new InterchangeControlNumberException(errorMessage, expected, actual, getTokenizer());
             setSyntaxException(se);
             if (!recover(se))
@@ -331,6 +418,7 @@ public abstract class StandardReader extends EDIReader {
 
     protected void checkGroupControlNumber(String control, String s, String errorMessage) throws GroupControlNumberException {
         if (!s.equals(control)) {
+            if (collect(SyntaxErrorCode.GROUP_CONTROL_NUMBER, errorMessage, control, s)) return;
             GroupControlNumberException se = new GroupControlNumberException(errorMessage, control, s, getTokenizer());
             setSyntaxException(se);
             if (!recover(se))
@@ -343,6 +431,7 @@ public abstract class StandardReader extends EDIReader {
             actual = "(omitted)";
         }
         if (!actual.equals(expected)) {
+            if (collect(SyntaxErrorCode.TRANSACTION_CONTROL_NUMBER, errorMessage, expected, actual)) return;
             TransactionControlNumberException se = new TransactionControlNumberException(errorMessage, expected, actual, getTokenizer());
             setSyntaxException(se);
             if (!recover(se))
@@ -355,7 +444,7 @@ public abstract class StandardReader extends EDIReader {
     }
 
     public void setAckGenerator(ReplyGenerator generator) {
-        this.ackGenerator = generator;
+        this.ackGenerator = asynchronousIfRequested(generator, getAckStream());
     }
 
     public ReplyGenerator getAlternateAckGenerator() {
@@ -363,7 +452,33 @@ public abstract class StandardReader extends EDIReader {
     }
 
     public void setAlternateAckGenerator(ReplyGenerator generator) {
-        this.alternateAckGenerator = generator;
+        this.alternateAckGenerator = asynchronousIfRequested(generator, getAlternateAckStream());
+    }
+
+    private ReplyGenerator asynchronousIfRequested(ReplyGenerator generator, Writer ackStream) {
+        if (generator == null || ackStream == null || !isAsynchronousAcknowledgment() ||
+                generator instanceof AsyncReplyGenerator)
+            return generator;
+        return new AsyncReplyGenerator(generator);
+    }
+
+    /**
+     * Wait for any acknowledgments being written by another thread. If parsing did not complete normally,
+     * a failure in writing the acknowledgments is not allowed to mask the exception already in flight.
+     */
+    private void finishAcknowledgments(boolean reportFailure) throws IOException {
+        IOException failure = null;
+        for (ReplyGenerator generator : new ReplyGenerator[]{ackGenerator, alternateAckGenerator}) {
+            if (generator instanceof AsyncReplyGenerator) {
+                try {
+                    ((AsyncReplyGenerator) generator).finish();
+                } catch (IOException e) {
+                    if (failure == null) failure = e;
+                }
+            }
+        }
+        if (failure != null && reportFailure)
+            throw failure;
     }
 
     public PluginControllerFactoryInterface getPluginControllerFactory() {
@@ -397,12 +512,16 @@ public abstract class StandardReader extends EDIReader {
         this.pluginControllerFactory = pluginControllerFactory;
     }
 
+    // Called just after the tokenizer has returned segmentType from nextSegment(), so its segment tag code is that of segmentType
     protected void parseSegment(PluginController pluginController, String segmentType) throws SAXException, IOException {
         segmentPluginController = pluginController;
-        if (pluginController.transition(segmentType)) {
+        ParseMetricsSink metrics = getParseMetricsSink();
+        if (pluginController.transition(segmentType, getTokenizer().getSegmentTag())) {
             // First close off any loops that were closed as the result of
             // the transition
             int toClose = pluginController.closedCount();
+            if (metrics != null)
+                metrics.loopTransition(pluginController.getLoopEntered(), pluginController.getNestingLevel(), toClose);
 
 //            logger.debug("closing {} loops", toClose);
             for (; toClose > 0; toClose--)
@@ -425,33 +544,46 @@ public abstract class StandardReader extends EDIReader {
         if (segmentPluginController != null)
             segmentPluginController.noteBeginningOfSegment(getContentHandler(), segmentType);
 
-        Token t;
-        while ((t = getTokenizer().nextToken()).getType() != Token.TokenType.SEGMENT_END) {
-
-            switch (t.getType()) {
-                case SIMPLE:
-                case EMPTY:
-                case SUB_ELEMENT:
-                case SUB_EMPTY:
-                    break;
-
-                case END_OF_DATA:
-                    EDISyntaxException se = new EDISyntaxException(UNEXPECTED_EOF, getTokenizer());
-                    logger.warn(se.getMessage());
-                    throw se;
-
-                default:
-                    se = new EDISyntaxException(MALFORMED_EDI_SEGMENT, getTokenizer());
-                    logger.warn(se.getMessage());
-                    throw se;
-
+        EDITokenizer ediTokenizer = getEDITokenizer();
+        if (ediTokenizer != null) {
+            // The usual case, with a tokenizer and token of concrete types
+            TokenImpl t;
+            while ((t = ediTokenizer.nextToken()).getType() != Token.TokenType.SEGMENT_END) {
+                checkElementToken(t.getType());
+                parseSegmentElement(t);
+            }
+        } else {
+            Token t;
+            while ((t = getTokenizer().nextToken()).getType() != Token.TokenType.SEGMENT_END) {
+                checkElementToken(t.getType());
+                parseSegmentElement(t);
             }
-
-            parseSegmentElement(t);
         }
         if (segmentPluginController != null)
             segmentPluginController.noteEndOfSegment(getContentHandler(), segmentType);
         endElement(getXMLTags().getSegTag());
+        if (metrics != null)
+            metrics.segment(segmentType, getTokenizer().getElementInSegmentCount() - 1, getTokenizer().getSegmentCharCount());
+    }
+
+    private void checkElementToken(Token.TokenType type) throws EDISyntaxException {
+        switch (type) {
+            case SIMPLE:
+            case EMPTY:
+            case SUB_ELEMENT:
+            case SUB_EMPTY:
+                break;
+
+            case END_OF_DATA:
+                EDISyntaxException se = new EDISyntaxException(UNEXPECTED_EOF, getTokenizer());
+                logger.warn(se.getMessage());
+                throw se;
+
+            default:
+                se = new EDISyntaxException(MALFORMED_EDI_SEGMENT, getTokenizer());
+                logger.warn(se.getMessage());
+                throw se;
+        }
     }
 
     protected void startInterchange(EDIAttributes attributes)
@@ -513,4 +645,66 @@ public abstract class StandardReader extends EDIReader {
             throws SAXException {
         startElement(getXMLTags().getAddressTag(), attributes);
     }
+
+    /**
+     * Presents the next n chars of EDI input as an InputStream of bytes, reading them
+     * from the tokenizer only as they are requested.
+     */
+    private class BinaryObjectInputStream extends InputStream {
+        private final char[] chunk;
+        private int remaining;
+
+        BinaryObjectInputStream(int length) {
+            remaining = length;
+            chunk = new char[Math.min(Math.max(length, 1), BINARY_CHUNK_SIZE)];
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining == 0) return -1;
+            fill(chunk, 1);
+            return toByte(chunk[0]) & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) return 0;
+            if (remaining == 0) return -1;
+            int n = Math.min(Math.min(length, remaining), chunk.length);
+            fill(chunk, n);
+            for (int i = 0; i < n; i++) {
+                bytes[offset + i] = toByte(chunk[i]);
+            }
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return 0;
+        }
+
+        void skipRemaining() throws IOException, EDISyntaxException {
+            while (remaining > 0) {
+                int n = Math.min(remaining, chunk.length);
+                getTokenizer().getChars(chunk, 0, n);
+                remaining -= n;
+            }
+        }
+
+        private void fill(char[] chars, int n) throws IOException {
+            try {
+                getTokenizer().getChars(chars, 0, n);
+            } catch (EDISyntaxException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+            remaining -= n;
+        }
+
+        private byte toByte(char c) throws IOException {
+            if (c > 0xFF) {
+                throw new IOException("Binary object contains a character that cannot be represented as a byte");
+            }
+            return (byte) c;
+        }
+    }
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2005-2026 by BerryWorks Software, LLC. All rights reserved.
+ *
+ * This file is part of EDIReader. You may obtain a license for its use directly from
+ * BerryWorks Software, and you may also choose to use this software under the terms of the
+ * GPL version 3. Other products in the EDIReader software suite are available only by licensing
+ * with BerryWorks. Only those files bearing the GPL statement below are available under the GPL.
+ *
+ * EDIReader is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * EDIReader is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with EDIReader.  If not,
+ * see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.berryworks.edireader.benchmark;
+
+import com.berryworks.edireader.EDIReader;
+import com.berryworks.edireader.util.CommandLine;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Measures the parsing throughput of EDIReader at different java.util.logging levels, to show whether
+ * logging adds any cost to the parse path.
+ * <p>
+ * Generated ANSI and EDIFACT interchanges are parsed repeatedly, with the root logger set to each level in turn,
+ * and the best throughput at each level is reported. The results are meaningful only if an SLF4J binding for
+ * java.util.logging, such as slf4j-jdk14, is on the classpath; otherwise SLF4J discards all logging and every
+ * level performs the same.
+ * <p>
+ * <code>
+ * java com.berryworks.edireader.benchmark.ParseThroughput [-d documents] [-r rounds] [-l OFF,INFO]
+ * </code>
+ */
+public class ParseThroughput {
+    private final String[] interchanges;
+    private final long charCount;
+
+    /**
+     * @param documents number of transactions or messages in each generated interchange
+     */
+    public ParseThroughput(int documents) {
+        interchanges = new String[]{
+                EDITestData.getAnsiInterchange(1, documents),
+                EDITestData.getEdifactInterchange(documents)};
+        long n = 0;
+        for (String interchange : interchanges) n += interchange.length();
+        charCount = n;
+    }
+
+    /**
+     * Parse the generated interchanges the given number of times at each logging level, alternating between
+     * the levels so that they are equally affected by warm-up and other drift.
+     *
+     * @param levels logging levels to compare
+     * @param rounds number of times to parse at each level
+     * @return best throughput at each level, in chars per millisecond
+     * @throws IOException  if thrown by EDIReader
+     * @throws SAXException if thrown by EDIReader
+     */
+    public Map<Level, Double> measure(Level[] levels, int rounds) throws IOException, SAXException {
+        Logger root = Logger.getLogger("");
+        Level originalLevel = root.getLevel();
+        Map<Level, Double> result = new LinkedHashMap<>();
+        try {
+            for (int i = 0; i < rounds; i++) {
+                for (Level level : levels) {
+                    setLevel(root, level);
+                    long start = System.nanoTime();
+                    parseAll();
+                    double charsPerMilli = charCount * 1e6 / Math.max(1, System.nanoTime() - start);
+                    result.merge(level, charsPerMilli, Math::max);
+                }
+            }
+        } finally {
+            setLevel(root, originalLevel);
+        }
+        return result;
+    }
+
+    private void parseAll() throws IOException, SAXException {
+        for (String interchange : interchanges) {
+            EDIReader ediReader = new EDIReader();
+            ediReader.setContentHandler(new DefaultHandler());
+            ediReader.parse(new InputSource(new StringReader(interchange)));
+        }
+    }
+
+    private static void setLevel(Logger root, Level level) {
+        root.setLevel(level);
+        for (Handler handler : root.getHandlers()) {
+            handler.setLevel(level);
+        }
+    }
+
+    public static void main(String[] args) throws IOException, SAXException {
+        CommandLine commandLine = new CommandLine(args);
+        String documents = commandLine.getOption("d");
+        String rounds = commandLine.getOption("r");
+        String levelNames = commandLine.getOption("l");
+
+        String[] names = (levelNames == null ? "OFF,INFO" : levelNames).split(",");
+        Level[] levels = new Level[names.length];
+        for (int i = 0; i < names.length; i++) {
+            levels[i] = Level.parse(names[i].trim().toUpperCase());
+        }
+
+        ParseThroughput benchmark = new ParseThroughput(documents == null ? 1000 : Integer.parseInt(documents));
+        // Warm up, then measure
+        benchmark.measure(levels, 5);
+        Map<Level, Double> results = benchmark.measure(levels, rounds == null ? 20 : Integer.parseInt(rounds));
+
+        double baseline = results.get(levels[0]);
+        for (Map.Entry<Level, Double> entry : results.entrySet()) {
+            System.out.printf("%-8s %,10.0f chars/ms  %+6.1f%%%n", entry.getKey(), entry.getValue(),
+                    100 * (entry.getValue() - baseline) / baseline);
+        }
+    }
+}
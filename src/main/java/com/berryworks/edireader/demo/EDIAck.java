@@ -22,6 +22,7 @@ package com.berryworks.edireader.demo;
 
 import com.berryworks.edireader.EDIReader;
 import com.berryworks.edireader.EDIReaderFactory;
+import com.berryworks.edireader.tokenizer.Tokenizer;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
@@ -69,14 +70,14 @@ public class EDIAck {
     public void run() {
 
         handler = new DefaultHandler();
-        char[] leftOver = null;
+        Tokenizer tokenizer = null;
         Writer ackWriter = new PrintWriter(ackOutput);
 
         try {
             while (true) {
                 // The following line creates an EDIReader explicitly
                 // as an alternative to the JAXP-based technique.
-                parser = EDIReaderFactory.createEDIReader(inputSource, leftOver);
+                parser = EDIReaderFactory.createNextEDIReader(inputSource, tokenizer);
                 if (parser == null) {
                     // end of input
                     break;
@@ -84,7 +85,7 @@ public class EDIAck {
                 parser.setContentHandler(handler);
                 parser.setAcknowledgment(ackWriter);
                 parser.parse(inputSource);
-                leftOver = parser.getTokenizer().getBuffered();
+                tokenizer = parser.getTokenizer();
             }
 
         } catch (IOException e) {
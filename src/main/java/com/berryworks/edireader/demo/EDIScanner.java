@@ -102,13 +102,13 @@ public class EDIScanner {
     public void run() {
 
         ContentHandler handler = new ScanningHandler();
-        char[] leftOver = null;
+        Tokenizer tokenizer = null;
 
         try {
             while (true) {
                 // The following line creates an EDIReader explicitly
                 // as an alternative to the JAXP-based technique.
-                parser = EDIReaderFactory.createEDIReader(inputSource, leftOver);
+                parser = EDIReaderFactory.createNextEDIReader(inputSource, tokenizer);
                 if (parser == null) {
                     // end of input
                     break;
@@ -116,7 +116,7 @@ public class EDIScanner {
                 parser.setContentHandler(handler);
                 parser.setSyntaxExceptionHandler(new SyntaxExceptionHandler());
                 parser.parse(inputSource);
-                leftOver = parser.getTokenizer().getBuffered();
+                tokenizer = parser.getTokenizer();
             }
 
         } catch (IOException e) {
@@ -26,15 +26,12 @@ import com.berryworks.edireader.splitter.ClosingDetails;
 import com.berryworks.edireader.splitter.HandlerFactory;
 import com.berryworks.edireader.splitter.SplittingHandler;
 import com.berryworks.edireader.util.CommandLine;
-import com.berryworks.edireader.util.dom.DomBuildingSaxHandler;
+import com.berryworks.edireader.util.sax.SAXEventBuffer;
+import com.berryworks.edireader.util.sax.XmlWriterContentHandler;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Reader;
@@ -134,7 +131,7 @@ public class EDISplitter {
     protected static class FileSequenceHandlerFactory implements HandlerFactory {
         private String filenameSuffix, filenamePrefix;
         private int sequenceNumberLength;
-        private DomBuildingSaxHandler saxHandler;
+        private final SAXEventBuffer eventBuffer = new SAXEventBuffer();
 
         public FileSequenceHandlerFactory(String fileNamePattern) {
             establishPattern(fileNamePattern);
@@ -143,25 +140,24 @@ public class EDISplitter {
         @Override
         public ContentHandler createDocument() throws Exception {
             count++;
-            saxHandler = new DomBuildingSaxHandler();
-            return saxHandler;
+            eventBuffer.clear();
+            return eventBuffer;
         }
 
         @Override
         public void closeDocument(ClosingDetails closingDetails) throws IOException {
             String xmlFilename = generateName();
-            DOMSource source = new DOMSource(saxHandler.getDocument());
 
             try (FileWriter writer = new FileWriter(xmlFilename)) {
-                TransformerFactory.newInstance().newTransformer().transform(source, new StreamResult(writer));
-
-            } catch (TransformerException e) {
-                throw new IOException("Unable to generate XML from DOM");
+                eventBuffer.replay(new XmlWriterContentHandler(writer));
+            } catch (SAXException e) {
+                throw new IOException("Unable to generate XML from buffered SAX events", e);
             }
         }
 
         @Override
         public void markEndOfStream() {
+            eventBuffer.close();
         }
 
         private void establishPattern(String fileNamePattern) {
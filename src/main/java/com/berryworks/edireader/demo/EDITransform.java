@@ -20,21 +20,15 @@
 
 package com.berryworks.edireader.demo;
 
-import com.berryworks.edireader.EDIParserFactory;
+import com.berryworks.edireader.util.EDITransformer;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
-import org.xml.sax.XMLReader;
 
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
 import javax.xml.transform.TransformerConfigurationException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.sax.SAXTransformerFactory;
-import javax.xml.transform.sax.TransformerHandler;
 import javax.xml.transform.stream.StreamResult;
-import javax.xml.transform.stream.StreamSource;
 import java.io.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * Transform EDI input using an XSLT stylesheet.
@@ -52,8 +46,10 @@ import java.io.*;
  * not specified, then `System.out` is used.
  */
 public class EDITransform {
+    private static final EDITransformer TRANSFORMER = new EDITransformer();
+
     private final InputSource inputSource;
-    private final StreamSource stylesheetSource;
+    private final Path stylesheet;
     private final OutputStream generatedOutput;
 
     /**
@@ -93,7 +89,7 @@ public class EDITransform {
         }
 
         // Establish stylesheet
-        stylesheetSource = new StreamSource(new File(stylesheet));
+        this.stylesheet = Paths.get(stylesheet);
         System.out.println("Stylesheet file " + stylesheet + " opened");
 
     }
@@ -104,50 +100,15 @@ public class EDITransform {
     public void run() {
 
         try {
-            XMLReader ediReader;
-
-            // Construct the SAXParser, to read the EDI input.
-            // The normal JAXP sequence using SAXParserFactory.newInstance()
-            // also works, but the XSL transformer below needs a SAXParser
-            // that actually parses XML so changing JAXP system properties
-            // at this point can interfere with proper transformation.
-            // Therefore, the simplest thing is to use EDIParserFactory in
-            // the following line instead of SAXParserFactory.
-            SAXParserFactory sFactory = EDIParserFactory.newInstance();
-            SAXParser sParser = sFactory.newSAXParser();
-            ediReader = sParser.getXMLReader();
-
-            // Construct a SAXTransformerFactory
-            TransformerFactory tFactory = TransformerFactory.newInstance();
-            if (!tFactory.getFeature(SAXTransformerFactory.FEATURE)) {
-                String msg = "TransformerFactory "
-                        + tFactory.getClass().getName()
-                        + " does not support SAXTransformerFactory";
-                System.err.println(msg);
-                throw new RuntimeException(msg);
-            }
-            SAXTransformerFactory stFactory = (SAXTransformerFactory) tFactory;
-
-            // Use the SAXTransformerFactory to create a TransformerHandler
-            TransformerHandler transformerHandler;
-            transformerHandler = stFactory
-                    .newTransformerHandler(stylesheetSource);
-
-            // Tell the TransformerHandler to send output to the result stream
-            transformerHandler.setResult(new StreamResult(generatedOutput));
-
-            // Tell the EDIReader to use the TransformerHandler as its
-            // ContentHandler
-            ediReader.setContentHandler(transformerHandler);
-
-            // Finally, tell the EDIReader to start parsing.
-            ediReader.parse(inputSource);
+            // The stylesheet is compiled only once, no matter how many times
+            // an EDITransform is run with it. The EDIReader sends its SAX events
+            // directly into a TransformerHandler created from the compiled stylesheet.
+            TRANSFORMER.transform(inputSource, stylesheet, new StreamResult(generatedOutput));
+            generatedOutput.flush();
         } catch (SAXException e) {
-            System.out.println("\nUnable to create SAXParser: " + e);
+            System.out.println("\nUnable to transform EDI input: " + e);
         } catch (IOException e) {
-            System.out.println("\nUnable to create EDIReader: " + e);
-        } catch (ParserConfigurationException e) {
-            System.out.println("\nUnable to create Parser: " + e);
+            System.out.println("\nUnable to read EDI input or stylesheet: " + e);
         } catch (TransformerConfigurationException e) {
             System.out.println("\nUnable to create Transformer: " + e);
         }
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2005-2026 by BerryWorks Software, LLC. All rights reserved.
+ *
+ * This file is part of EDIReader. You may obtain a license for its use directly from
+ * BerryWorks Software, and you may also choose to use this software under the terms of the
+ * GPL version 3. Other products in the EDIReader software suite are available only by licensing
+ * with BerryWorks. Only those files bearing the GPL statement below are available under the GPL.
+ *
+ * EDIReader is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * EDIReader is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with EDIReader.  If not,
+ * see <http://www.gnu.org/licenses/>.
+ */
+
+package com.berryworks.edireader.demo;
+
+import com.berryworks.edireader.EDIReader;
+import com.berryworks.edireader.util.CommandLine;
+import com.berryworks.edireader.util.sax.JsonWriterContentHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+import static com.berryworks.edireader.demo.EDItoXML.NEW_LINE;
+import static com.berryworks.edireader.demo.EDItoXML.establishInput;
+import static com.berryworks.edireader.demo.EDItoXML.establishOutput;
+
+/**
+ * Converts EDI input to JSON output in a single pass, using a JsonWriterContentHandler.
+ * <p>
+ * Assuming your CLASSPATH contains edireader-n.n.n.jar, you may run this program with
+ * the command line <br>
+ * <br><code>
+ * java com.berryworks.edireader.demo.EDItoJSON [input-file] [-o output-file]
+ * </code><br><br>
+ * If an input-file is not specified, `System.in` is used; if an output-file is
+ * not specified, then `System.out` is used.
+ */
+public class EDItoJSON {
+    private Writer generatedOutput;
+    private Reader inputReader;
+    private boolean recover;
+
+    public static void main(String[] args) {
+        CommandLine commandLine = new CommandLine(args) {
+            @Override
+            public String usage() {
+                return NEW_LINE + "EDItoJSON [ediInputFile] [-o jsonOutputFile] [-r true|false]" +
+                        NEW_LINE + "options:" +
+                        NEW_LINE + "   -r   Recover and continue parsing after an error is detected in EDI input. Defaults to false.";
+            }
+        };
+        if (!commandLine.isValid()) {
+            return;
+        }
+
+        EDItoJSON theObject = new EDItoJSON();
+        theObject.setInputReader(establishInput(commandLine.getPosition(0)));
+        theObject.setJsonOutputWriter(establishOutput(commandLine.getOption("o")));
+        theObject.setRecover("true".equals(commandLine.getOption("r")));
+        theObject.run();
+    }
+
+    /**
+     * Main processing method for the EDItoJSON object
+     */
+    public void run() {
+
+        try {
+            EDIReader ediReader = new EDIReader();
+
+            // Tell the ediReader to handle EDI syntax errors instead of aborting
+            if (recover) {
+                ediReader.setSyntaxExceptionHandler(new EDItoXML.IgnoreSyntaxExceptions());
+            }
+
+            // Write JSON directly from the SAX events
+            JsonWriterContentHandler jsonWriter = new JsonWriterContentHandler(generatedOutput, ediReader.getXMLTags());
+            ediReader.setContentHandler(jsonWriter);
+            try {
+                ediReader.parse(new InputSource(inputReader));
+            } finally {
+                jsonWriter.flush();
+            }
+        } catch (SAXException e) {
+            System.err.println("\nFailure to parse: " + e);
+            System.err.println(e.getMessage());
+        } catch (IOException e) {
+            System.err.println("\nException attempting to read EDI data: " + e);
+        }
+
+        try {
+            inputReader.close();
+        } catch (IOException ignored) {
+        }
+        try {
+            generatedOutput.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    public void setRecover(boolean recover) {
+        this.recover = recover;
+    }
+
+    public void setInputReader(Reader inputReader) {
+        this.inputReader = inputReader;
+    }
+
+    public void setJsonOutputWriter(Writer jsonOutputWriter) {
+        generatedOutput = jsonOutputWriter;
+    }
+}
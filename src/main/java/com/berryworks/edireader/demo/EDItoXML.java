@@ -25,7 +25,9 @@ import com.berryworks.edireader.error.EDISyntaxExceptionHandler;
 import com.berryworks.edireader.error.RecoverableSyntaxException;
 import com.berryworks.edireader.util.CommandLine;
 import com.berryworks.edireader.util.XmlFormatter;
+import com.berryworks.edireader.util.sax.XmlWriterContentHandler;
 import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
 
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
@@ -36,7 +38,11 @@ import java.io.*;
 import java.nio.charset.StandardCharsets;
 
 /**
- * Converts EDI input to XML output using the default XSLT transformer.
+ * Converts EDI input to XML output.
+ * <p>
+ * By default, the SAX events from EDIReader are serialized by an XmlWriterContentHandler,
+ * which writes and indents the XML directly. The JAXP identity transformer, used in
+ * earlier versions, can be selected instead with the -t option.
  * <p>
  * Assuming your CLASSPATH contains edireader-n.n.n.jar, you may run this program with
  * the command line <br>
@@ -54,6 +60,8 @@ public class EDItoXML {
     private Reader inputReader;
     private boolean namespaceEnabled;
     private boolean recover;
+    private boolean indent;
+    private boolean transformerEnabled;
 
     public static void main(String[] args) {
         EDItoXML theObject = new EDItoXML();
@@ -84,10 +92,45 @@ public class EDItoXML {
                 ediReader.setAcknowledgment(acknowledgmentWriter);
             }
 
+            if (transformerEnabled) {
+                transform(ediReader);
+            } else {
+                // Serialize the SAX events directly as XML text
+                XmlWriterContentHandler xmlWriter = new XmlWriterContentHandler(generatedOutput, indent);
+                ediReader.setContentHandler(xmlWriter);
+                try {
+                    ediReader.parse(new InputSource(inputReader));
+                } finally {
+                    // Pass along any partial output if the parse failed
+                    xmlWriter.flush();
+                }
+            }
+        } catch (SAXException e) {
+            System.err.println("\nFailure to parse: " + e);
+            System.err.println(e.getMessage());
+        } catch (IOException e) {
+            System.err.println("\nException attempting to read EDI data: " + e);
+        }
+
+        try {
+            inputReader.close();
+        } catch (IOException ignored) {
+        }
+        try {
+            generatedOutput.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void transform(EDIReader ediReader) {
+        try {
             // Establish the SAXSource
             SAXSource source = new SAXSource(ediReader, new InputSource(inputReader));
 
-            // Use a StreamResult to capture the generated XML output
+            // Use a StreamResult to capture the generated XML output, indenting it if requested
+            if (indent && !(generatedOutput instanceof XmlFormatter)) {
+                generatedOutput = new XmlFormatter(generatedOutput);
+            }
             StreamResult result = new StreamResult(generatedOutput);
 
             // Use a Transformer to generate XML output from the parsed input
@@ -98,15 +141,6 @@ public class EDItoXML {
             System.err.println("\nFailure to transform: " + e);
             System.err.println(e.getMessage());
         }
-
-        try {
-            inputReader.close();
-        } catch (IOException ignored) {
-        }
-        try {
-            generatedOutput.close();
-        } catch (IOException ignored) {
-        }
     }
 
     protected EDIReader createEDIReader() {
@@ -118,11 +152,12 @@ public class EDItoXML {
             @Override
             public String usage() {
                 String text = NEW_LINE + "EDItoXML [ediInputFile] [-o xmlOutputFile] [-a acknowledgmentFile]" +
-                        " [-n true|false] [-r true|false] [-i true|false]";
+                        " [-n true|false] [-r true|false] [-i true|false] [-t true|false]";
                 text += NEW_LINE + "options:";
                 text += NEW_LINE + "   -n   XML includes namespace declaration. Defaults to false.";
                 text += NEW_LINE + "   -r   Recover and continue parsing after an error is detected in EDI input. Defaults to false.";
                 text += NEW_LINE + "   -i   Indent XML output for readability. Defaults to false.";
+                text += NEW_LINE + "   -t   Generate XML output with the JAXP identity transformer. Defaults to false.";
                 return text;
             }
         };
@@ -137,6 +172,7 @@ public class EDItoXML {
         boolean namespaceEnabled = "true".equals(commandLine.getOption("n"));
         boolean recover = "true".equals(commandLine.getOption("r"));
         boolean indent = "true".equals(commandLine.getOption("i"));
+        boolean transformerEnabled = "true".equals(commandLine.getOption("t"));
 
         Reader inputReader = establishInput(inputFileName);
         Writer generatedOutput = establishOutput(outputFileName);
@@ -146,6 +182,7 @@ public class EDItoXML {
         theObject.setNamespaceEnabled(namespaceEnabled);
         theObject.setRecover(recover);
         theObject.setIndent(indent);
+        theObject.setTransformerEnabled(transformerEnabled);
         if (acknowledgmentFileName != null) {
             theObject.setAcknowledgmentWriter(establishOutput(acknowledgmentFileName));
         }
@@ -194,14 +231,16 @@ public class EDItoXML {
     }
 
     public void setIndent(boolean indent) {
-        if (indent) {
-            if (generatedOutput instanceof XmlFormatter) {
-                // The output Writer is already wrapper in an indenting filter, so do not do it again
-            } else {
-                // Wrap the Writer for the generated output with an indenting filter
-                generatedOutput = new XmlFormatter(generatedOutput);
-            }
-        }
+        this.indent = indent;
+    }
+
+    /**
+     * Use the JAXP identity transformer instead of an XmlWriterContentHandler to generate the XML output.
+     *
+     * @param transformerEnabled true to use the identity transformer
+     */
+    public void setTransformerEnabled(boolean transformerEnabled) {
+        this.transformerEnabled = transformerEnabled;
     }
 
     public void setInputReader(Reader inputReader) {
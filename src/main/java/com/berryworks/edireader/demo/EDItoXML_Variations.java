@@ -27,6 +27,7 @@ import com.berryworks.edireader.error.EDISyntaxExceptionHandler;
 import com.berryworks.edireader.error.RecoverableSyntaxException;
 import com.berryworks.edireader.util.CommandLine;
 import com.berryworks.edireader.util.XmlFormatter;
+import com.berryworks.edireader.util.sax.XmlWriterContentHandler;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
@@ -34,7 +35,10 @@ import org.xml.sax.XMLReader;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
-import javax.xml.transform.*;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.sax.SAXSource;
 import javax.xml.transform.stream.StreamResult;
 import java.io.IOException;
@@ -45,7 +49,9 @@ import static com.berryworks.edireader.demo.EDItoXML.establishInput;
 import static com.berryworks.edireader.demo.EDItoXML.establishOutput;
 
 /**
- * Converts EDI input to XML output using the default XSLT transformer.
+ * Illustrates several ways of converting EDI input to XML output. The XML text is
+ * generated by an XmlWriterContentHandler, except in run_transformer() which uses
+ * the JAXP identity transformer.
  * <p>
  * Assuming your CLASSPATH contains edireader-n.n.n.jar, you may run this program with
  * the command line <br>
@@ -61,6 +67,7 @@ public class EDItoXML_Variations {
     private final Reader inputReader;
     private boolean namespaceEnabled;
     private boolean recover;
+    private boolean indent;
 
     public EDItoXML_Variations(Reader inputReader, Writer outputWriter) {
         this.inputReader = inputReader;
@@ -73,6 +80,51 @@ public class EDItoXML_Variations {
      */
     public void run() {
 
+        try {
+            EDIReader ediReader = new EDIReader();
+
+            // Tell the ediReader if an xmlns="http://..." is desired
+            if (namespaceEnabled) {
+                ediReader.setNamespaceEnabled(namespaceEnabled);
+            }
+
+            // Tell the ediReader to handle EDI syntax errors instead of aborting
+            if (recover) {
+                ediReader.setSyntaxExceptionHandler(new IgnoreSyntaxExceptions());
+            }
+
+            // Use an XmlWriterContentHandler to generate XML output from the parsed input
+            XmlWriterContentHandler xmlWriter = new XmlWriterContentHandler(generatedOutput, indent);
+            ediReader.setContentHandler(xmlWriter);
+
+            // Parse the input, passing along any partial output if the parse fails
+            try {
+                ediReader.parse(inputSource);
+            } finally {
+                xmlWriter.flush();
+            }
+        } catch (SAXException e) {
+            System.err.println("\nFailure to parse: " + e);
+            System.err.println(e.getMessage());
+        } catch (IOException e) {
+            System.err.println("\nException attempting to read EDI data: " + e);
+        }
+
+        try {
+            inputReader.close();
+        } catch (IOException ignored) {
+        }
+        try {
+            generatedOutput.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Generate the XML output with the JAXP identity transformer, as earlier versions of EDItoXML did.
+     */
+    public void run_transformer() {
+
         try {
             EDIReader ediReader = new EDIReader();
 
@@ -92,7 +144,11 @@ public class EDItoXML_Variations {
             // Establish a Transformer
             Transformer transformer = TransformerFactory.newInstance().newTransformer();
 
-            // Use a StreamResult to capture the generated XML output
+            // Use a StreamResult to capture the generated XML output, wrapping the Writer
+            // with an indenting filter if requested
+            if (indent && !(generatedOutput instanceof XmlFormatter)) {
+                generatedOutput = new XmlFormatter(generatedOutput);
+            }
             StreamResult result = new StreamResult(generatedOutput);
 
             // Call the Transformer to generate XML output from the parsed input
@@ -114,7 +170,6 @@ public class EDItoXML_Variations {
         }
     }
 
-
     public void run_alternate1() {
 
         try {
@@ -131,38 +186,31 @@ public class EDItoXML_Variations {
                 ediReader.setSyntaxExceptionHandler(new IgnoreSyntaxExceptions());
             }
 
-            // Establish the SAXSource
-            SAXSource source = new SAXSource(ediReader, inputSource);
-
-            // Establish a Transformer
-            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            // Use an XmlWriterContentHandler to generate XML output from the parsed input
+            ediReader.setContentHandler(new XmlWriterContentHandler(generatedOutput, indent));
 
-            // Use a StreamResult to capture the generated XML output
-            StreamResult result = new StreamResult(generatedOutput);
-
-            // Call the Transformer to generate XML output from the parsed input
-            transformer.transform(source, result);
+            // Parse the input
+            ediReader.parse(inputSource);
         } catch (EDISyntaxException e) {
             System.err.println("\nSyntax error while parsing EDI: " + e);
         } catch (IOException e) {
             System.err.println("\nException attempting to read EDI data: " + e);
-        } catch (TransformerConfigurationException e) {
-            System.err.println("\nUnable to create Transformer: " + e);
-        } catch (TransformerException e) {
-            System.err.println("\nFailure to transform: " + e);
+        } catch (SAXException e) {
+            System.err.println("\nFailure to parse: " + e);
             System.err.println(e.getMessage());
         }
     }
 
     public void run_alternate2() {
 
+        XMLReader ediReader;
         try {
             // Establish an XMLReader which is actually an EDIReader.
             System.setProperty("javax.xml.parsers.SAXParserFactory",
                     "com.berryworks.edireader.EDIParserFactory");
             SAXParserFactory sFactory = SAXParserFactory.newInstance();
             SAXParser sParser = sFactory.newSAXParser();
-            XMLReader ediReader = sParser.getXMLReader();
+            ediReader = sParser.getXMLReader();
 
             // Tell the ediReader if an xmlns="http://..." is desired
             if (namespaceEnabled) {
@@ -174,26 +222,23 @@ public class EDItoXML_Variations {
                 ((EDIReader) ediReader).setSyntaxExceptionHandler(new IgnoreSyntaxExceptions());
             }
 
-            // Establish the SAXSource
-            SAXSource source = new SAXSource(ediReader, inputSource);
-
-            // Establish a Transformer
-            Transformer transformer = TransformerFactory.newInstance().newTransformer();
-
-            // Use a StreamResult to capture the generated XML output
-            StreamResult result = new StreamResult(generatedOutput);
-
-            transformer.setOutputProperty(OutputKeys.ENCODING, "ISO-8859-1");
-
-            // Call the Transformer to generate XML output from the parsed input
-            transformer.transform(source, result);
+            // Use an XmlWriterContentHandler to generate XML output from the parsed input
+            XmlWriterContentHandler xmlWriter = new XmlWriterContentHandler(generatedOutput, indent);
+            xmlWriter.setEncoding("ISO-8859-1");
+            ediReader.setContentHandler(xmlWriter);
         } catch (SAXException | ParserConfigurationException e) {
             System.err.println("\nUnable to create EDIReader: " + e);
-        } catch (TransformerConfigurationException e) {
-            System.err.println("\nUnable to create Transformer: " + e);
-        } catch (TransformerException e) {
-            System.err.println("\nFailure to transform: " + e);
+            return;
+        }
+
+        try {
+            // Parse the input
+            ediReader.parse(inputSource);
+        } catch (SAXException e) {
+            System.err.println("\nFailure to parse: " + e);
             System.err.println(e.getMessage());
+        } catch (IOException e) {
+            System.err.println("\nException attempting to read EDI data: " + e);
         }
     }
 
@@ -235,14 +280,7 @@ public class EDItoXML_Variations {
     }
 
     public void setIndent(boolean indent) {
-        if (indent) {
-            if (generatedOutput instanceof XmlFormatter) {
-                // The output Writer is already wrapper in an indenting filter, so do not do it again
-            } else {
-                // Wrap the Writer for the generated output with an indenting filter
-                generatedOutput = new XmlFormatter(generatedOutput);
-            }
-        }
+        this.indent = indent;
     }
 
     static class IgnoreSyntaxExceptions implements EDISyntaxExceptionHandler {
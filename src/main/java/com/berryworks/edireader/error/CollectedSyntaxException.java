@@ -0,0 +1,54 @@
+/*
+ * Copyright 2005-2026 by BerryWorks Software, LLC. All rights reserved.
+ *
+ * This file is part of EDIReader. You may obtain a license for its use directly from
+ * BerryWorks Software, and you may also choose to use this software under the terms of the
+ * GPL version 3. Other products in the EDIReader software suite are available only by licensing
+ * with BerryWorks. Only those files bearing the GPL statement below are available under the GPL.
+ *
+ * EDIReader is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * EDIReader is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with EDIReader.  If not,
+ * see <http://www.gnu.org/licenses/>.
+ */
+
+package com.berryworks.edireader.error;
+
+/**
+ * A RecoverableSyntaxException made from a SyntaxErrorRecord, for callers that collect errors with a
+ * SyntaxErrorCollector but still want to handle them as exceptions. Since it is created after the fact,
+ * it has no stack trace.
+ */
+public class CollectedSyntaxException extends RecoverableSyntaxException {
+    private final SyntaxErrorRecord record;
+
+    public CollectedSyntaxException(SyntaxErrorRecord record) {
+        super(record.getMessage());
+        this.record = record;
+    }
+
+    public SyntaxErrorRecord getRecord() {
+        return record;
+    }
+
+    @Override
+    public int getErrorSegmentNumber() {
+        return record.getSegmentNumber();
+    }
+
+    @Override
+    public int getErrorElementNumber() {
+        return record.getElementNumber();
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2005-2026 by BerryWorks Software, LLC. All rights reserved.
+ *
+ * This file is part of EDIReader. You may obtain a license for its use directly from
+ * BerryWorks Software, and you may also choose to use this software under the terms of the
+ * GPL version 3. Other products in the EDIReader software suite are available only by licensing
+ * with BerryWorks. Only those files bearing the GPL statement below are available under the GPL.
+ *
+ * EDIReader is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * EDIReader is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with EDIReader.  If not,
+ * see <http://www.gnu.org/licenses/>.
+ */
+
+package com.berryworks.edireader.error;
+
+/**
+ * Identifies the kind of recoverable syntax error described by a SyntaxErrorRecord.
+ * Each corresponds to one of the subclasses of RecoverableSyntaxException.
+ */
+public enum SyntaxErrorCode {
+    SEGMENT_COUNT,
+    TRANSACTION_COUNT,
+    GROUP_COUNT,
+    INTERCHANGE_CONTROL_NUMBER,
+    GROUP_CONTROL_NUMBER,
+    TRANSACTION_CONTROL_NUMBER,
+    ISA_FIXED_LENGTH,
+    ISA16_SUB_ELEMENT_DELIMITER,
+    MISSING_MANDATORY_ELEMENT
+}
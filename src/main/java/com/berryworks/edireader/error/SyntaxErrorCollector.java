@@ -0,0 +1,115 @@
+/*
+ * Copyright 2005-2026 by BerryWorks Software, LLC. All rights reserved.
+ *
+ * This file is part of EDIReader. You may obtain a license for its use directly from
+ * BerryWorks Software, and you may also choose to use this software under the terms of the
+ * GPL version 3. Other products in the EDIReader software suite are available only by licensing
+ * with BerryWorks. Only those files bearing the GPL statement below are available under the GPL.
+ *
+ * EDIReader is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * EDIReader is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with EDIReader.  If not,
+ * see <http://www.gnu.org/licenses/>.
+ */
+
+package com.berryworks.edireader.error;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collects the recoverable syntax errors noted by EDIReader, as an alternative to an EDISyntaxExceptionHandler.
+ * <p>
+ * When a SyntaxErrorCollector is set with setSyntaxErrorCollector(), each recoverable error is recorded here as a
+ * SyntaxErrorRecord and parsing continues. No exception is created and nothing is logged, which matters when
+ * the input has many such errors. The collector keeps only the first errors, up to its capacity, and counts
+ * the rest. It can be examined after the parse, and is not cleared by the parser, so one collector may gather
+ * the errors of several parses.
+ * <p>
+ * A SyntaxErrorCollector is not thread-safe.
+ */
+public class SyntaxErrorCollector {
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    private final int capacity;
+    private final List<SyntaxErrorRecord> records = new ArrayList<>();
+    private int errorCount;
+
+    public SyntaxErrorCollector() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity maximum number of errors to keep
+     */
+    public SyntaxErrorCollector(int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("capacity cannot be negative");
+        this.capacity = capacity;
+    }
+
+    /**
+     * Note a recoverable syntax error. A SyntaxErrorRecord is created only if there is room to keep it.
+     *
+     * @param code          kind of error
+     * @param description   fixed part of the message
+     * @param segmentNumber number of the segment in which the error was noted
+     * @param elementNumber number of the element within the segment
+     * @param charOffset    number of characters read before the error was noted
+     * @param expected      the value that was expected, or null
+     * @param actual        the value that was found, or null
+     */
+    public void add(SyntaxErrorCode code, String description, int segmentNumber, int elementNumber, int charOffset,
+                    String expected, String actual) {
+        if (errorCount++ < capacity) {
+            records.add(new SyntaxErrorRecord(code, description, segmentNumber, elementNumber, charOffset, expected, actual));
+        }
+    }
+
+    /**
+     * Returns the errors kept, in the order in which they were noted.
+     *
+     * @return unmodifiable view of the kept errors
+     */
+    public List<SyntaxErrorRecord> getErrors() {
+        return Collections.unmodifiableList(records);
+    }
+
+    /**
+     * Returns the number of errors noted, including those not kept.
+     *
+     * @return number of errors
+     */
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Returns the number of errors noted but not kept because the capacity was reached.
+     *
+     * @return number of errors not kept
+     */
+    public int getDroppedCount() {
+        return errorCount - records.size();
+    }
+
+    public boolean isEmpty() {
+        return errorCount == 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void clear() {
+        records.clear();
+        errorCount = 0;
+    }
+}
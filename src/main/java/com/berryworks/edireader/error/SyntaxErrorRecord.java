@@ -0,0 +1,128 @@
+/*
+ * Copyright 2005-2026 by BerryWorks Software, LLC. All rights reserved.
+ *
+ * This file is part of EDIReader. You may obtain a license for its use directly from
+ * BerryWorks Software, and you may also choose to use this software under the terms of the
+ * GPL version 3. Other products in the EDIReader software suite are available only by licensing
+ * with BerryWorks. Only those files bearing the GPL statement below are available under the GPL.
+ *
+ * EDIReader is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * EDIReader is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with EDIReader.  If not,
+ * see <http://www.gnu.org/licenses/>.
+ */
+
+package com.berryworks.edireader.error;
+
+/**
+ * A recoverable syntax error noted by EDIReader while a SyntaxErrorCollector was set.
+ * <p>
+ * The record holds the facts of the error as they were at the time it was noted. The descriptive
+ * message, in the same form as that of the corresponding RecoverableSyntaxException, is built only
+ * if getMessage() is called.
+ */
+public final class SyntaxErrorRecord {
+    private final SyntaxErrorCode code;
+    private final String description;
+    private final int segmentNumber;
+    private final int elementNumber;
+    private final int charOffset;
+    private final String expected;
+    private final String actual;
+
+    public SyntaxErrorRecord(SyntaxErrorCode code, String description, int segmentNumber, int elementNumber,
+                             int charOffset, String expected, String actual) {
+        this.code = code;
+        this.description = description;
+        this.segmentNumber = segmentNumber;
+        this.elementNumber = elementNumber;
+        this.charOffset = charOffset;
+        this.expected = expected;
+        this.actual = actual;
+    }
+
+    public SyntaxErrorCode getCode() {
+        return code;
+    }
+
+    /**
+     * Returns the fixed part of the message, for example: Segment count error in SE segment
+     *
+     * @return description of the error
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * @return number of the segment in which the error was noted, counting from 1 at the start of the interchange
+     */
+    public int getSegmentNumber() {
+        return segmentNumber;
+    }
+
+    /**
+     * @return number of the element within the segment, or 0 if not applicable
+     */
+    public int getElementNumber() {
+        return elementNumber;
+    }
+
+    /**
+     * @return number of characters read before the error was noted
+     */
+    public int getCharOffset() {
+        return charOffset;
+    }
+
+    /**
+     * @return the value that was expected, or null if not applicable
+     */
+    public String getExpected() {
+        return expected;
+    }
+
+    /**
+     * @return the value that was found, or null if not applicable
+     */
+    public String getActual() {
+        return actual;
+    }
+
+    /**
+     * Returns a message in the same form as that of the corresponding RecoverableSyntaxException.
+     *
+     * @return descriptive message
+     */
+    public String getMessage() {
+        StringBuilder sb = new StringBuilder(description);
+        if (expected != null) {
+            sb.append(". Expected ").append(expected).append(" instead of ").append(actual);
+        }
+        if (segmentNumber > 0) {
+            sb.append(" at segment ").append(segmentNumber).append(", field ").append(elementNumber);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns an exception describing this error, for use where a RecoverableSyntaxException is expected.
+     * The exception does not have a stack trace.
+     *
+     * @return exception describing this error
+     */
+    public CollectedSyntaxException toException() {
+        return new CollectedSyntaxException(this);
+    }
+
+    @Override
+    public String toString() {
+        return code + ": " + getMessage();
+    }
+}
@@ -68,29 +68,25 @@ public class Formatter {
     }
 
     public int format() throws IOException {
-        // Pipe A provides a way to read the data directly
-        PipedReader pipedReaderA = new PipedReader();
-        PipedWriter pipedWriterA = new PipedWriter(pipedReaderA);
-        // Pipe B feeds an EDIReader to parse the data as EDI
-        PipedReader pipedReaderB = new PipedReader();
-        PipedWriter pipedWriterB = new PipedWriter(pipedReaderB);
-        FormatterParser parser = createFormatterParser(pipedReaderA,
-                pipedReaderB, output);
-        Thread thread = new Thread(parser);
-        thread.start();
-
-        int count = tee(input, pipedWriterA, pipedWriterB);
-
-        try {
-            thread.join();
-        } catch (InterruptedException e) {
-            // ignore
-        }
-
-        return count;
-
+        // Reader A provides a way to read the data directly, while
+        // Reader B feeds an EDIReader to parse the data as EDI.
+        // Both run in this thread over a single shared buffer.
+        SharedInputBuffer sharedInput = new SharedInputBuffer(input);
+        FormatterParser parser = createFormatterParser(sharedInput.getReaderA(),
+                sharedInput.getReaderB(), output);
+        parser.run();
+        output.flush();
+
+        return (int) sharedInput.getCount();
     }
 
+    /**
+     * Copies the source to two destinations. This was used by earlier versions of format(),
+     * which ran the parser in a second thread reading from a pair of pipes.
+     *
+     * @deprecated format() now reads the input once through a SharedInputBuffer
+     */
+    @Deprecated
     protected int tee(Reader source, Writer destinationA, Writer destinationB)
             throws IOException {
         char[] buffer = new char[1000];
@@ -30,8 +30,10 @@ import java.io.PrintWriter;
 import java.io.Reader;
 
 /**
- * Controller used by the Formatter utility to run in a separate thread
- * and conduct the work of an EDIReader and a FormatterHandler.
+ * Controller used by the Formatter utility to conduct the work of an EDIReader
+ * and a FormatterHandler. The Formatter runs it in its own thread, with inputA and inputB
+ * both drawn from a SharedInputBuffer; it remains Runnable so that it can be run in a
+ * separate thread when the two inputs are independent streams such as pipes.
  */
 public class FormatterParser implements Runnable {
 
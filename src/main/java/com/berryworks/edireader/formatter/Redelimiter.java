@@ -0,0 +1,376 @@
+/*
+ * Copyright 2005-2026 by BerryWorks Software, LLC. All rights reserved.
+ *
+ * This file is part of EDIReader. You may obtain a license for its use directly from
+ * BerryWorks Software, and you may also choose to use this software under the terms of the
+ * GPL version 3. Other products in the EDIReader software suite are available only by licensing
+ * with BerryWorks. Only those files bearing the GPL statement below are available under the GPL.
+ *
+ * EDIReader is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * EDIReader is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with EDIReader.  If not,
+ * see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.berryworks.edireader.formatter;
+
+import com.berryworks.edireader.EDISyntaxException;
+import com.berryworks.edireader.SyntaxDescriptor;
+import com.berryworks.edireader.util.CommandLine;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Copies EDI from a Reader to a Writer, changing its syntax characters to those of a target SyntaxDescriptor.
+ * <p>
+ * The delimiter, sub-delimiter, repetition separator, release character, and terminator of the input are taken
+ * from each ISA, UNA, or UNB segment as it is encountered. In the output, each is replaced by the corresponding
+ * character of the target, and whatever follows each segment terminator (typically nothing, a LF, or a CR and LF) is
+ * replaced by the target terminator suffix. The ISA16 and ISA11 elements and the UNA segment are changed to match,
+ * and a UNA segment is added to an EDIFACT interchange if the target characters are not the defaults.
+ * Data characters that are target syntax characters are escaped with the target release character; if there
+ * is none, as is always the case for ANSI X12, such data cannot be represented and an EDISyntaxException is thrown.
+ * The binary data following a BIN or UNO segment is copied unchanged.
+ * <p>
+ * Any property of the target SyntaxDescriptor that is not set is taken from the input: a char of 0 for the
+ * delimiters and terminator, 0 for the release character, or null for the terminator suffix. Set the release
+ * character to -1 for none. A target repetition separator applies only to interchanges that use one.
+ * <p>
+ * The input is processed in a single pass through fixed-size char buffers, and nothing is parsed beyond what is
+ * needed to find the syntax characters, so memory use does not depend on the size of the input and
+ * large files are processed at nearly the speed at which they can be read and written.
+ * A Redelimiter may be shared by threads.
+ */
+public class Redelimiter {
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final int ISA_LENGTH = 106;
+
+    private final SyntaxDescriptor target;
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+    /**
+     * @param target syntax characters for the output
+     */
+    public Redelimiter(SyntaxDescriptor target) {
+        this.target = target;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = Math.max(bufferSize, 2 * ISA_LENGTH);
+    }
+
+    /**
+     * Copy EDI from a Reader to a Writer, changing its syntax characters.
+     * The Writer is flushed, but not closed.
+     *
+     * @param input  source of EDI
+     * @param output destination of the rewritten EDI
+     * @return number of segments written
+     * @throws IOException        if the input cannot be read or the output written
+     * @throws EDISyntaxException if a segment appears before the syntax characters are known,
+     *                            or if data cannot be represented with the target syntax characters
+     */
+    public long redelimit(Reader input, Writer output) throws IOException, EDISyntaxException {
+        Pass pass = new Pass(input, output);
+        pass.run();
+        pass.flush();
+        output.flush();
+        return pass.segmentCount;
+    }
+
+    /**
+     * Returns a copy of EDI text with its syntax characters changed.
+     *
+     * @param edi EDI text
+     * @return rewritten EDI text
+     * @throws EDISyntaxException if a segment appears before the syntax characters are known,
+     *                            or if data cannot be represented with the target syntax characters
+     */
+    public String redelimit(String edi) throws EDISyntaxException {
+        StringWriter writer = new StringWriter(edi.length() + edi.length() / 8);
+        try {
+            redelimit(new StringReader(edi), writer);
+        } catch (IOException e) {
+            // Not expected with a StringReader and StringWriter
+            throw new RuntimeException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * The state of one pass over the input.
+     */
+    private class Pass {
+        private final Reader input;
+        private final Writer output;
+        private final char[] in = new char[bufferSize];
+        private final char[] out = new char[bufferSize];
+        private int position, limit, outPosition;
+        private boolean endOfInput;
+
+        // Syntax characters of the input, or -1 if none
+        private int delimiter = -1, subDelimiter = -1, repetitionSeparator = -1, release = -1, terminator = -1;
+        // Syntax characters of the output, or -1 if none
+        private int toDelimiter, toSubDelimiter, toRepetitionSeparator, toRelease, toTerminator;
+        private String toSuffix;
+        private boolean unaSeen;
+        private char decimalMark = '.';
+        private long segmentCount;
+        // Number of chars of binary data to copy unchanged after the current segment
+        private int binaryAfterSegment;
+
+        Pass(Reader input, Writer output) {
+            this.input = input;
+            this.output = output;
+        }
+
+        void run() throws IOException, EDISyntaxException {
+            while (ensure(1)) {
+                if (binaryAfterSegment > 0) {
+                    // The object may itself begin with white space or control chars
+                    copyBinary(binaryAfterSegment);
+                    binaryAfterSegment = 0;
+                    continue;
+                }
+                char c = in[position];
+                if (c <= ' ') {
+                    // Line breaks or other white space following a terminator
+                    if (toSuffix == null) put(c);
+                    position++;
+                    continue;
+                }
+                if (!recognizeSyntax()) {
+                    continue;
+                }
+                if (delimiter < 0)
+                    throw new EDISyntaxException("Unable to determine syntax characters; " +
+                            "input must begin with ISA, UNA, or UNB", (int) segmentCount + 1);
+                segmentCount++;
+                segment();
+            }
+        }
+
+        /**
+         * Note the syntax characters of an interchange beginning with ISA, UNA, or UNB.
+         *
+         * @return false if a UNA segment was consumed, true if a segment remains to be processed
+         */
+        private boolean recognizeSyntax() throws IOException {
+            if (startsWith("ISA") && ensure(ISA_LENGTH)) {
+                delimiter = in[position + 3];
+                repetitionSeparator = in[position + 82];
+                if (Character.isLetterOrDigit(repetitionSeparator) || repetitionSeparator == delimiter)
+                    repetitionSeparator = -1;
+                subDelimiter = in[position + 104];
+                terminator = in[position + 105];
+                release = -1;
+                chooseTarget(false);
+            } else if (startsWith("UNA") && ensure(9)) {
+                subDelimiter = in[position + 3];
+                delimiter = in[position + 4];
+                decimalMark = in[position + 5];
+                release = in[position + 6] == ' ' ? -1 : in[position + 6];
+                repetitionSeparator = in[position + 7] == ' ' ? -1 : in[position + 7];
+                terminator = in[position + 8];
+                unaSeen = true;
+                chooseTarget(true);
+                position += 9;
+                segmentCount++;
+                putUNA();
+                return false;
+            } else if (startsWith("UNB")) {
+                if (!unaSeen) {
+                    subDelimiter = ':';
+                    delimiter = '+';
+                    release = '?';
+                    repetitionSeparator = -1;
+                    terminator = '\'';
+                    decimalMark = '.';
+                    chooseTarget(true);
+                    if (toSubDelimiter != ':' || toDelimiter != '+' || toRelease != '?' ||
+                        toRepetitionSeparator != -1 || toTerminator != '\'') {
+                        // The target characters must be declared
+                        segmentCount++;
+                        putUNA();
+                    }
+                }
+                unaSeen = false;
+            }
+            return true;
+        }
+
+        private void chooseTarget(boolean releaseAllowed) {
+            toDelimiter = target.getDelimiter() == 0 ? delimiter : target.getDelimiter();
+            toSubDelimiter = target.getSubDelimiter() == 0 ? subDelimiter : target.getSubDelimiter();
+            toRepetitionSeparator = repetitionSeparator < 0 || target.getRepetitionSeparator() == 0 ?
+                    repetitionSeparator : target.getRepetitionSeparator();
+            toRelease = !releaseAllowed ? -1 : target.getRelease() == 0 ? release : target.getRelease();
+            toTerminator = target.getTerminator() == 0 ? terminator : target.getTerminator();
+            toSuffix = target.getTerminatorSuffix();
+        }
+
+        private void putUNA() throws IOException {
+            put('U');
+            put('N');
+            put('A');
+            put((char) toSubDelimiter);
+            put((char) toDelimiter);
+            put(decimalMark);
+            put(toRelease < 0 ? ' ' : (char) toRelease);
+            put(toRepetitionSeparator < 0 ? ' ' : (char) toRepetitionSeparator);
+            endSegment();
+        }
+
+        /**
+         * Process one segment, beginning with its tag and ending with its terminator.
+         */
+        private void segment() throws IOException, EDISyntaxException {
+            boolean bin = startsWith("BIN");
+            boolean uno = !bin && startsWith("UNO");
+            int element = 0;
+            int length = 0;
+
+            while (ensure(1)) {
+                char c = in[position++];
+                if (c == terminator) {
+                    endSegment();
+                    if (uno) binaryAfterSegment = length;
+                    return;
+                } else if (c == delimiter) {
+                    put((char) toDelimiter);
+                    element++;
+                    if (bin && element == 2) {
+                        copyBinary(length);
+                        bin = false;
+                    }
+                } else if (c == subDelimiter) {
+                    put((char) toSubDelimiter);
+                } else if (c == repetitionSeparator) {
+                    put((char) toRepetitionSeparator);
+                } else if (c == release) {
+                    if (!ensure(1)) break;
+                    putData(in[position++]);
+                } else {
+                    if (element == 1 && (bin || uno) && c >= '0' && c <= '9') {
+                        length = 10 * length + (c - '0');
+                    }
+                    putData(c);
+                }
+            }
+            // The input ended without a final terminator
+        }
+
+        private void putData(char c) throws IOException, EDISyntaxException {
+            if (c == toDelimiter || c == toSubDelimiter || c == toTerminator || c == toRepetitionSeparator || c == toRelease) {
+                if (toRelease < 0)
+                    throw new EDISyntaxException("Data character '" + c + "' cannot be represented without a release character",
+                            (int) segmentCount);
+                put((char) toRelease);
+            }
+            put(c);
+        }
+
+        private void endSegment() throws IOException {
+            put((char) toTerminator);
+            if (toSuffix != null) {
+                for (int i = 0; i < toSuffix.length(); i++) {
+                    put(toSuffix.charAt(i));
+                }
+            }
+        }
+
+        private void copyBinary(int count) throws IOException {
+            while (count > 0 && ensure(1)) {
+                int n = Math.min(count, limit - position);
+                flush();
+                output.write(in, position, n);
+                position += n;
+                count -= n;
+            }
+        }
+
+        private boolean startsWith(String tag) throws IOException {
+            if (!ensure(tag.length())) return false;
+            for (int i = 0; i < tag.length(); i++) {
+                if (in[position + i] != tag.charAt(i)) return false;
+            }
+            return true;
+        }
+
+        private void put(char c) throws IOException {
+            if (outPosition == out.length) flush();
+            out[outPosition++] = c;
+        }
+
+        void flush() throws IOException {
+            if (outPosition > 0) {
+                output.write(out, 0, outPosition);
+                outPosition = 0;
+            }
+        }
+
+        /**
+         * Ensure that at least count unprocessed chars are in the input buffer, unless the input ends first.
+         */
+        private boolean ensure(int count) throws IOException {
+            if (limit - position >= count) return true;
+            if (endOfInput) return false;
+
+            System.arraycopy(in, position, in, 0, limit - position);
+            limit -= position;
+            position = 0;
+            while (limit < count) {
+                int n = input.read(in, limit, in.length - limit);
+                if (n < 0) {
+                    endOfInput = true;
+                    return false;
+                }
+                limit += n;
+            }
+            return true;
+        }
+    }
+
+    public static void main(String[] args) throws IOException, EDISyntaxException {
+        CommandLine commandLine = new CommandLine(args) {
+            @Override
+            public String usage() {
+                return "Redelimiter [inputfile] [-o outputfile] [-d delimiter] [-s subdelimiter] [-r repetitionseparator]" +
+                       " [-e releasecharacter|none] [-t terminator] [-x none|lf|crlf]";
+            }
+        };
+        SyntaxDescriptor target = new SyntaxDescriptor();
+        String value;
+        if ((value = commandLine.getOption("d")) != null) target.setDelimiter(value.charAt(0));
+        if ((value = commandLine.getOption("s")) != null) target.setSubDelimiter(value.charAt(0));
+        if ((value = commandLine.getOption("r")) != null) target.setRepetitionSeparator(value.charAt(0));
+        if ((value = commandLine.getOption("e")) != null) target.setRelease("none".equals(value) ? -1 : value.charAt(0));
+        if ((value = commandLine.getOption("t")) != null) target.setTerminator(value.charAt(0));
+        if ((value = commandLine.getOption("x")) != null) {
+            target.setTerminatorSuffix(switch (value) {
+                case "lf" -> "\n";
+                case "crlf" -> "\r\n";
+                default -> "";
+            });
+        }
+
+        String inputFileName = commandLine.getPosition(0);
+        String outputFileName = commandLine.getOption("o");
+        try (Reader input = inputFileName == null ?
+                new InputStreamReader(System.in, StandardCharsets.ISO_8859_1) :
+                new FileReader(inputFileName, StandardCharsets.ISO_8859_1);
+             Writer output = outputFileName == null ?
+                     new OutputStreamWriter(System.out, StandardCharsets.ISO_8859_1) :
+                     new FileWriter(outputFileName, StandardCharsets.ISO_8859_1)) {
+            new Redelimiter(target).redelimit(input, output);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2005-2026 by BerryWorks Software, LLC. All rights reserved.
+ *
+ * This file is part of EDIReader. You may obtain a license for its use directly from
+ * BerryWorks Software, and you may also choose to use this software under the terms of the
+ * GPL version 3. Other products in the EDIReader software suite are available only by licensing
+ * with BerryWorks. Only those files bearing the GPL statement below are available under the GPL.
+ *
+ * EDIReader is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * EDIReader is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with EDIReader.  If not,
+ * see <http://www.gnu.org/licenses/>.
+ */
+
+package com.berryworks.edireader.formatter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Provides two Readers, A and B, that each deliver all of the chars of one underlying Reader.
+ * <p>
+ * This allows a program to parse EDI from one Reader while it extracts the raw text of each segment
+ * from the other, in a single thread and without pipes. Chars are read from the underlying Reader only when
+ * one of the two Readers needs more, and they are retained only until both Readers have read them.
+ * The memory used is therefore proportional to how far one Reader runs ahead of the other, which for
+ * the Formatter is about the size of the tokenizer's buffer.
+ */
+public class SharedInputBuffer {
+    private static final int INITIAL_SIZE = 16 * 1024;
+
+    private final Reader source;
+    private char[] chars = new char[INITIAL_SIZE];
+    // Offset within the input of chars[0]
+    private long base;
+    private int length;
+    private boolean endOfInput;
+    private final Branch readerA = new Branch();
+    private final Branch readerB = new Branch();
+
+    public SharedInputBuffer(Reader source) {
+        this.source = source;
+    }
+
+    public Reader getReaderA() {
+        return readerA;
+    }
+
+    public Reader getReaderB() {
+        return readerB;
+    }
+
+    /**
+     * Returns the number of chars read so far from the underlying Reader.
+     *
+     * @return number of chars
+     */
+    public long getCount() {
+        return base + length;
+    }
+
+    private boolean fill() throws IOException {
+        if (endOfInput) return false;
+
+        // Discard the chars that have been read by both Readers
+        int discard = (int) Math.min(Math.min(readerA.position, readerB.position) - base, length);
+        if (discard > 0) {
+            System.arraycopy(chars, discard, chars, 0, length - discard);
+            length -= discard;
+            base += discard;
+        }
+        if (length == chars.length) {
+            chars = Arrays.copyOf(chars, chars.length * 2);
+        }
+
+        int n;
+        do {
+            n = source.read(chars, length, chars.length - length);
+        } while (n == 0);
+        if (n < 0) {
+            endOfInput = true;
+            return false;
+        }
+        length += n;
+        return true;
+    }
+
+    private class Branch extends Reader {
+        // Offset within the input of the next char to be read
+        private long position;
+        private boolean closed;
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            if (closed) throw new IOException("Reader closed");
+            if (len == 0) return 0;
+            if (position == base + length && !fill()) return -1;
+
+            int index = (int) (position - base);
+            int n = Math.min(len, length - index);
+            System.arraycopy(chars, index, cbuf, off, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = 0;
+            while (skipped < n) {
+                if (position == base + length && !fill()) break;
+                long step = Math.min(n - skipped, base + length - position);
+                position += step;
+                skipped += step;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean ready() throws IOException {
+            return position < base + length || source.ready();
+        }
+
+        /**
+         * Closing one of the Readers does not close the underlying Reader,
+         * but chars are no longer retained on its behalf.
+         */
+        @Override
+        public void close() {
+            closed = true;
+            position = Long.MAX_VALUE;
+        }
+    }
+}
@@ -23,6 +23,7 @@ package com.berryworks.edireader.plugin;
 import com.berryworks.edireader.EDISyntaxException;
 import com.berryworks.edireader.Plugin;
 import com.berryworks.edireader.PluginController;
+import com.berryworks.edireader.tokenizer.SegmentTag;
 import com.berryworks.edireader.tokenizer.Tokenizer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -117,6 +118,11 @@ public class PluginControllerImpl extends PluginController {
      */
     @Override
     public boolean transition(String segmentName) throws EDISyntaxException {
+        return transition(segmentName, SegmentTag.pack(segmentName));
+    }
+
+    @Override
+    public boolean transition(String segmentName, int segmentTag) throws EDISyntaxException {
         if (!enabled)
             return false;
 
@@ -127,6 +133,7 @@ public class PluginControllerImpl extends PluginController {
         boolean result = false;
 
         LoopDescriptor newDescriptor = plugin.query(
+                segmentTag,
                 segmentName,
                 loopStack.toString(),
                 loopDescriptor.getNestingLevel(),
@@ -20,7 +20,10 @@
 
 package com.berryworks.edireader.plugin;
 
+import com.berryworks.edireader.tokenizer.SegmentTag;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,13 +31,26 @@ import java.util.Map;
 /**
  * A runtime data structure that optimizes the LoopDescriptors of a plugin
  * for access by an EDI parser.
+ * <p>
+ * In addition to a map keyed by segment name, the LoopDescriptors are arranged in a table keyed by
+ * the segment tag encoded as an int by SegmentTag. The table is a perfect hash: its size is chosen so that
+ * no two segment tags of the plugin share a slot, so a lookup is a multiplication, a shift, and one comparison.
  *
  * @see com.berryworks.edireader.Plugin
+ * @see SegmentTag
  */
 public class PluginPreparation {
 
+    private static final LoopDescriptor[] NO_DESCRIPTORS = new LoopDescriptor[0];
+    private static final int DIRECT = -1;
+
     protected final Map<String, List<LoopDescriptor>> segmentMap = new HashMap<>();
 
+    // Perfect hash table of LoopDescriptor arrays keyed by segment tag code
+    private int[] tagTable = {SegmentTag.NONE};
+    private LoopDescriptor[][] descriptorTable = {null};
+    private int shift = 32;
+
     /**
      * Constructs an instance given an array of LoopDescriptors.
      * <p>
@@ -49,6 +65,7 @@ public class PluginPreparation {
             String segmentName = rawSegmentName(loop.getFirstSegment());
             segmentMap.computeIfAbsent(segmentName, k -> new ArrayList<>()).add(loop);
         }
+        buildTagTable();
     }
 
     private String rawSegmentName(String segmentName) {
@@ -62,6 +79,55 @@ public class PluginPreparation {
         return index > 0 ? segmentName.substring(0, index) : segmentName;
     }
 
+    private void buildTagTable() {
+        int[] tags = new int[segmentMap.size()];
+        LoopDescriptor[][] descriptors = new LoopDescriptor[segmentMap.size()][];
+        int n = 0;
+        for (Map.Entry<String, List<LoopDescriptor>> entry : segmentMap.entrySet()) {
+            int tag = SegmentTag.pack(entry.getKey());
+            // A segment name that cannot be encoded is found only through getList()
+            if (tag != SegmentTag.NONE) {
+                tags[n] = tag;
+                descriptors[n++] = entry.getValue().toArray(NO_DESCRIPTORS);
+            }
+        }
+        if (n == 0)
+            return;
+
+        // Find the smallest power-of-two table, at least twice the number of tags, in which no two collide.
+        // Failing that, which does not happen with any realistic plugin, index directly by the code.
+        for (int bits = 32 - Integer.numberOfLeadingZeros(2 * n - 1); ; bits++) {
+            int size = 1 << bits;
+            int tableShift = size < SegmentTag.LIMIT ? 32 - bits : DIRECT;
+            if (tableShift == DIRECT)
+                size = SegmentTag.LIMIT;
+            int[] table = new int[size];
+            Arrays.fill(table, SegmentTag.NONE);
+            boolean collision = false;
+            for (int i = 0; i < n && !collision; i++) {
+                int slot = slot(tags[i], tableShift);
+                if (table[slot] == SegmentTag.NONE)
+                    table[slot] = tags[i];
+                else
+                    collision = true;
+            }
+            if (!collision) {
+                shift = tableShift;
+                tagTable = table;
+                descriptorTable = new LoopDescriptor[size][];
+                for (int i = 0; i < n; i++) {
+                    descriptorTable[slot(tags[i], shift)] = descriptors[i];
+                }
+                return;
+            }
+        }
+    }
+
+    private static int slot(int tag, int shift) {
+        if (shift == DIRECT) return tag;
+        return shift == 32 ? 0 : (tag * 0x9E3779B1) >>> shift;
+    }
+
     /**
      * Returns an ordered list of LoopDescriptors corresponding to loops that start with a
      * given segment name.
@@ -75,4 +141,21 @@ public class PluginPreparation {
         return segmentMap.get(segment);
     }
 
+    /**
+     * Returns an ordered array of LoopDescriptors corresponding to loops that start with a
+     * given segment tag, without hashing a String.
+     * <p>
+     * The LoopDescriptors appear in the same order as they were mentioned in the plugin.
+     * The array is shared and must not be modified.
+     *
+     * @param segmentTag - code of the segment tag, as by SegmentTag.pack()
+     * @return array of LoopDescriptors, or null if there are none
+     */
+    public LoopDescriptor[] getDescriptors(int segmentTag) {
+        if (segmentTag == SegmentTag.NONE)
+            return null;
+        int slot = slot(segmentTag, shift);
+        return tagTable[slot] == segmentTag ? descriptorTable[slot] : null;
+    }
+
 }
@@ -25,6 +25,7 @@ import com.berryworks.edireader.error.EDISyntaxExceptionHandler;
 import com.berryworks.edireader.error.RecoverableSyntaxException;
 import com.berryworks.edireader.filter.EdiReaderFilter;
 import com.berryworks.edireader.plugin.AbstractPluginControllerFactory;
+import com.berryworks.edireader.tokenizer.Tokenizer;
 import org.xml.sax.Attributes;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.InputSource;
@@ -78,9 +79,9 @@ public class SplittingHandler extends DefaultHandler {
     }
 
     public void split(InputSource inputSource) throws IOException, SAXException {
-        char[] leftOver = null;
+        Tokenizer tokenizer = null;
         EDIReader parser;
-        while ((parser = EDIReaderFactory.createEDIReader(inputSource, leftOver)) != null) {
+        while ((parser = EDIReaderFactory.createNextEDIReader(inputSource, tokenizer)) != null) {
             noteSyntaxDetails(parser);
             parser.setContentHandler(this);
             parser.setSyntaxExceptionHandler(new MyErrorHandler());
@@ -93,7 +94,7 @@ public class SplittingHandler extends DefaultHandler {
             } else {
                 parser.parse(inputSource);
             }
-            leftOver = parser.getTokenizer().getBuffered();
+            tokenizer = parser.getTokenizer();
         }
         handlerFactory.markEndOfStream();
     }
@@ -78,7 +78,7 @@ public abstract class AbstractTokenizer implements Tokenizer, ErrorMessages {
     protected boolean tokenReady;
     protected boolean repetition;
     protected boolean endOfFile;
-    protected final Token currentToken;
+    protected final TokenImpl currentToken;
     protected char cChar;
     protected boolean unGot;
 
@@ -378,7 +378,7 @@ public abstract class AbstractTokenizer implements Tokenizer, ErrorMessages {
      * @throws IOException                                 for problem reading EDI data
      * @throws com.berryworks.edireader.EDISyntaxException if invalid EDI is detected
      */
-    public Token nextToken() throws IOException, EDISyntaxException {
+    public TokenImpl nextToken() throws IOException, EDISyntaxException {
         if (!tokenReady)
             advance();
         tokenReady = false;
@@ -429,6 +429,11 @@ public abstract class AbstractTokenizer implements Tokenizer, ErrorMessages {
         return t.getSegmentType();
     }
 
+    @Override
+    public int getSegmentTag() {
+        return currentToken.getSegmentTag();
+    }
+
     /**
      * Skips over tokens until an END_SEGMENT token is reached, marking the end
      * of the current segment. This Tokenizer is therefore positioned so that
@@ -543,17 +548,21 @@ public abstract class AbstractTokenizer implements Tokenizer, ErrorMessages {
 
     public char[] getChars(int n) throws IOException, EDISyntaxException {
         char[] result = new char[n];
-        for (int i = 0; i < n; i++) {
+        getChars(result, 0, n);
+        return result;
+    }
+
+    public void getChars(char[] destination, int offset, int length) throws IOException, EDISyntaxException {
+        for (int i = 0; i < length; i++) {
             getChar();
             if (cClass == CharacterClass.EOF) {
                 EDISyntaxException se = new EDISyntaxException("Encountered end of data unexpectedly after reading " +
-                                                               i + " characters of an expected " + n + " character sequence");
+                                                               i + " characters of an expected " + length + " character sequence");
                 logger.warn(se.getMessage());
                 throw se;
             }
-            result[i] = cChar;
+            destination[offset + i] = cChar;
         }
-        return result;
     }
 
 
@@ -609,6 +618,68 @@ public abstract class AbstractTokenizer implements Tokenizer, ErrorMessages {
         currentToken = new TokenImpl(this);
     }
 
+    /**
+     * Prepares the tokenizer to continue with an independent interchange that follows
+     * in the same input. The Reader and any chars read but not yet used are kept, and
+     * are the next to be seen. Otherwise the tokenizer is as if newly constructed:
+     * the syntax characters revert to their defaults so that they can be assigned for
+     * the next interchange, the counters restart, and copying and recording are off.
+     *
+     * @return true
+     */
+    @Override
+    public boolean rearm() {
+        delimiter = '+';
+        subDelimiter = ':';
+        subSubDelimiter = '&';
+        release = -1;
+        repetitionSeparator = -1;
+        terminator = '.';
+
+        state = State.EXPECTING_SEGMENT;
+        tokenReady = false;
+        repetition = false;
+        currentToken.setType(null);
+        currentToken.resetIndexes();
+        currentToken.resetValue();
+
+        segmentCount = 0;
+        segTokenCount = 0;
+        charCount = 0;
+        segCharCount = 0;
+
+        outputWriter = null;
+        writingSuspended = false;
+        recorderOn = false;
+        recording.setLength(0);
+
+        if (unGot && !endOfFile)
+            // The char that will be seen again was classified with the previous syntax characters
+            cClass = classify(cChar);
+        return true;
+    }
+
+    /**
+     * Returns the character class of a char of data according to the current syntax characters.
+     *
+     * @param c char of data
+     * @return CharacterClass
+     */
+    protected final CharacterClass classify(char c) {
+        if (c == delimiter)
+            return CharacterClass.DELIMITER;
+        else if (c == terminator)
+            return CharacterClass.TERMINATOR;
+        else if (c == subDelimiter)
+            return CharacterClass.SUB_DELIMITER;
+        else if (c == release)
+            return CharacterClass.RELEASE;
+        else if (c == repetitionSeparator)
+            return CharacterClass.REPEAT_DELIMITER;
+        else
+            return CharacterClass.DATA;
+    }
+
     /**
      * Advances to the next token. Sets tokenReady, currentToken, and state.
      *
@@ -22,8 +22,6 @@ package com.berryworks.edireader.tokenizer;
 
 import java.io.IOException;
 import java.io.Reader;
-import java.nio.Buffer;
-import java.nio.CharBuffer;
 
 /**
  * Interprets EDI input as a sequence of primitive syntactic tokens.
@@ -32,15 +30,19 @@ import java.nio.CharBuffer;
  * input EDI stream one token at a time. A call to <code>nextToken()</code> causes the tokenizer to advance
  * past the next token and return a <code>Token</code> instance describing that token.
  * <p>
- * This implementation of Tokenizer uses CharBuffer instead of char[].
+ * This implementation of Tokenizer is final and buffers input in a plain char[], so that the
+ * parsers, which hold a reference of this type, can have getChar() and nextToken() inlined.
+ * Other implementations of the Tokenizer interface are reached through the interface.
  */
-public class EDITokenizer extends AbstractTokenizer {
+public final class EDITokenizer extends AbstractTokenizer {
     public static final int BUFFER_SIZE = 1000;
-    private final CharBuffer charBuffer = CharBuffer.wrap(new char[BUFFER_SIZE]);
+    private final char[] buffer = new char[BUFFER_SIZE];
+    // The unused chars in the buffer are those from position up to, but not including, limit
+    private int position;
+    private int limit;
 
     public EDITokenizer(Reader source) {
         super(source);
-        ((Buffer) charBuffer).flip();
     }
 
     public EDITokenizer(Reader source, char[] preRead) {
@@ -48,12 +50,11 @@ public class EDITokenizer extends AbstractTokenizer {
         if (preRead == null || preRead.length == 0)
             return;
 
-        if (preRead.length > charBuffer.capacity())
+        if (preRead.length > buffer.length)
             throw new RuntimeException("Attempt to create EDITokenizer with " + preRead.length +
-                                       " pre-read chars, which is greater than the internal buffer size of " + charBuffer.capacity());
-        ((Buffer) charBuffer).clear();
-        charBuffer.put(preRead);
-        ((Buffer) charBuffer).flip();
+                                       " pre-read chars, which is greater than the internal buffer size of " + buffer.length);
+        System.arraycopy(preRead, 0, buffer, 0, preRead.length);
+        limit = preRead.length;
     }
 
     /**
@@ -85,7 +86,7 @@ public class EDITokenizer extends AbstractTokenizer {
         if (recorderOn)
             recording.append(cChar);
 
-        if (charBuffer.remaining() == 0) {
+        if (position == limit) {
             readUntilBufferProvidesAtLeast(1);
         }
 
@@ -93,19 +94,8 @@ public class EDITokenizer extends AbstractTokenizer {
             cClass = CharacterClass.EOF;
 //            logger.debug("end-of-file encountered");
         } else {
-            cChar = charBuffer.get();
-            if (cChar == delimiter)
-                cClass = CharacterClass.DELIMITER;
-            else if (cChar == terminator)
-                cClass = CharacterClass.TERMINATOR;
-            else if (cChar == subDelimiter)
-                cClass = CharacterClass.SUB_DELIMITER;
-            else if (cChar == release)
-                cClass = CharacterClass.RELEASE;
-            else if (cChar == repetitionSeparator)
-                cClass = CharacterClass.REPEAT_DELIMITER;
-            else
-                cClass = CharacterClass.DATA;
+            cChar = buffer[position++];
+            cClass = classify(cChar);
         }
         charCount++;
         segCharCount++;
@@ -125,8 +115,8 @@ public class EDITokenizer extends AbstractTokenizer {
         result += " segTokenCount=" + segTokenCount;
         result += " segCharCount=" + segCharCount;
         result += " currentToken=" + currentToken;
-        result += " buffer.limit=" + charBuffer.limit();
-        result += " buffer.position=" + charBuffer.position();
+        result += " buffer.limit=" + limit;
+        result += " buffer.position=" + position;
         return result;
     }
 
@@ -137,25 +127,22 @@ public class EDITokenizer extends AbstractTokenizer {
      * are included among the chars returned by getBuffered.
      * <p>
      * The use of getBuffered() is intended for only very special situations.
-     * For example, if an input stream contains multiple fully independent EDI
-     * interchanges -- perhaps from different EDI standards -- it is useful to
-     * logically "start from scratch" on each successive interchange, with new
-     * parser, tokenizer, buffer, etc., with any chars remaining in the buffer
-     * from the previous interchange to be used as new data.
+     * To continue with another interchange that follows in the same input,
+     * rearm() is preferred because it does not copy the buffered chars.
      *
      * @return chars of unprocessed input data
      */
     public char[] getBuffered() {
         char[] result = new char[0];
 
-        if (charBuffer.remaining() == 0 && !unGot) {
+        if (position == limit && !unGot) {
             return result;
         }
 
         try {
-            int n = charBuffer.remaining();
+            int n = limit - position;
             if (endOfFile && n == 0) {
-                // Special case: if we've hit eof and the charBuffer is empty
+                // Special case: if we've hit eof and the buffer is empty
                 // ignore an unGot char if there is one.
             } else {
                 n += unGot ? 1 : 0;
@@ -188,15 +175,15 @@ public class EDITokenizer extends AbstractTokenizer {
         ungetChar();
 
         // The minus 1 is because we have already filled the first char of the return value, so we only need n-1 more
-        if (charBuffer.remaining() < n - 1) {
+        if (limit - position < n - 1) {
 //            logger.debug("Buffering more data to satisfy lookahead({}})", n);
             readUntilBufferProvidesAtLeast(n - 1);
         }
 
         // Move chars from the buffer into the return value
         int j = 1;
-        for (int i = charBuffer.position(); i < charBuffer.limit() && j < n; i++)
-            rval[j++] = charBuffer.get(i);
+        for (int i = position; i < limit && j < n; i++)
+            rval[j++] = buffer[i];
 
         // If more lookahead chars were requested than were satisfied for any reason,
         // then fill the return value with '?' to the requested length.
@@ -209,13 +196,17 @@ public class EDITokenizer extends AbstractTokenizer {
 
     private void readUntilBufferProvidesAtLeast(int needed) throws IOException {
 
-        while (charBuffer.remaining() < needed) {
+        while (limit - position < needed) {
             // Read from input stream because the number chars needed exceeds available,
-            charBuffer.compact();
+            // first moving the unused chars to the beginning of the buffer
+            limit -= position;
+            System.arraycopy(buffer, position, buffer, 0, limit);
+            position = 0;
             int n;
-            while ((n = inputReader.read(charBuffer)) == 0) {
+            while ((n = inputReader.read(buffer, limit, buffer.length - limit)) == 0) {
             }
-            ((Buffer) charBuffer).flip();
+            if (n > 0)
+                limit += n;
 
             if (n < 0) {
                 // Hit end of file on the input stream
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2005-2026 by BerryWorks Software, LLC. All rights reserved.
+ *
+ * This file is part of EDIReader. You may obtain a license for its use directly from
+ * BerryWorks Software, and you may also choose to use this software under the terms of the
+ * GPL version 3. Other products in the EDIReader software suite are available only by licensing
+ * with BerryWorks. Only those files bearing the GPL statement below are available under the GPL.
+ *
+ * EDIReader is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * EDIReader is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with EDIReader.  If not,
+ * see <http://www.gnu.org/licenses/>.
+ */
+
+package com.berryworks.edireader.tokenizer;
+
+/**
+ * Encodes a segment tag of one to three uppercase letters or digits, such as NM1 or UNH, as a small int.
+ * <p>
+ * Each character is mapped to a value from 1 to 36, and the values are combined in base 37, so every such
+ * tag has a distinct code less than 37<sup>3</sup> = 50653. A tag that is empty, longer than three characters,
+ * or contains any other character has the code NONE. The tokenizer computes the code once per segment, so a
+ * segment can be looked up in a table indexed by the code without hashing a String.
+ */
+public final class SegmentTag {
+    public static final int NONE = -1;
+    public static final int LIMIT = 37 * 37 * 37;
+
+    private SegmentTag() {
+    }
+
+    /**
+     * Returns the code of a segment tag.
+     *
+     * @param tag segment tag, such as NM1
+     * @return code from 1 to LIMIT - 1, or NONE
+     */
+    public static int pack(CharSequence tag) {
+        if (tag == null) return NONE;
+        int length = tag.length();
+        if (length == 0 || length > 3) return NONE;
+
+        int code = 0;
+        for (int i = 0; i < length; i++) {
+            int value = valueOf(tag.charAt(i));
+            if (value == 0) return NONE;
+            code = code * 37 + value;
+        }
+        return code;
+    }
+
+    private static int valueOf(char c) {
+        if (c >= '0' && c <= '9') return c - '0' + 1;
+        if (c >= 'A' && c <= 'Z') return c - 'A' + 11;
+        return 0;
+    }
+}
@@ -132,6 +132,15 @@ public interface Token {
      */
     String getSegmentType();
 
+    /**
+     * Returns the segment type encoded as an int, as by SegmentTag.pack().
+     *
+     * @return code of the segment type, or SegmentTag.NONE
+     */
+    default int getSegmentTag() {
+        return SegmentTag.pack(getSegmentType());
+    }
+
 
     /**
      * Returns a String concatenation of the segment type and
@@ -7,27 +7,28 @@ package com.berryworks.edireader.tokenizer;
 import com.berryworks.edireader.EDISyntaxException;
 import com.berryworks.edireader.error.ErrorMessages;
 
-import java.nio.Buffer;
-import java.nio.CharBuffer;
+import java.util.Arrays;
 
 public class TokenImpl implements Token {
 
     private final Tokenizer tokenizer;
     private final char[] digits = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9'};
 
-    private CharBuffer valueBuffer = CharBuffer.wrap(new char[10]);
+    private char[] value = new char[10];
+    private int valueLength;
     private TokenType type = TokenType.UNKNOWN;
     private int index;
     private int subElementIndex;
     private boolean lastSubElement;
     private boolean containsNonSpace;
     private String segmentType = "";
+    private int segmentTag = SegmentTag.NONE;
 
     public TokenImpl(Tokenizer tokenizer) {
         this.tokenizer = tokenizer;
     }
 
-    public TokenType getType() {
+    public final TokenType getType() {
         return type;
     }
 
@@ -58,7 +59,7 @@ public class TokenImpl implements Token {
      * Gets the 0-origin sequential position of this token within the
      * segment.
      */
-    public int getIndex() {
+    public final int getIndex() {
         return index;
     }
 
@@ -66,7 +67,7 @@ public class TokenImpl implements Token {
      * Gets the 0-origin sequential position of a subelement within a series
      * of subelements.
      */
-    public int getSubIndex() {
+    public final int getSubIndex() {
         return subElementIndex;
     }
 
@@ -83,24 +84,20 @@ public class TokenImpl implements Token {
      * @return The valueChars value
      */
     @Override
-    public char[] getValueChars() {
-        return valueBuffer.array();
+    public final char[] getValueChars() {
+        return value;
     }
 
     @Override
-    public int getValueLength() {
-        return valueBuffer.position();
-
+    public final int getValueLength() {
+        return valueLength;
     }
 
     /**
      * Gets the data value of the token as a String.
      */
     public String getValue() {
-        ((Buffer) valueBuffer).flip();
-        String s = valueBuffer.toString();
-        valueBuffer.compact();
-        return s;
+        return new String(value, 0, valueLength);
     }
 
     @Override
@@ -113,16 +110,22 @@ public class TokenImpl implements Token {
         return segmentType;
     }
 
+    @Override
+    public int getSegmentTag() {
+        return segmentTag;
+    }
+
     @Override
     public void setSegmentType(String s) throws EDISyntaxException {
         segmentType = s;
+        segmentTag = SegmentTag.pack(s);
         if ("".equals(segmentType))
             throw new EDISyntaxException(
                     ErrorMessages.INVALID_BEGINNING_OF_SEGMENT, tokenizer);
     }
 
     @Override
-    public boolean containsNonSpace() {
+    public final boolean containsNonSpace() {
         return containsNonSpace;
     }
 
@@ -172,24 +175,17 @@ public class TokenImpl implements Token {
     }
 
     @Override
-    public void append(char c) {
-        if (!valueBuffer.hasRemaining())
-            enlarge();
-        valueBuffer.put(c);
-        if (!containsNonSpace && c != ' ')
+    public final void append(char c) {
+        if (valueLength == value.length)
+            value = Arrays.copyOf(value, 2 * value.length);
+        value[valueLength++] = c;
+        if (c != ' ')
             containsNonSpace = true;
     }
 
-    private void enlarge() {
-        CharBuffer newBuffer = CharBuffer.wrap(new char[2 * valueBuffer.capacity()]);
-        valueBuffer.compact();
-        newBuffer.append(valueBuffer);
-        valueBuffer = newBuffer;
-    }
-
     @Override
-    public void resetValue() {
-        ((Buffer) valueBuffer).clear();
+    public final void resetValue() {
+        valueLength = 0;
         containsNonSpace = false;
     }
 
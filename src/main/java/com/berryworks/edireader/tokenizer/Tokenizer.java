@@ -70,6 +70,17 @@ public interface Tokenizer extends SourcePosition {
 
     String nextSegment() throws SAXException, IOException;
 
+    /**
+     * Returns the segment tag of the current segment encoded as an int, as by SegmentTag.pack().
+     * A Tokenizer that does not provide the code returns SegmentTag.NONE, and the segment is then
+     * looked up by its segment type instead.
+     *
+     * @return code of the segment tag, or SegmentTag.NONE
+     */
+    default int getSegmentTag() {
+        return SegmentTag.NONE;
+    }
+
     String getRecording();
 
     void setRecorder(boolean b);
@@ -93,8 +104,36 @@ public interface Tokenizer extends SourcePosition {
      */
     char[] getBuffered();
 
+    /**
+     * Prepares the tokenizer to continue with an independent interchange that follows
+     * in the same input, keeping the Reader and any chars buffered but not yet used.
+     * The syntax characters revert to their defaults so that they can be assigned anew.
+     * A Tokenizer that cannot do this returns false, and the caller continues instead with
+     * a new tokenizer given the chars from getBuffered().
+     *
+     * @return true if the tokenizer was re-armed
+     */
+    default boolean rearm() {
+        return false;
+    }
+
     char[] getChars(int n) throws IOException, EDISyntaxException;
 
+    /**
+     * Reads exactly length chars of input into a caller-supplied array, regardless of
+     * their character class. This allows a long sequence of data, such as a binary object,
+     * to be consumed in chunks without allocating an array for the entire sequence.
+     *
+     * @param destination array to receive the chars
+     * @param offset      index in the array of the first char
+     * @param length      number of chars to read
+     * @throws IOException        for problem reading EDI data
+     * @throws EDISyntaxException if the end of data is reached before length chars are read
+     */
+    default void getChars(char[] destination, int offset, int length) throws IOException, EDISyntaxException {
+        System.arraycopy(getChars(length), 0, destination, offset, length);
+    }
+
     int getSegmentCount();
 
     int getElementInSegmentCount();
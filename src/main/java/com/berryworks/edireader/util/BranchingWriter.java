@@ -20,10 +20,11 @@
 
 package com.berryworks.edireader.util;
 
-import java.io.FilterWriter;
-import java.io.IOException;
-import java.io.StringWriter;
-import java.io.Writer;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 
 /**
  * An implementation of Writer that supports two alternate versions
@@ -38,87 +39,221 @@ import java.io.Writer;
  * A closeUsingBranch() method is provided which causes the branch version to be used instead
  * of the trunk version.
  * <p>
- * Once the two versions diverge, the alternate versions are buffered in memory.
- * Therefore, this implementation is not appropriate for arbitrarily large volumes of data.
+ * Until the two versions diverge, data is written directly to the underlying Writer.
+ * After that, the data is held in a single log in which the data common to both versions
+ * appears only once, along with a list of runs noting whether each portion of the log belongs to
+ * the trunk, the branch, or both. The log is kept in memory up to a limit, beyond which it is
+ * written to a temporary file, so the volume of data is not limited by the available memory.
  */
 public class BranchingWriter extends FilterWriter {
+    public static final int DEFAULT_MEMORY_LIMIT = 1024 * 1024;
 
+    private static final byte COMMON = 0;
+    private static final byte TRUNK = 1;
+    private static final byte BRANCH = 2;
+
+    private final int memoryLimit;
+    private final File directory;
     private boolean branchActive;
-    private StringWriter branch;
-    private StringWriter trunk;
+
+    // The log, of which the first spilledLength chars have been written to a temporary file
+    private char[] log;
+    private int logLength;
+    private Path spillPath;
+    private Writer spillWriter;
+
+    // Runs of the log: kind (COMMON, TRUNK, or BRANCH) and number of chars
+    private byte[] runKinds;
+    private long[] runLengths;
+    private int runCount;
 
     public BranchingWriter(Writer out) {
+        this(out, DEFAULT_MEMORY_LIMIT, null);
+    }
+
+    /**
+     * @param out         the underlying Writer
+     * @param memoryLimit maximum number of chars to hold in memory once the trunk and branch have diverged
+     * @param directory   directory for the temporary file, or null for the default temporary-file directory
+     */
+    public BranchingWriter(Writer out, int memoryLimit, File directory) {
         super(out);
+        this.memoryLimit = Math.max(memoryLimit, 1024);
+        this.directory = directory;
     }
 
     @Override
     public void write(int c) throws IOException {
         if (branchActive) {
-            trunk.write(c);
-            branch.write(c);
+            reserve(COMMON, 1);
+            log[logLength++] = (char) c;
         } else
             super.write(c);
     }
 
     @Override
     public void write(char[] cbuf, int off, int len) throws IOException {
-        if (branchActive) {
-            trunk.write(cbuf, off, len);
-            branch.write(cbuf, off, len);
-        } else
+        if (branchActive)
+            append(COMMON, cbuf, off, len);
+        else
             super.write(cbuf, off, len);
     }
 
     @Override
     public void write(String str, int off, int len) throws IOException {
-        if (branchActive) {
-            trunk.write(str, off, len);
-            branch.write(str, off, len);
-        } else
+        if (branchActive)
+            append(COMMON, str, off, len);
+        else
             super.write(str, off, len);
     }
 
     @Override
     public void flush() throws IOException {
-        if (branchActive) {
-            trunk.flush();
-            branch.flush();
-        } else
+        // Once the versions diverge, nothing more can be written until one is chosen
+        if (!branchActive)
             super.flush();
     }
 
     @Override
     public void close() throws IOException {
-        if (branchActive) {
-            out.write(trunk.toString());
-            out.close();
-        } else
-            super.close();
+        closeUsing(TRUNK);
     }
 
     public void writeTrunk(String s) {
-        if (!branchActive) {
-            branchActive = true;
-            trunk = new StringWriter();
-            branch = new StringWriter();
-        }
-        trunk.write(s);
+        divergeAndAppend(TRUNK, s);
     }
 
     public void writeBranch(String s) {
+        divergeAndAppend(BRANCH, s);
+    }
+
+    public void closeUsingBranch() throws IOException {
+        closeUsing(BRANCH);
+    }
+
+    /**
+     * Returns true if the diverged data has exceeded the memory limit and is being held in a temporary file.
+     *
+     * @return true if a temporary file is in use
+     */
+    public boolean isSpilled() {
+        return spillPath != null;
+    }
+
+    private void divergeAndAppend(byte kind, String s) {
         if (!branchActive) {
             branchActive = true;
-            trunk = new StringWriter();
-            branch = new StringWriter();
+            log = new char[Math.min(memoryLimit, 8 * 1024)];
+            runKinds = new byte[16];
+            runLengths = new long[16];
+        }
+        try {
+            append(kind, s, 0, s.length());
+        } catch (IOException e) {
+            // writeTrunk() and writeBranch() have never declared IOException
+            throw new UncheckedIOException(e);
         }
-        branch.write(s);
     }
 
-    public void closeUsingBranch() throws IOException {
-        if (branchActive) {
-            out.write(branch.toString());
-            out.close();
-        } else
+    private void append(byte kind, String s, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = reserve(kind, len);
+            s.getChars(off, off + n, log, logLength);
+            logLength += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    private void append(byte kind, char[] cbuf, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = reserve(kind, len);
+            System.arraycopy(cbuf, off, log, logLength, n);
+            logLength += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Make room in the log for up to len chars of the given kind, and account for them in the runs.
+     *
+     * @return the number of chars, at least 1, that the caller must now place in the log
+     */
+    private int reserve(byte kind, int len) throws IOException {
+        if (logLength == log.length) {
+            if (log.length < memoryLimit) {
+                log = Arrays.copyOf(log, Math.min(memoryLimit, log.length * 2));
+            } else {
+                spill();
+            }
+        }
+        int n = Math.min(len, log.length - logLength);
+
+        if (runCount > 0 && runKinds[runCount - 1] == kind) {
+            runLengths[runCount - 1] += n;
+        } else {
+            if (runCount == runKinds.length) {
+                runKinds = Arrays.copyOf(runKinds, runCount * 2);
+                runLengths = Arrays.copyOf(runLengths, runCount * 2);
+            }
+            runKinds[runCount] = kind;
+            runLengths[runCount++] = n;
+        }
+        return n;
+    }
+
+    private void spill() throws IOException {
+        if (spillWriter == null) {
+            spillPath = directory == null ?
+                    Files.createTempFile("edireader", ".ack") :
+                    Files.createTempFile(directory.toPath(), "edireader", ".ack");
+            spillWriter = Files.newBufferedWriter(spillPath, StandardCharsets.UTF_8);
+        }
+        spillWriter.write(log, 0, logLength);
+        logLength = 0;
+    }
+
+    private void closeUsing(byte chosen) throws IOException {
+        if (!branchActive) {
             super.close();
+            return;
+        }
+
+        try {
+            Reader logReader;
+            if (spillWriter != null) {
+                spill();
+                spillWriter.close();
+                spillWriter = null;
+                logReader = Files.newBufferedReader(spillPath, StandardCharsets.UTF_8);
+            } else {
+                logReader = new CharArrayReader(log, 0, logLength);
+            }
+
+            try (Reader reader = logReader) {
+                char[] buffer = new char[8 * 1024];
+                for (int i = 0; i < runCount; i++) {
+                    boolean wanted = runKinds[i] == COMMON || runKinds[i] == chosen;
+                    for (long remaining = runLengths[i]; remaining > 0; ) {
+                        int n = reader.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                        if (n < 0)
+                            throw new IOException("Unexpected end of buffered acknowledgment data");
+                        if (wanted)
+                            out.write(buffer, 0, n);
+                        remaining -= n;
+                    }
+                }
+            }
+            out.close();
+        } finally {
+            branchActive = false;
+            log = null;
+            runCount = 0;
+            if (spillPath != null) {
+                Files.deleteIfExists(spillPath);
+                spillPath = null;
+            }
+        }
     }
 }
@@ -21,76 +21,106 @@
 package com.berryworks.edireader.util;
 
 import com.berryworks.edireader.util.base64.AbstractEncoder;
+import com.berryworks.edireader.util.base64.BulkEncoder;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.SAXException;
 
-import java.nio.Buffer;
-import java.nio.ByteBuffer;
-import java.nio.CharBuffer;
-import java.nio.charset.CharsetEncoder;
-import java.nio.charset.CoderResult;
-
 /**
  * Encode char data using base-64 conventions
  * before presenting that data to a SAX ContentHandler.
  */
 public class ContentHandlerBase64Encoder extends AbstractEncoder {
 
+    // Input is encoded in blocks of this many chars, each producing a full buffer of output
+    private static final int BLOCK_SIZE = 3 * 1024;
+
+    private final BulkEncoder bulkEncoder = new BulkEncoder();
+    private final char[] output = new char[BulkEncoder.encodedLength(BLOCK_SIZE)];
+    private int outputLength;
     private ContentHandler contentHandler;
-    private ByteBuffer base64Bytes;
 
     public void encode(char[] dataObject, ContentHandler contentHandler) {
-        this.contentHandler = contentHandler;
-        CharBuffer charBuffer = CharBuffer.wrap(dataObject);
-
-        // Allocate a modest sized non-direct ByteBuffer to receive the
-        // bytes as they are encoded from the chars
-        ByteBuffer byteBuffer = ByteBuffer.allocate(100);
+        begin(contentHandler);
+        encode(dataObject, 0, dataObject.length);
+        end();
+    }
 
-        // Allocate a similar ByteBuffer to receive the bytes as they are emitted
-        // by the Base 64 encoder.
-        base64Bytes = ByteBuffer.allocate(100);
+    /**
+     * Prepare to encode a data object that is presented in a series of chunks
+     * with encode(char[], int, int) and concluded with end().
+     *
+     * @param contentHandler to receive the encoded data as characters()
+     */
+    public void begin(ContentHandler contentHandler) {
+        this.contentHandler = contentHandler;
+        outputLength = 0;
+        bulkEncoder.reset();
+        reset();
+    }
 
-        // Use an encoder repeatedly until all the chars have been encoded as bytes
-        // and presented as input for base 64 encoding.
-        CharsetEncoder encoder = charset.newEncoder();
-        while (true) {
-            CoderResult coderResult = encoder.encode(charBuffer, byteBuffer, true);
-            if (coderResult.isError())
+    /**
+     * Encode the next chunk of a data object. Each char is treated as one 8-bit byte of data.
+     *
+     * @param chars  array containing the chunk
+     * @param start  index of the first char of the chunk
+     * @param length number of chars in the chunk
+     */
+    public void encode(char[] chars, int start, int length) {
+        while (length > 0) {
+            int n = Math.min(length, BLOCK_SIZE);
+            if (output.length - outputLength < BulkEncoder.encodedLength(n)) {
+                feedContentHandler();
+            }
+            try {
+                outputLength += bulkEncoder.encode(chars, start, n, output, outputLength);
+            } catch (IllegalArgumentException e) {
                 throw new RuntimeException("Unrecoverable failure in Base64 encoding");
-            ((Buffer) byteBuffer).flip();
-            while (byteBuffer.hasRemaining())
-                consume(byteBuffer.get());
-            if (coderResult.isUnderflow()) break;
-            ((Buffer) byteBuffer).clear();
+            }
+            start += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * Complete the encoding of a data object, passing any remaining characters to the ContentHandler.
+     */
+    public void end() {
+        if (output.length - outputLength < 4) {
+            feedContentHandler();
         }
-        endOfData();
+        outputLength += bulkEncoder.finish(output, outputLength);
         feedContentHandler();
     }
 
     @Override
     protected void emit(byte b) {
-
-        if (!base64Bytes.hasRemaining()) {
-            // Whenever the ByteBuffer gets full, use the CharSetEncoder
-            // to turn the bytes into chars in a CharBuffer.
-            // Whenever the CharBuffer gets full, give those chars
-            // to the SAX ContentHandler.
+        if (outputLength == output.length) {
             feedContentHandler();
-            ((Buffer) base64Bytes).clear();
         }
-        // Put the byte into a byteBuffer.
-        base64Bytes.put(b);
+        output[outputLength++] = (char) (b & 0xFF);
+    }
+
+    @Override
+    protected void emit(char[] chars, int start, int length) {
+        while (length > 0) {
+            if (outputLength == output.length) {
+                feedContentHandler();
+            }
+            int n = Math.min(length, output.length - outputLength);
+            System.arraycopy(chars, start, output, outputLength, n);
+            outputLength += n;
+            start += n;
+            length -= n;
+        }
     }
 
     private void feedContentHandler() {
-        ((Buffer) base64Bytes).flip();
-        CharBuffer charBuffer = charset.decode(base64Bytes);
         try {
-            contentHandler.characters(charBuffer.array(), 0, charBuffer.length());
+            contentHandler.characters(output, 0, outputLength);
         } catch (SAXException e) {
             throw new RuntimeException("Unrecoverable failure in Base64 encoding");
         }
+        outputLength = 0;
     }
 
 }
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2005-2026 by BerryWorks Software, LLC. All rights reserved.
+ *
+ * This file is part of EDIReader. You may obtain a license for its use directly from
+ * BerryWorks Software, and you may also choose to use this software under the terms of the
+ * GPL version 3. Other products in the EDIReader software suite are available only by licensing
+ * with BerryWorks. Only those files bearing the GPL statement below are available under the GPL.
+ *
+ * EDIReader is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * EDIReader is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with EDIReader.  If not,
+ * see <http://www.gnu.org/licenses/>.
+ */
+
+package com.berryworks.edireader.util;
+
+import com.berryworks.edireader.EDIReader;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import javax.xml.transform.Result;
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Transforms EDI input with XSLT stylesheets, compiling each stylesheet only once.
+ * <p>
+ * A stylesheet is compiled into a Templates object the first time it is used and kept in a cache
+ * keyed by its absolute path. If the file's modification time changes, it is compiled again on its next use.
+ * Templates are thread-safe, so one EDITransformer can serve any number of threads, each transform
+ * getting its own TransformerHandler. EDIReader sends its SAX events directly into the TransformerHandler,
+ * so no XML text or DOM tree is produced along the way.
+ * <p>
+ * transformAll() applies one stylesheet to many EDI files in parallel.
+ */
+public class EDITransformer {
+    private final SAXTransformerFactory factory;
+    private final Map<Path, CompiledStylesheet> cache = new ConcurrentHashMap<>();
+
+    public EDITransformer() {
+        this(TransformerFactory.newInstance());
+    }
+
+    public EDITransformer(TransformerFactory transformerFactory) {
+        if (!transformerFactory.getFeature(SAXTransformerFactory.FEATURE))
+            throw new IllegalArgumentException("TransformerFactory " + transformerFactory.getClass().getName() +
+                    " does not support SAXTransformerFactory");
+        factory = (SAXTransformerFactory) transformerFactory;
+    }
+
+    /**
+     * Returns the compiled form of a stylesheet, compiling it if it has not been seen before or has been modified.
+     *
+     * @param stylesheet path to an XSLT stylesheet
+     * @return Templates for the stylesheet
+     * @throws IOException                       if the stylesheet cannot be accessed
+     * @throws TransformerConfigurationException if the stylesheet cannot be compiled
+     */
+    public Templates getTemplates(Path stylesheet) throws IOException, TransformerConfigurationException {
+        Path key = stylesheet.toAbsolutePath().normalize();
+        long lastModified = Files.getLastModifiedTime(key).toMillis();
+        CompiledStylesheet compiled = cache.get(key);
+        if (compiled != null && compiled.lastModified == lastModified)
+            return compiled.templates;
+
+        // A TransformerFactory is not required to be thread-safe
+        synchronized (factory) {
+            compiled = cache.get(key);
+            if (compiled == null || compiled.lastModified != lastModified) {
+                compiled = new CompiledStylesheet(factory.newTemplates(new StreamSource(key.toFile())), lastModified);
+                cache.put(key, compiled);
+            }
+        }
+        return compiled.templates;
+    }
+
+    /**
+     * Parse EDI input and transform it with a stylesheet.
+     *
+     * @param input      EDI input
+     * @param stylesheet path to an XSLT stylesheet
+     * @param result     destination of the transformed output
+     * @throws IOException                       if the input or stylesheet cannot be read
+     * @throws SAXException                      if the EDI cannot be parsed or the transform fails
+     * @throws TransformerConfigurationException if the stylesheet cannot be compiled
+     */
+    public void transform(InputSource input, Path stylesheet, Result result)
+            throws IOException, SAXException, TransformerConfigurationException {
+        TransformerHandler transformerHandler = newTransformerHandler(getTemplates(stylesheet));
+        transformerHandler.setResult(result);
+
+        EDIReader ediReader = new EDIReader();
+        ediReader.setContentHandler(transformerHandler);
+        ediReader.parse(input);
+    }
+
+    /**
+     * Transform each of a number of EDI files with the same stylesheet, using several threads.
+     * Every file is attempted even if some fail.
+     *
+     * @param inputs     EDI files
+     * @param stylesheet path to an XSLT stylesheet
+     * @param outputFor  names the output file for each input file
+     * @param threads    maximum number of files to transform at the same time
+     * @return the output files, in the order of the inputs
+     * @throws IOException                       if any of the transforms failed; the first is thrown and the others are
+     *                                           added to it as suppressed exceptions
+     * @throws TransformerConfigurationException if the stylesheet cannot be compiled
+     */
+    public List<Path> transformAll(Collection<Path> inputs, Path stylesheet, Function<Path, Path> outputFor, int threads)
+            throws IOException, TransformerConfigurationException {
+        // Compile the stylesheet once, up front, so that a bad stylesheet fails fast
+        getTemplates(stylesheet);
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, inputs.size())));
+        try {
+            List<Future<Path>> futures = new ArrayList<>(inputs.size());
+            for (Path input : inputs) {
+                futures.add(executor.submit(() -> transformFile(input, stylesheet, outputFor.apply(input))));
+            }
+
+            List<Path> outputs = new ArrayList<>(inputs.size());
+            IOException failure = null;
+            int i = 0;
+            for (Path input : inputs) {
+                try {
+                    outputs.add(futures.get(i++).get());
+                } catch (ExecutionException e) {
+                    IOException inputFailure = new IOException("Unable to transform " + input, e.getCause());
+                    if (failure == null)
+                        failure = inputFailure;
+                    else
+                        failure.addSuppressed(inputFailure);
+                }
+            }
+            if (failure != null)
+                throw failure;
+            return outputs;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while transforming EDI files");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Discard all compiled stylesheets.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    private Path transformFile(Path input, Path stylesheet, Path output)
+            throws IOException, SAXException, TransformerConfigurationException {
+        try (InputStream inputStream = Files.newInputStream(input);
+             OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(output))) {
+            transform(new InputSource(inputStream), stylesheet, new StreamResult(outputStream));
+        }
+        return output;
+    }
+
+    private TransformerHandler newTransformerHandler(Templates templates) throws TransformerConfigurationException {
+        synchronized (factory) {
+            return factory.newTransformerHandler(templates);
+        }
+    }
+
+    private static class CompiledStylesheet {
+        final Templates templates;
+        final long lastModified;
+
+        CompiledStylesheet(Templates templates, long lastModified) {
+            this.templates = templates;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -1,17 +1,17 @@
 package com.berryworks.edireader.util;
 
-import com.berryworks.edireader.EDIReader;
-import com.berryworks.edireader.EDIStandard;
-import com.berryworks.edireader.EDISyntaxException;
+import com.berryworks.edireader.*;
+import com.berryworks.edireader.plugin.PluginControllerFactoryInterface;
 import com.berryworks.edireader.tokenizer.Tokenizer;
 import com.berryworks.edireader.util.sax.EDIReaderSAXAdapter;
 import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
 import java.io.*;
+import java.util.Arrays;
 
 import static com.berryworks.edireader.EDIStandard.*;
-import static com.berryworks.edireader.util.FixedLength.isPresent;
 
 /**
  * Utility for probing EDI input to extract high-level metadata without fully parsing the document.
@@ -26,10 +26,36 @@ import static com.berryworks.edireader.util.FixedLength.isPresent;
  *     <li>Delimiter characters</li>
  * </ul>
  * <p>
- * Parsing is intentionally terminated early once sufficient information is gathered,
- * making this suitable for lightweight inspection or routing decisions.
+ * Parsing is intentionally terminated early once sufficient information is gathered, using the
+ * EDIReader's ParseControl, making this suitable for lightweight inspection or routing decisions.
  */
 public class EdiProber {
+    /**
+     * Number of characters read ahead to select a parser. This is enough to hold the envelope segments
+     * of nearly any interchange, and within the buffer size of the tokenizer to which they are handed.
+     */
+    public static final int HEADER_LENGTH = 512;
+
+    // Plugins do not contribute anything to a probe
+    private static final PluginControllerFactoryInterface NO_PLUGINS = new PluginControllerFactoryInterface() {
+        private final PluginController disabled = new PluginController();
+
+        @Override
+        public PluginController create(String standard, String docType, Tokenizer tokenizer) {
+            return disabled;
+        }
+
+        @Override
+        public PluginController create(String standard, String docType, String docVersion, String docRelease, Tokenizer tokenizer) {
+            return disabled;
+        }
+
+        @Override
+        public PluginController getLastControllerCreated() {
+            return disabled;
+        }
+    };
+
     private EDIStandard standard;
     private String documentType;
     private String version;
@@ -65,7 +91,10 @@ public class EdiProber {
     /**
      * Probe an EDI document from a Reader.
      * <p>
-     * This method performs a partial parse and stops early once key metadata is extracted.
+     * The first few hundred characters are read and examined to select a parser, which reads the
+     * envelope segments and is stopped by way of its ParseControl at the first transaction or message.
+     * Plugins are not loaded, and nothing beyond the first transaction header is read unless the
+     * header segments are unusually long.
      * After invocation, getter methods can be used to retrieve the discovered values.
      *
      * @param reader the source of EDI data
@@ -73,43 +102,66 @@ public class EdiProber {
      * @throws SAXException if a parsing error occurs
      */
     public void probe(Reader reader) throws IOException, SAXException {
-        EDIReader ediReader = new EDIReader();
-        ProbeHandler handler = new ProbeHandler();
+        clear();
+
+        char[] header = readHeader(reader);
+        int start = 0;
+        while (start < header.length && Character.isWhitespace(header[start])) start++;
+        if (header.length - start >= 3) {
+            // Recognize the standards that do not have a parser in this package
+            // without creating one only to have it reject the input.
+            String firstChars = new String(header, start, 3);
+            EDIStandard unsupported = "STX".equals(firstChars) ? TRADACOMS : "MSH".equals(firstChars) ? HL7 : null;
+            if (unsupported != null && ParserRegistry.get(firstChars) == null) {
+                standard = unsupported;
+                return;
+            }
+        }
+
+        InputSource source = new InputSource(reader);
+        EDIReader ediReader = EDIReaderFactory.createEDIReader(source, header);
+        if (ediReader == null) {
+            // Nothing but whitespace
+            return;
+        }
+        ProbeHandler handler = new ProbeHandler(ediReader.getParseControl());
         ediReader.setContentHandler(handler);
         ediReader.setSyntaxExceptionHandler(e -> true);
+        ediReader.setPluginControllerFactory(NO_PLUGINS);
+        ediReader.parse(source);
+
+        standard = handler.getStandard();
+        senderId = handler.senderId;
+        senderQualifier = handler.senderQualifier;
+        receiverId = handler.receiverId;
+        receiverQualifier = handler.receiverQualifier;
+        version = handler.getVersion();
+        documentType = handler.getDocumentType();
+        interchangeControl = handler.getInterchangeControl();
+        functionalGroupControl = handler.getFunctionalGroupControl();
+        documentControl = handler.getDocumentControl();
+        tokenizer = ediReader.getTokenizer();
+        terminatorSuffix = ediReader.getTerminatorSuffix();
+    }
 
-        try {
-            ediReader.parse(reader);
-        } catch (RuntimeException e) {
-            if (e.getMessage().equals(ProbeHandler.STOP_PARSING)) {
-                standard = handler.getStandard();
-                senderId = handler.senderId;
-                senderQualifier = handler.senderQualifier;
-                receiverId = handler.receiverId;
-                receiverQualifier = handler.receiverQualifier;
-                version = handler.getVersion();
-                documentType = handler.getDocumentType();
-                interchangeControl = handler.getInterchangeControl();
-                functionalGroupControl = handler.getFunctionalGroupControl();
-                documentControl = handler.getDocumentControl();
-                tokenizer = ediReader.getTokenizer();
-                terminatorSuffix = ediReader.getTerminatorSuffix();
-                return;
-            }
-            throw e;
-        } catch (EDISyntaxException e) {
-            String message = e.getMessage();
-            if (isPresent(message) && message.startsWith("No supported EDI standard")) {
-                if (message.endsWith("STX")) {
-                    standard = TRADACOMS;
-                    return;
-                } else if (message.endsWith("MSH")) {
-                    standard = HL7;
-                    return;
-                }
-            }
-            throw e;
+    private static char[] readHeader(Reader reader) throws IOException {
+        char[] buf = new char[HEADER_LENGTH];
+        int n = 0;
+        while (n < buf.length) {
+            int count = reader.read(buf, n, buf.length - n);
+            if (count < 0) break;
+            n += count;
         }
+        return n == buf.length ? buf : Arrays.copyOf(buf, n);
+    }
+
+    private void clear() {
+        standard = null;
+        documentType = version = null;
+        tokenizer = null;
+        terminatorSuffix = null;
+        interchangeControl = functionalGroupControl = documentControl = null;
+        senderId = senderQualifier = receiverId = receiverQualifier = null;
     }
 
     /**
@@ -231,12 +283,15 @@ public class EdiProber {
     }
 
     private static class ProbeHandler extends EDIReaderSAXAdapter {
-        public static final String STOP_PARSING = "StopParsing";
+        private final ParseControl parseControl;
         private EDIStandard standard;
         private String version, documentType;
         private String interchangeControl, functionalGroupControl, documentControl;
         private String senderId, senderQualifier, receiverId, receiverQualifier;
 
+        ProbeHandler(ParseControl parseControl) {
+            this.parseControl = parseControl;
+        }
 
         @Override
         protected void beginInterchange(int charCount, int segmentCharCount, Attributes attributes) {
@@ -247,7 +302,7 @@ public class EdiProber {
                 // In HL7 we get the version and document type from the MSH header
                 version = attributes.getValue("SyntaxVersion");
                 documentType = attributes.getValue("Type");
-                throw new RuntimeException(STOP_PARSING);
+                parseControl.stop();
             } else if (standard == TRADACOMS) {
                 version = attributes.getValue("SyntaxVersion");
             }
@@ -280,12 +335,12 @@ public class EdiProber {
                 // The version comes from the document-level UNT envelope.
                 version = attributes.getValue("Release");
             }
-            throw new RuntimeException(STOP_PARSING);
+            parseControl.stop();
         }
 
         @Override
         protected void beginAnotherSegment(Attributes atts) {
-            throw new RuntimeException(STOP_PARSING);
+            parseControl.stop();
         }
 
         private EDIStandard getStandard() {
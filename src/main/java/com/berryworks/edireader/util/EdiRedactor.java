@@ -0,0 +1,343 @@
+/*
+ * Copyright 2005-2026 by BerryWorks Software, LLC. All rights reserved.
+ *
+ * This file is part of EDIReader. You may obtain a license for its use directly from
+ * BerryWorks Software, and you may also choose to use this software under the terms of the
+ * GPL version 3. Other products in the EDIReader software suite are available only by licensing
+ * with BerryWorks. Only those files bearing the GPL statement below are available under the GPL.
+ *
+ * EDIReader is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * EDIReader is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with EDIReader.  If not,
+ * see <http://www.gnu.org/licenses/>.
+ */
+
+package com.berryworks.edireader.util;
+
+import com.berryworks.edireader.EDISyntaxException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Copies EDI from a Reader to a Writer, replacing the data in selected elements with a mask character.
+ * <p>
+ * The elements to be masked are designated by element id, such as NM103 for the third element of an NM1 segment,
+ * or by segment tag alone, such as N3, to mask every element of the segment. Each character of a masked element,
+ * including any sub-element delimiters and release characters within it, is replaced by one mask character,
+ * so the redacted output has exactly the same length, segments, and delimiters as the input, and any
+ * segment counts or fixed-length fields remain valid. Segment tags are never masked.
+ * <p>
+ * The delimiters are taken from each ISA, UNA, or UNB segment as it is encountered, so input containing
+ * several interchanges, with different delimiters, is handled correctly. The input is processed in place in
+ * a fixed-size char buffer in a single pass, so memory use does not depend on the size of the input.
+ * The elements to be masked are fixed when the EdiRedactor is constructed. Since redact() does not modify
+ * the EdiRedactor, it may be shared by threads once its mask character and buffer size are set.
+ */
+public final class EdiRedactor {
+    public static final char DEFAULT_MASK_CHARACTER = 'X';
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final int ISA_LENGTH = 106;
+    private static final int MAXIMUM_TAG_LENGTH = 8;
+
+    private final List<String> tags = new ArrayList<>();
+    // For each tag, the masked element positions, with position 0 meaning every element of the segment
+    private final List<boolean[]> positions = new ArrayList<>();
+    private char maskCharacter = DEFAULT_MASK_CHARACTER;
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+    /**
+     * @param ids element ids, such as NM103, or segment tags, such as N3, designating what is to be masked
+     */
+    public EdiRedactor(String... ids) {
+        for (String id : ids) {
+            addMask(id);
+        }
+    }
+
+    private void addMask(String id) {
+        String tag = id;
+        int position = 0;
+        int length = id.length();
+        if (length >= 4 && Character.isDigit(id.charAt(length - 1)) && Character.isDigit(id.charAt(length - 2))) {
+            tag = id.substring(0, length - 2);
+            position = Integer.parseInt(id.substring(length - 2));
+        }
+
+        int index = tags.indexOf(tag);
+        if (index < 0) {
+            tags.add(tag);
+            positions.add(new boolean[position + 1]);
+            index = tags.size() - 1;
+        } else if (positions.get(index).length <= position) {
+            positions.set(index, Arrays.copyOf(positions.get(index), position + 1));
+        }
+        positions.get(index)[position] = true;
+    }
+
+    public char getMaskCharacter() {
+        return maskCharacter;
+    }
+
+    public void setMaskCharacter(char maskCharacter) {
+        this.maskCharacter = maskCharacter;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = Math.max(bufferSize, 2 * ISA_LENGTH);
+    }
+
+    /**
+     * Copy EDI from a Reader to a Writer, masking the designated elements.
+     * The Writer is flushed, but not closed.
+     *
+     * @param input  source of EDI
+     * @param output destination of the redacted EDI
+     * @return number of elements masked
+     * @throws IOException         if the input cannot be read or the output written
+     * @throws EDISyntaxException  if a segment appears before the delimiters are known
+     */
+    public long redact(Reader input, Writer output) throws IOException, EDISyntaxException {
+        Redaction redaction = new Redaction(input, output);
+        redaction.run();
+        output.flush();
+        return redaction.maskedElements;
+    }
+
+    /**
+     * Returns a copy of EDI text with the designated elements masked.
+     *
+     * @param edi EDI text
+     * @return redacted EDI text
+     * @throws EDISyntaxException if a segment appears before the delimiters are known
+     */
+    public String redact(String edi) throws EDISyntaxException {
+        StringWriter writer = new StringWriter(edi.length());
+        try {
+            redact(new StringReader(edi), writer);
+        } catch (IOException e) {
+            // Not expected with a StringReader and StringWriter
+            throw new RuntimeException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * The state of one pass over the input.
+     */
+    private class Redaction {
+        private final Reader input;
+        private final Writer output;
+        private final char[] buffer = new char[bufferSize];
+        // buffer[0, written) has been written, buffer[written, position) has been processed, and
+        // buffer[position, limit) has been read but not yet processed
+        private int written, position, limit;
+        private boolean endOfInput;
+
+        private int delimiter = -1, subDelimiter = -1, repetitionSeparator = -1, release = -1, terminator = -1;
+        private boolean unaSeen;
+        private int segmentCount;
+        private long maskedElements;
+
+        Redaction(Reader input, Writer output) {
+            this.input = input;
+            this.output = output;
+        }
+
+        void run() throws IOException, EDISyntaxException {
+            while (ensure(1)) {
+                // Between segments: pass over any line breaks or other white space
+                char c = buffer[position];
+                if (c <= ' ') {
+                    position++;
+                    continue;
+                }
+                segmentCount++;
+                if (recognizeDelimiters())
+                    // A UNA has no elements to be masked, and the UNB that follows it must still be recognized
+                    continue;
+                if (delimiter < 0)
+                    throw new EDISyntaxException("Unable to determine delimiters for redaction; " +
+                            "input must begin with ISA, UNA, or UNB", segmentCount);
+                segment();
+            }
+            flushProcessed();
+        }
+
+        /**
+         * Note the delimiters established by an ISA, UNA, or UNB at the current position.
+         *
+         * @return true if a UNA was recognized and passed over
+         */
+        private boolean recognizeDelimiters() throws IOException {
+            if (startsWith("ISA") && ensure(ISA_LENGTH)) {
+                delimiter = buffer[position + 3];
+                repetitionSeparator = buffer[position + 82];
+                if (Character.isLetterOrDigit(repetitionSeparator) || repetitionSeparator == delimiter)
+                    repetitionSeparator = -1;
+                subDelimiter = buffer[position + 104];
+                terminator = buffer[position + 105];
+                release = -1;
+            } else if (startsWith("UNA") && ensure(9)) {
+                subDelimiter = buffer[position + 3];
+                delimiter = buffer[position + 4];
+                release = buffer[position + 6] == ' ' ? -1 : buffer[position + 6];
+                repetitionSeparator = buffer[position + 7] == ' ' ? -1 : buffer[position + 7];
+                terminator = buffer[position + 8];
+                unaSeen = true;
+                position += 9;
+                return true;
+            } else if (startsWith("UNB")) {
+                if (!unaSeen) {
+                    subDelimiter = ':';
+                    delimiter = '+';
+                    release = '?';
+                    repetitionSeparator = -1;
+                    terminator = '\'';
+                }
+                unaSeen = false;
+            }
+            return false;
+        }
+
+        private boolean startsWith(String tag) throws IOException {
+            if (!ensure(tag.length())) return false;
+            for (int i = 0; i < tag.length(); i++) {
+                if (buffer[position + i] != tag.charAt(i)) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Process one segment, beginning with its tag and ending with its terminator.
+         */
+        private void segment() throws IOException, EDISyntaxException {
+            if (!ensure(1)) return;
+            if (buffer[position] <= ' ') return;
+
+            // The tag
+            int tagStart = position;
+            int tagLength = 0;
+            while (ensure(1)) {
+                char c = buffer[position];
+                if (c == delimiter || c == terminator) break;
+                position++;
+                if (++tagLength > MAXIMUM_TAG_LENGTH)
+                    throw new EDISyntaxException("Segment tag longer than " + MAXIMUM_TAG_LENGTH +
+                            " characters; delimiter or terminator not found", segmentCount);
+                if (position == limit) {
+                    // A tag split across reads is moved to the front of the buffer so it can be compared as a whole
+                    position = tagStart;
+                    boolean more = ensure(tagLength + 1);
+                    tagStart = position;
+                    position += tagLength;
+                    if (!more) return;
+                }
+            }
+            boolean[] masked = lookup(tagStart, tagLength);
+            // BIN and UNO carry binary data whose length is given by their first element
+            boolean bin = tagEquals(tagStart, tagLength, "BIN");
+            boolean uno = !bin && tagEquals(tagStart, tagLength, "UNO");
+
+            int element = 0;
+            int length = 0;
+            boolean masking = false;
+            boolean released = false;
+            while (ensure(1)) {
+                char c = buffer[position];
+                if (released) {
+                    released = false;
+                    if (masking) buffer[position] = maskCharacter;
+                } else if (c == terminator) {
+                    position++;
+                    if (uno) skipBinary(length);
+                    return;
+                } else if (c == delimiter) {
+                    element++;
+                    if (bin && element == 2) {
+                        position++;
+                        skipBinary(length);
+                        bin = false;
+                        continue;
+                    }
+                    masking = masked != null &&
+                            (masked[0] || (element < masked.length && masked[element]));
+                    if (masking) maskedElements++;
+                } else {
+                    if (c == release) released = true;
+                    if (element == 1 && (bin || uno) && c >= '0' && c <= '9') length = 10 * length + (c - '0');
+                    if (masking) buffer[position] = maskCharacter;
+                }
+                position++;
+            }
+        }
+
+        /**
+         * Pass over count chars of binary data, leaving them unchanged.
+         */
+        private void skipBinary(int count) throws IOException {
+            while (count > 0 && ensure(1)) {
+                int n = Math.min(count, limit - position);
+                position += n;
+                count -= n;
+            }
+        }
+
+        private boolean[] lookup(int tagStart, int tagLength) {
+            for (int i = 0; i < tags.size(); i++) {
+                if (tagEquals(tagStart, tagLength, tags.get(i))) return positions.get(i);
+            }
+            return null;
+        }
+
+        private boolean tagEquals(int tagStart, int tagLength, String tag) {
+            if (tag.length() != tagLength) return false;
+            int j = 0;
+            while (j < tagLength && buffer[tagStart + j] == tag.charAt(j)) j++;
+            return j == tagLength;
+        }
+
+        /**
+         * Ensure that at least count unprocessed chars are in the buffer, unless the input ends first.
+         */
+        private boolean ensure(int count) throws IOException {
+            if (limit - position >= count) return true;
+            if (count > buffer.length)
+                throw new IllegalArgumentException("Cannot buffer " + count + " chars in a buffer of " + buffer.length);
+            if (endOfInput) return false;
+
+            flushProcessed();
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            written = position = 0;
+            while (limit < count) {
+                int n = input.read(buffer, limit, buffer.length - limit);
+                if (n < 0) {
+                    endOfInput = true;
+                    return false;
+                }
+                limit += n;
+            }
+            return true;
+        }
+
+        private void flushProcessed() throws IOException {
+            if (position > written) {
+                output.write(buffer, written, position - written);
+                written = position;
+            }
+        }
+    }
+}
@@ -1,5 +1,11 @@
 package com.berryworks.edireader.util;
 
+import com.berryworks.edireader.EDISyntaxException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
 /**
  * A device used in testing to help compare an expected result with an actual result, disregarding specific
  * character sequences marked in the mask by a span of 4 or more '?'.
@@ -7,6 +13,9 @@ package com.berryworks.edireader.util;
  * Date/time generated fields are an example of where this comes in handy. This class is placed here so that it can
  * be easily accessed from a number of test environments. Since it is small and stand-alone, it is harmless to include
  * even though not expected to ever be used in a production scenario.
+ * <p>
+ * To mask selected elements of EDI input of any size, for example to redact personal data from production
+ * files before using them as test fixtures, see EdiRedactor.
  */
 public abstract class MaskingTool {
 
@@ -58,6 +67,21 @@ public abstract class MaskingTool {
         return sb.toString();
     }
 
+    /**
+     * Copy EDI from a Reader to a Writer, streaming, with the designated elements masked.
+     *
+     * @param input  source of EDI
+     * @param output destination of the redacted EDI
+     * @param ids    element ids, such as NM103, or segment tags, such as N3
+     * @return number of elements masked
+     * @throws IOException        if the input cannot be read or the output written
+     * @throws EDISyntaxException if the delimiters cannot be determined
+     * @see EdiRedactor
+     */
+    public static long mask(Reader input, Writer output, String... ids) throws IOException, EDISyntaxException {
+        return new EdiRedactor(ids).redact(input, output);
+    }
+
     public static String normalizeEol(String s) {
         return s.replace("\r\n", "\n")
                 .replace("\r", "\n");
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2005-2026 by BerryWorks Software, LLC. All rights reserved.
+ *
+ * This file is part of EDIReader. You may obtain a license for its use directly from
+ * BerryWorks Software, and you may also choose to use this software under the terms of the
+ * GPL version 3. Other products in the EDIReader software suite are available only by licensing
+ * with BerryWorks. Only those files bearing the GPL statement below are available under the GPL.
+ *
+ * EDIReader is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * EDIReader is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with EDIReader.  If not,
+ * see <http://www.gnu.org/licenses/>.
+ */
+
+package com.berryworks.edireader.util;
+
+import com.berryworks.edireader.ParseMetricsSink;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A ParseMetricsSink that accumulates parse measurements in memory, by segment tag, loop name, and document type.
+ * <p>
+ * It is thread-safe, so one registry can be shared by every EDIReader in an application, and it can be
+ * published as an MXBean with register() for viewing in a JMX console.
+ */
+public class ParseMetricsRegistry implements ParseMetricsSink, ParseMetricsRegistryMXBean {
+
+    private final Map<String, SegmentStatistics> segments = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> loopTransitions = new ConcurrentHashMap<>();
+    private final AtomicInteger maxLoopDepth = new AtomicInteger();
+    private final Map<String, TransactionStatistics> transactions = new ConcurrentHashMap<>();
+
+    @Override
+    public void segment(String segmentType, int elementCount, int charCount) {
+        SegmentStatistics statistics = segments.computeIfAbsent(segmentType, k -> new SegmentStatistics());
+        statistics.count.increment();
+        statistics.elements.add(elementCount);
+        statistics.chars.add(charCount);
+    }
+
+    @Override
+    public void loopTransition(String loopName, int nestingLevel, int loopsClosed) {
+        loopTransitions.computeIfAbsent(loopName, k -> new LongAdder()).increment();
+        maxLoopDepth.accumulateAndGet(nestingLevel, Math::max);
+    }
+
+    @Override
+    public void transaction(String documentType, String controlNumber, int segmentCount, long nanos) {
+        TransactionStatistics statistics = transactions.computeIfAbsent(documentType, k -> new TransactionStatistics());
+        statistics.count.increment();
+        statistics.nanos.add(nanos);
+        statistics.maxNanos.accumulate(nanos);
+    }
+
+    @Override
+    public Map<String, Long> getSegmentCounts() {
+        return snapshot(segments, s -> s.count.sum());
+    }
+
+    @Override
+    public Map<String, Long> getElementCounts() {
+        return snapshot(segments, s -> s.elements.sum());
+    }
+
+    @Override
+    public Map<String, Long> getCharCounts() {
+        return snapshot(segments, s -> s.chars.sum());
+    }
+
+    @Override
+    public Map<String, Long> getLoopTransitionCounts() {
+        return snapshot(loopTransitions, LongAdder::sum);
+    }
+
+    @Override
+    public int getMaxLoopDepth() {
+        return maxLoopDepth.get();
+    }
+
+    @Override
+    public Map<String, Long> getTransactionCounts() {
+        return snapshot(transactions, t -> t.count.sum());
+    }
+
+    @Override
+    public Map<String, Long> getTransactionNanos() {
+        return snapshot(transactions, t -> t.nanos.sum());
+    }
+
+    @Override
+    public Map<String, Long> getMaxTransactionNanos() {
+        return snapshot(transactions, t -> t.maxNanos.get());
+    }
+
+    @Override
+    public void reset() {
+        segments.clear();
+        loopTransitions.clear();
+        maxLoopDepth.set(0);
+        transactions.clear();
+    }
+
+    /**
+     * Publish this registry as an MXBean on the platform MBeanServer.
+     *
+     * @param name distinguishes this registry from others in the same JVM
+     * @return the ObjectName under which it was registered
+     * @throws JMException if it cannot be registered
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName("com.berryworks.edireader:type=ParseMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ParseMetrics");
+        Map<String, Long> counts = getSegmentCounts();
+        Map<String, Long> elements = getElementCounts();
+        Map<String, Long> chars = getCharCounts();
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            sb.append("\n  segment ").append(entry.getKey())
+                    .append(": count=").append(entry.getValue())
+                    .append(" elements=").append(elements.get(entry.getKey()))
+                    .append(" chars=").append(chars.get(entry.getKey()));
+        }
+        for (Map.Entry<String, Long> entry : getLoopTransitionCounts().entrySet()) {
+            sb.append("\n  loop ").append(entry.getKey()).append(": transitions=").append(entry.getValue());
+        }
+        sb.append("\n  max loop depth: ").append(getMaxLoopDepth());
+        Map<String, Long> nanos = getTransactionNanos();
+        Map<String, Long> maxNanos = getMaxTransactionNanos();
+        for (Map.Entry<String, Long> entry : getTransactionCounts().entrySet()) {
+            sb.append("\n  transaction ").append(entry.getKey())
+                    .append(": count=").append(entry.getValue())
+                    .append(" totalMicros=").append(nanos.get(entry.getKey()) / 1000)
+                    .append(" maxMicros=").append(maxNanos.get(entry.getKey()) / 1000);
+        }
+        return sb.toString();
+    }
+
+    private static <T> Map<String, Long> snapshot(Map<String, T> map, Function<T, Long> value) {
+        Map<String, Long> result = new TreeMap<>();
+        map.forEach((key, statistics) -> result.put(key, value.apply(statistics)));
+        return result;
+    }
+
+    private static class SegmentStatistics {
+        final LongAdder count = new LongAdder();
+        final LongAdder elements = new LongAdder();
+        final LongAdder chars = new LongAdder();
+    }
+
+    private static class TransactionStatistics {
+        final LongAdder count = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    }
+}
@@ -22,6 +22,7 @@ package com.berryworks.edireader.util;
 
 import com.berryworks.edireader.EDIReader;
 import com.berryworks.edireader.EDIReaderFactory;
+import com.berryworks.edireader.tokenizer.Tokenizer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.Attributes;
@@ -55,8 +56,8 @@ public class Splitter {
     }
 
     public void split(InputSource inputSource) throws IOException, SAXException {
-        char[] leftOver = null;
-        while ((parser = EDIReaderFactory.createEDIReader(inputSource, leftOver)) != null) {
+        Tokenizer tokenizer = null;
+        while ((parser = EDIReaderFactory.createNextEDIReader(inputSource, tokenizer)) != null) {
             String outputFilename = handlerFactory.generateName();
             logger.info("EDI interchange written to {}", outputFilename);
             parser.setContentHandler(new ScanningHandler());
@@ -64,7 +65,7 @@ public class Splitter {
                 parser.setCopyWriter(writer);
                 parser.parse(inputSource);
             }
-            leftOver = parser.getTokenizer().getBuffered();
+            tokenizer = parser.getTokenizer();
         }
     }
 
@@ -102,6 +103,8 @@ public class Splitter {
         @Override
         public void startElement(String namespace, String localName,
                                  String qName, Attributes atts) throws SAXException {
+            if (!logger.isDebugEnabled())
+                return;
             String indent;
             if (localName.startsWith(parser.getXMLTags().getInterchangeTag())) {
                 indent = "   ";
@@ -22,7 +22,6 @@ package com.berryworks.edireader.util.base64;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.CharBuffer;
 
 /**
  * Decodes a sequence of base-64 encoded bytes into an
@@ -75,17 +74,13 @@ public abstract class AbstractDecoder extends AbstractEncoderDecoder {
      */
     public void decode(InputStream inputStream) throws IOException {
         reset();
+        BulkDecoder bulkDecoder = new BulkDecoder();
         byte[] buffer = new byte[BUFFER_SIZE];
+        byte[] decoded = new byte[BulkDecoder.decodedLength(BUFFER_SIZE)];
 
-        while (true) {
-            int n = inputStream.read(buffer);
-
-            if (n < 0) {
-                endOfData();
-                break;
-            } else if (n > 0)
-                for (int i = 0; i < n; i++)
-                    consume(buffer[i]);
+        int n;
+        while ((n = inputStream.read(buffer)) >= 0) {
+            emit(decoded, 0, bulkDecoder.decode(buffer, 0, n, decoded, 0));
         }
     }
 
@@ -97,13 +92,30 @@ public abstract class AbstractDecoder extends AbstractEncoderDecoder {
      */
     public void decode(byte[] bytes) {
         reset();
-        for (byte aByte : bytes) consume(aByte);
-        endOfData();
+        byte[] decoded = new byte[BulkDecoder.decodedLength(bytes.length)];
+        emit(decoded, 0, new BulkDecoder().decode(bytes, 0, bytes.length, decoded, 0));
     }
 
     public void decode(String s) {
-        CharBuffer charBuffer = CharBuffer.wrap(s);
-        decode(charset.encode(charBuffer).array());
+        reset();
+        char[] chars = s.toCharArray();
+        byte[] decoded = new byte[BulkDecoder.decodedLength(chars.length)];
+        emit(decoded, 0, new BulkDecoder().decode(chars, 0, chars.length, decoded, 0));
+    }
+
+    /**
+     * Emit a series of decoded bytes produced by the block-oriented decode methods.
+     * This implementation calls emit(byte) for each one; a subclass can override it
+     * to take the bytes in bulk.
+     *
+     * @param bytes  array containing the decoded bytes
+     * @param start  index of the first byte
+     * @param length number of bytes
+     */
+    protected void emit(byte[] bytes, int start, int length) {
+        for (int i = start, end = start + length; i < end; i++) {
+            emit(bytes[i]);
+        }
     }
 
     @Override
@@ -77,18 +77,15 @@ public abstract class AbstractEncoder extends AbstractEncoderDecoder {
      */
     public void encode(InputStream inputStream) throws IOException {
         reset();
+        BulkEncoder bulkEncoder = new BulkEncoder();
         byte[] buffer = new byte[BUFFER_SIZE];
+        char[] encoded = new char[BulkEncoder.encodedLength(BUFFER_SIZE)];
 
-        while (true) {
-            int n = inputStream.read(buffer);
-
-            if (n < 0) {
-                endOfData();
-                break;
-            } else if (n > 0)
-                for (int i = 0; i < n; i++)
-                    consume(buffer[i]);
+        int n;
+        while ((n = inputStream.read(buffer)) >= 0) {
+            emit(encoded, 0, bulkEncoder.encode(buffer, 0, n, encoded, 0));
         }
+        emit(encoded, 0, bulkEncoder.finish(encoded, 0));
     }
 
 
@@ -100,8 +97,11 @@ public abstract class AbstractEncoder extends AbstractEncoderDecoder {
      */
     public void encode(byte[] bytes) {
         reset();
-        for (byte aByte : bytes) consume(aByte);
-        endOfData();
+        BulkEncoder bulkEncoder = new BulkEncoder();
+        char[] encoded = new char[BulkEncoder.encodedLength(bytes.length) + 4];
+        int n = bulkEncoder.encode(bytes, 0, bytes.length, encoded, 0);
+        n += bulkEncoder.finish(encoded, n);
+        emit(encoded, 0, n);
     }
 
     public void encode(String s) {
@@ -109,6 +109,21 @@ public abstract class AbstractEncoder extends AbstractEncoderDecoder {
         encode(charset.encode(charBuffer).array());
     }
 
+    /**
+     * Emit a series of encoded chars produced by the block-oriented encode methods.
+     * This implementation calls emit(byte) for each one; a subclass can override it
+     * to take the chars in bulk.
+     *
+     * @param chars  array containing the encoded chars
+     * @param start  index of the first char
+     * @param length number of chars
+     */
+    protected void emit(char[] chars, int start, int length) {
+        for (int i = start, end = start + length; i < end; i++) {
+            emit((byte) chars[i]);
+        }
+    }
+
     @Override
     protected void reset() {
         frontEnd.reset();
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2005-2026 by BerryWorks Software, LLC. All rights reserved.
+ *
+ * This file is part of EDIReader. You may obtain a license for its use directly from
+ * BerryWorks Software, and you may also choose to use this software under the terms of the
+ * GPL version 3. Other products in the EDIReader software suite are available only by licensing
+ * with BerryWorks. Only those files bearing the GPL statement below are available under the GPL.
+ *
+ * EDIReader is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * EDIReader is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with EDIReader.  If not,
+ * see <http://www.gnu.org/licenses/>.
+ */
+
+package com.berryworks.edireader.util.base64;
+
+import java.util.Arrays;
+
+/**
+ * Decodes base-64 characters into 8-bit data a block at a time.
+ * <p>
+ * Characters are translated with a lookup table, and groups of 4 valid characters are decoded into
+ * 3 bytes in a single step. As with DecoderFrontEnd, any character outside the base-64 alphabet,
+ * including the "=" used for padding, is ignored, so that line breaks and other
+ * formatting in the encoded text are of no consequence. Partial groups are carried
+ * from one block to the next.
+ */
+public final class BulkDecoder {
+    private static final byte[] VALUES = new byte[256];
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alphabet.length(); i++) {
+            VALUES[alphabet.charAt(i)] = (byte) i;
+        }
+        // The high-order bit of an 8-bit value is ignored, as it always has been by DecoderFrontEnd
+        for (int i = 128; i < 256; i++) {
+            VALUES[i] = VALUES[i & 127];
+        }
+    }
+
+    // Decoded bits not yet emitted as a byte, held in the low-order bits
+    private int bits;
+    private int bitCount;
+
+    /**
+     * Returns the number of bytes that a call to decode() for n chars might write,
+     * taking into account any bits carried from a previous call.
+     *
+     * @param n number of chars
+     * @return maximum number of bytes
+     */
+    public static int decodedLength(int n) {
+        return n / 4 * 3 + 3;
+    }
+
+    /**
+     * Decode a block of base-64 encoded bytes.
+     *
+     * @param src       array containing the encoded bytes
+     * @param offset    index of the first byte
+     * @param length    number of bytes
+     * @param dst       array to receive the decoded bytes, with room for at least decodedLength(length)
+     * @param dstOffset index at which to write the first decoded byte
+     * @return number of bytes written
+     */
+    public int decode(byte[] src, int offset, int length, byte[] dst, int dstOffset) {
+        int i = offset;
+        int end = offset + length;
+        int j = dstOffset;
+        while (i < end) {
+            if (bitCount == 0 && end - i >= 4) {
+                int a = VALUES[src[i] & 0xFF], b = VALUES[src[i + 1] & 0xFF];
+                int c = VALUES[src[i + 2] & 0xFF], d = VALUES[src[i + 3] & 0xFF];
+                if ((a | b | c | d) >= 0) {
+                    j = putGroup(a << 18 | b << 12 | c << 6 | d, dst, j);
+                    i += 4;
+                    continue;
+                }
+            }
+            j = decode(VALUES[src[i++] & 0xFF], dst, j);
+        }
+        return j - dstOffset;
+    }
+
+    /**
+     * Decode a block of base-64 encoded chars.
+     *
+     * @param src       array containing the encoded chars
+     * @param offset    index of the first char
+     * @param length    number of chars
+     * @param dst       array to receive the decoded bytes, with room for at least decodedLength(length)
+     * @param dstOffset index at which to write the first decoded byte
+     * @return number of bytes written
+     */
+    public int decode(char[] src, int offset, int length, byte[] dst, int dstOffset) {
+        int i = offset;
+        int end = offset + length;
+        int j = dstOffset;
+        while (i < end) {
+            if (bitCount == 0 && end - i >= 4) {
+                int a = valueOf(src[i]), b = valueOf(src[i + 1]);
+                int c = valueOf(src[i + 2]), d = valueOf(src[i + 3]);
+                if ((a | b | c | d) >= 0) {
+                    j = putGroup(a << 18 | b << 12 | c << 6 | d, dst, j);
+                    i += 4;
+                    continue;
+                }
+            }
+            j = decode(valueOf(src[i++]), dst, j);
+        }
+        return j - dstOffset;
+    }
+
+    /**
+     * Discard any bits carried from a previous block.
+     */
+    public void reset() {
+        bits = bitCount = 0;
+    }
+
+    private int decode(int value, byte[] dst, int j) {
+        if (value < 0) return j;
+        bits = bits << 6 | value;
+        bitCount += 6;
+        if (bitCount >= 8) {
+            bitCount -= 8;
+            dst[j++] = (byte) (bits >>> bitCount);
+            bits &= (1 << bitCount) - 1;
+        }
+        return j;
+    }
+
+    private static int putGroup(int group, byte[] dst, int j) {
+        dst[j] = (byte) (group >>> 16);
+        dst[j + 1] = (byte) (group >>> 8);
+        dst[j + 2] = (byte) group;
+        return j + 3;
+    }
+
+    private static int valueOf(char c) {
+        return c > 0xFF ? -1 : VALUES[c];
+    }
+}
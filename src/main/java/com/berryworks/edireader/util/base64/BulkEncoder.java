@@ -0,0 +1,190 @@
+/*
+ * Copyright 2005-2026 by BerryWorks Software, LLC. All rights reserved.
+ *
+ * This file is part of EDIReader. You may obtain a license for its use directly from
+ * BerryWorks Software, and you may also choose to use this software under the terms of the
+ * GPL version 3. Other products in the EDIReader software suite are available only by licensing
+ * with BerryWorks. Only those files bearing the GPL statement below are available under the GPL.
+ *
+ * EDIReader is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * EDIReader is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with EDIReader.  If not,
+ * see <http://www.gnu.org/licenses/>.
+ */
+
+package com.berryworks.edireader.util.base64;
+
+/**
+ * Encodes 8-bit data into base-64 characters a block at a time.
+ * <p>
+ * Whole 3-byte groups are translated into 4 characters with a single table lookup per character,
+ * in a tight loop over the caller's arrays. Up to 2 bytes left over at the end of one block are
+ * carried into the next, so that a long data object can be presented in a series of blocks
+ * of any size. finish() writes the final, padded group.
+ */
+public final class BulkEncoder {
+    private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+    private static final char PAD = '=';
+
+    // Up to 2 bytes not yet encoded, held in the low-order bits
+    private int pending;
+    private int pendingCount;
+
+    /**
+     * Returns the number of chars that a call to encode() for n bytes might write,
+     * taking into account any bytes carried from a previous call.
+     *
+     * @param n number of bytes
+     * @return maximum number of chars
+     */
+    public static int encodedLength(int n) {
+        return (n + 2) / 3 * 4;
+    }
+
+    /**
+     * Encode a block of bytes.
+     *
+     * @param src       array containing the bytes
+     * @param offset    index of the first byte
+     * @param length    number of bytes
+     * @param dst       array to receive the encoded chars, with room for at least encodedLength(length)
+     * @param dstOffset index at which to write the first char
+     * @return number of chars written
+     */
+    public int encode(byte[] src, int offset, int length, char[] dst, int dstOffset) {
+        int i = offset;
+        int end = offset + length;
+        int j = dstOffset;
+
+        if (pendingCount > 0) {
+            while (pendingCount < 3 && i < end) {
+                pending = pending << 8 | src[i++] & 0xFF;
+                pendingCount++;
+            }
+            if (pendingCount < 3) return 0;
+            j = putGroup(pending, dst, j);
+            pending = pendingCount = 0;
+        }
+
+        for (int limit = end - 2; i < limit; i += 3) {
+            int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8 | src[i + 2] & 0xFF;
+            dst[j] = ALPHABET[bits >>> 18];
+            dst[j + 1] = ALPHABET[bits >>> 12 & 63];
+            dst[j + 2] = ALPHABET[bits >>> 6 & 63];
+            dst[j + 3] = ALPHABET[bits & 63];
+            j += 4;
+        }
+
+        while (i < end) {
+            pending = pending << 8 | src[i++] & 0xFF;
+            pendingCount++;
+        }
+        return j - dstOffset;
+    }
+
+    /**
+     * Encode a block of chars, each of which represents one byte of data.
+     *
+     * @param src       array containing the chars
+     * @param offset    index of the first char
+     * @param length    number of chars
+     * @param dst       array to receive the encoded chars, with room for at least encodedLength(length)
+     * @param dstOffset index at which to write the first char
+     * @return number of chars written
+     * @throws IllegalArgumentException if a char is not an 8-bit value
+     */
+    public int encode(char[] src, int offset, int length, char[] dst, int dstOffset) {
+        int i = offset;
+        int end = offset + length;
+        int j = dstOffset;
+
+        if (pendingCount > 0) {
+            while (pendingCount < 3 && i < end) {
+                pending = pending << 8 | toByte(src[i++]);
+                pendingCount++;
+            }
+            if (pendingCount < 3) return 0;
+            j = putGroup(pending, dst, j);
+            pending = pendingCount = 0;
+        }
+
+        for (int limit = end - 2; i < limit; i += 3) {
+            char a = src[i], b = src[i + 1], c = src[i + 2];
+            if ((a | b | c) > 0xFF) {
+                throw notAByte();
+            }
+            int bits = a << 16 | b << 8 | c;
+            dst[j] = ALPHABET[bits >>> 18];
+            dst[j + 1] = ALPHABET[bits >>> 12 & 63];
+            dst[j + 2] = ALPHABET[bits >>> 6 & 63];
+            dst[j + 3] = ALPHABET[bits & 63];
+            j += 4;
+        }
+
+        while (i < end) {
+            pending = pending << 8 | toByte(src[i++]);
+            pendingCount++;
+        }
+        return j - dstOffset;
+    }
+
+    /**
+     * Encode any bytes carried from the last block, with padding, and prepare for a new data object.
+     *
+     * @param dst       array to receive the encoded chars, with room for at least 4
+     * @param dstOffset index at which to write the first char
+     * @return number of chars written
+     */
+    public int finish(char[] dst, int dstOffset) {
+        int n = 0;
+        if (pendingCount == 1) {
+            int bits = pending << 16;
+            dst[dstOffset] = ALPHABET[bits >>> 18];
+            dst[dstOffset + 1] = ALPHABET[bits >>> 12 & 63];
+            dst[dstOffset + 2] = PAD;
+            dst[dstOffset + 3] = PAD;
+            n = 4;
+        } else if (pendingCount == 2) {
+            int bits = pending << 8;
+            dst[dstOffset] = ALPHABET[bits >>> 18];
+            dst[dstOffset + 1] = ALPHABET[bits >>> 12 & 63];
+            dst[dstOffset + 2] = ALPHABET[bits >>> 6 & 63];
+            dst[dstOffset + 3] = PAD;
+            n = 4;
+        }
+        reset();
+        return n;
+    }
+
+    /**
+     * Discard any bytes carried from a previous block.
+     */
+    public void reset() {
+        pending = pendingCount = 0;
+    }
+
+    private static int putGroup(int bits, char[] dst, int j) {
+        dst[j] = ALPHABET[bits >>> 18];
+        dst[j + 1] = ALPHABET[bits >>> 12 & 63];
+        dst[j + 2] = ALPHABET[bits >>> 6 & 63];
+        dst[j + 3] = ALPHABET[bits & 63];
+        return j + 4;
+    }
+
+    private static int toByte(char c) {
+        if (c > 0xFF) {
+            throw notAByte();
+        }
+        return c;
+    }
+
+    private static IllegalArgumentException notAByte() {
+        return new IllegalArgumentException("Base64 encoding requires 8-bit data");
+    }
+}
@@ -20,31 +20,24 @@
 
 package com.berryworks.edireader.util.base64;
 
-import java.nio.Buffer;
-import java.nio.ByteBuffer;
-import java.nio.CharBuffer;
-import java.nio.charset.CharsetEncoder;
-import java.nio.charset.CoderResult;
-
 /**
  * Provides for base-64 decoding of Java Strings.
  */
 public class StringBase64Decoder extends AbstractDecoder {
+    private static final int BLOCK_SIZE = 4 * 1024;
+
     private final StringBuilder stringBuffer = new StringBuilder();
-    private final ByteBuffer byteBuffer = ByteBuffer.allocate(100);
 
     @Override
     protected void emit(byte b) {
-        if (!byteBuffer.hasRemaining()) {
-            feedStringBuffer();
-            ((Buffer) byteBuffer).clear();
-        }
-        byteBuffer.put(b);
+        stringBuffer.append((char) (b & 0xFF));
     }
 
-    private void feedStringBuffer() {
-        ((Buffer) byteBuffer).flip();
-        stringBuffer.append(charset.decode(byteBuffer));
+    @Override
+    protected void emit(byte[] bytes, int start, int length) {
+        for (int i = start, end = start + length; i < end; i++) {
+            stringBuffer.append((char) (bytes[i] & 0xFF));
+        }
     }
 
     /**
@@ -55,31 +48,19 @@ public class StringBase64Decoder extends AbstractDecoder {
      * @return decoded text
      */
     public String decodeAsString(String encodedText) {
-        CharBuffer charBuffer = CharBuffer.wrap(encodedText);
-
-        // Allocate a modest sized non-direct ByteBuffer to receive the
-        // bytes as they are encoded from the String
-        ByteBuffer base64ByteBuffer = ByteBuffer.allocate(100);
+        stringBuffer.setLength(0);
+        stringBuffer.ensureCapacity(encodedText.length() / 4 * 3);
 
-        // Use the encoder repeatedly until all the chars have been encoded as bytes
-        // and presented as input for base 64 encoding.
-        CharsetEncoder encoder = charset.newEncoder();
-        while (true) {
-            CoderResult coderResult = encoder.encode(charBuffer, base64ByteBuffer, true);
-            if (coderResult.isError()) {
-                throw new RuntimeException("Unrecoverable failure in Base64 encoding");
-            }
-            ((Buffer) base64ByteBuffer).flip();
-            while (base64ByteBuffer.hasRemaining()) {
-                consume(base64ByteBuffer.get());
-            }
-            if (coderResult.isUnderflow()) {
-                break;
-            }
-            ((Buffer) base64ByteBuffer).clear();
+        // Decode the text a block at a time, so that a large String
+        // is not copied in its entirety into another array.
+        BulkDecoder bulkDecoder = new BulkDecoder();
+        char[] chars = new char[Math.min(encodedText.length(), BLOCK_SIZE)];
+        byte[] decoded = new byte[BulkDecoder.decodedLength(chars.length)];
+        for (int start = 0, length = encodedText.length(); start < length; start += chars.length) {
+            int n = Math.min(chars.length, length - start);
+            encodedText.getChars(start, start + n, chars, 0);
+            emit(decoded, 0, bulkDecoder.decode(chars, 0, n, decoded, 0));
         }
-        endOfData();
-        feedStringBuffer();
 
         return stringBuffer.toString();
     }
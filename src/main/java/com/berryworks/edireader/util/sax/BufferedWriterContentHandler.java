@@ -0,0 +1,116 @@
+/*
+ * Copyright 2005-2026 by BerryWorks Software, LLC. All rights reserved.
+ *
+ * This file is part of EDIReader. You may obtain a license for its use directly from
+ * BerryWorks Software, and you may also choose to use this software under the terms of the
+ * GPL version 3. Other products in the EDIReader software suite are available only by licensing
+ * with BerryWorks. Only those files bearing the GPL statement below are available under the GPL.
+ *
+ * EDIReader is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * EDIReader is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with EDIReader.  If not,
+ * see <http://www.gnu.org/licenses/>.
+ */
+
+package com.berryworks.edireader.util.sax;
+
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Base class for SAX ContentHandlers that serialize the events they receive as text.
+ * Output is accumulated in a private char buffer that is passed to the underlying Writer
+ * only when it fills or when flush() is called.
+ */
+public abstract class BufferedWriterContentHandler extends DefaultHandler {
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final Writer writer;
+    protected final char[] buffer;
+    protected int position;
+
+    protected BufferedWriterContentHandler(Writer writer, int bufferSize) {
+        if (writer == null) {
+            throw new IllegalArgumentException(getClass().getSimpleName() + " requires a non-null Writer");
+        }
+        this.writer = writer;
+        buffer = new char[Math.max(bufferSize, 256)];
+    }
+
+    /**
+     * Write any buffered output to the underlying Writer and flush it.
+     *
+     * @throws SAXException if the underlying Writer fails
+     */
+    public void flush() throws SAXException {
+        flushBuffer();
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new SAXException(e);
+        }
+    }
+
+    /**
+     * Make sure there is room in the buffer for at least n more chars, so that
+     * they can be stored directly with buffer[position++] = c.
+     *
+     * @param n number of chars, not to exceed 256
+     * @throws SAXException if the underlying Writer fails
+     */
+    protected final void reserve(int n) throws SAXException {
+        if (buffer.length - position < n) {
+            flushBuffer();
+        }
+    }
+
+    // Caller has reserved room for the chars
+    protected final void append(String s) {
+        for (int i = 0, n = s.length(); i < n; i++) {
+            buffer[position++] = s.charAt(i);
+        }
+    }
+
+    protected final void write(char c) throws SAXException {
+        if (position == buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = c;
+    }
+
+    protected final void write(String s) throws SAXException {
+        int n = s.length();
+        if (n > buffer.length - position) {
+            flushBuffer();
+            if (n > buffer.length) {
+                try {
+                    writer.write(s);
+                } catch (IOException e) {
+                    throw new SAXException(e);
+                }
+                return;
+            }
+        }
+        s.getChars(0, n, buffer, position);
+        position += n;
+    }
+
+    protected final void flushBuffer() throws SAXException {
+        if (position == 0) return;
+        try {
+            writer.write(buffer, 0, position);
+        } catch (IOException e) {
+            throw new SAXException(e);
+        }
+        position = 0;
+    }
+}
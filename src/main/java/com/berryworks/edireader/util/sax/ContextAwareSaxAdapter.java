@@ -25,24 +25,40 @@ import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.XMLFilterImpl;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The implementation of the SAX ContentHandler adapts to a modified API enhanced with
  * two new features: the characters of XML data content are made available when an element is
  * started, and the names of all the nested elements are available at any point.
+ * <p>
+ * The adapter does not allocate per element. Attributes are copied into a single reusable
+ * EDIAttributes, so the one passed to start() is valid only for the duration of that call and must be copied
+ * if it is to be retained. Character data is accumulated in a reusable StringBuilder. The context is kept
+ * as a stack of int ids, each standing for a distinct name; it can be read by depth with getContextDepth(),
+ * getContextName(), and getContextId(), or compared by id with idOf(), without materializing a List.
  */
 public abstract class ContextAwareSaxAdapter extends XMLFilterImpl {
 
     private boolean pending = false;
     private String pendingUri;
     private String pendingName;
-    private EDIAttributes pendingAttributes;
-    private String pendingData;
-    private final List<String> context = new ArrayList<>();
+    private final EDIAttributes pendingAttributes = new EDIAttributes();
+    private final StringBuilder pendingData = new StringBuilder();
+    private boolean hasPendingData;
     private final boolean isTrimmingEnabled;
 
+    // The context, as a stack of ids
+    private int[] context = new int[32];
+    private int depth;
+    // Names indexed by id, and ids by name
+    private String[] names = new String[32];
+    private final Map<String, Integer> ids = new HashMap<>();
+
     public ContextAwareSaxAdapter() {
         this(true);
     }
@@ -57,10 +73,16 @@ public abstract class ContextAwareSaxAdapter extends XMLFilterImpl {
         applyPending();
         pendingUri = uri;
         pendingName = localName;
-        pendingAttributes = new EDIAttributes(attributes);
+        if (attributes == null)
+            pendingAttributes.clear();
+        else
+            pendingAttributes.setAttributes(attributes);
         pending = true;
 
-        context.add(representationOf(localName, attributes));
+        if (depth == context.length) {
+            context = Arrays.copyOf(context, depth * 2);
+        }
+        context[depth++] = idOf(representationOf(localName, attributes));
     }
 
     protected String representationOf(String localName, Attributes attributes) {
@@ -73,39 +95,110 @@ public abstract class ContextAwareSaxAdapter extends XMLFilterImpl {
         applyPending();
         end(uri, localName);
 
-        if (!context.isEmpty()) {
-            final int indexOfLast = context.size() - 1;
-            final String lastOne = context.get(indexOfLast);
-            if (localName.equals(lastOne)) {
-                context.remove(indexOfLast);
-            }
+        if (depth > 0 && localName.equals(names[context[depth - 1]])) {
+            depth--;
         }
     }
 
     @Override
     public void characters(char[] ch, int start, int length) throws SAXException {
         super.characters(ch, start, length);
-        String fragment = new String(ch, start, length);
-        if (pendingData == null)
-            pendingData = fragment;
-        else
-            pendingData += fragment;
+        pendingData.append(ch, start, length);
+        hasPendingData = true;
     }
 
     public abstract void start(String uri, String name, String data, EDIAttributes attributes) throws SAXException;
 
     public abstract void end(String uri, String name) throws SAXException;
 
+    /**
+     * Returns the names of the nested elements, outermost first, as a read-only view of the context.
+     *
+     * @return List of names
+     */
     public List<String> getContext() {
-        return context;
+        return new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                if (index < 0 || index >= depth)
+                    throw new IndexOutOfBoundsException("Index " + index + " with context depth " + depth);
+                return names[context[index]];
+            }
+
+            @Override
+            public int size() {
+                return depth;
+            }
+        };
+    }
+
+    /**
+     * Returns the number of nested elements in the context.
+     *
+     * @return depth, with 0 outside the root element
+     */
+    public int getContextDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the id of the name at a given depth in the context.
+     *
+     * @param level 0 for the outermost element, up to getContextDepth() - 1 for the innermost
+     * @return id of the name
+     */
+    public int getContextId(int level) {
+        if (level < 0 || level >= depth)
+            throw new IndexOutOfBoundsException("Level " + level + " with context depth " + depth);
+        return context[level];
+    }
+
+    /**
+     * Returns the name at a given depth in the context.
+     *
+     * @param level 0 for the outermost element, up to getContextDepth() - 1 for the innermost
+     * @return name
+     */
+    public String getContextName(int level) {
+        return names[getContextId(level)];
+    }
+
+    /**
+     * Returns the id that stands for a name in the context, assigning one if the name has not been seen before.
+     * Ids are small non-negative ints, so a handler can look them up once and compare them with getContextId().
+     *
+     * @param name as it appears in the context
+     * @return id of the name
+     */
+    public int idOf(String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = ids.size();
+            if (id == names.length) {
+                names = Arrays.copyOf(names, id * 2);
+            }
+            names[id] = name;
+            ids.put(name, id);
+        }
+        return id;
     }
 
     private void applyPending() throws SAXException {
         if (pending) {
-            if (pendingData != null && isTrimmingEnabled) pendingData = pendingData.trim();
-            start(pendingUri, pendingName, pendingData, pendingAttributes);
+            String data = null;
+            if (hasPendingData) {
+                int begin = 0;
+                int end = pendingData.length();
+                if (isTrimmingEnabled) {
+                    while (begin < end && pendingData.charAt(begin) <= ' ') begin++;
+                    while (end > begin && pendingData.charAt(end - 1) <= ' ') end--;
+                }
+                data = pendingData.substring(begin, end);
+            }
+            start(pendingUri, pendingName, data, pendingAttributes);
         }
         pending = false;
-        pendingData = null;
+        pendingData.setLength(0);
+        hasPendingData = false;
     }
 }
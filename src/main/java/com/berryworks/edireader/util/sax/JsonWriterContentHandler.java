@@ -0,0 +1,268 @@
+/*
+ * Copyright 2005-2026 by BerryWorks Software, LLC. All rights reserved.
+ *
+ * This file is part of EDIReader. You may obtain a license for its use directly from
+ * BerryWorks Software, and you may also choose to use this software under the terms of the
+ * GPL version 3. Other products in the EDIReader software suite are available only by licensing
+ * with BerryWorks. Only those files bearing the GPL statement below are available under the GPL.
+ *
+ * EDIReader is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * EDIReader is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with EDIReader.  If not,
+ * see <http://www.gnu.org/licenses/>.
+ */
+
+package com.berryworks.edireader.util.sax;
+
+import com.berryworks.edireader.DefaultXMLTags;
+import com.berryworks.edireader.XMLTags;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * A SAX ContentHandler that writes the EDI structure emitted by EDIReader as JSON text,
+ * in a single pass and without building any intermediate representation.
+ * <p>
+ * Each XML element becomes a JSON object whose members are the element's attributes, followed
+ * by its character data as a "value" member and its child elements. Children of the same kind are
+ * collected into an array named by their tag, except for the sender, receiver, and address,
+ * which appear at most once and are written as objects. Within a transaction or loop, segments
+ * and loops are kept in their original order in a single array named by the segment tag, and a loop
+ * is identified by a member named by the loop tag whose value is the loop name from the plugin.
+ * For example, with the default XML tags:
+ * <pre>
+ * {"ediroot":{"interchange":[{"Standard":"ANSI X.12", ...
+ *   "sender":{"address":{"Id":"04000","Qual":"ZZ"}}, ...
+ *   "group":[{"GroupType":"PO", ...
+ *     "transaction":[{"DocType":"850", ...
+ *       "segment":[
+ *         {"Id":"BEG","element":[{"Id":"BEG01","value":"00"}, ...]},
+ *         {"loop":"N1","segment":[{"Id":"N1", ...}, ...]},
+ *         ...
+ * </pre>
+ * Only the stack of currently open elements is retained, so memory use does not depend on the size of the input.
+ * The underlying Writer is flushed, but not closed, at endDocument().
+ */
+public class JsonWriterContentHandler extends BufferedWriterContentHandler {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final XMLTags xmlTags;
+    private final String valueName;
+
+    // Per-depth state, indexed by depth with the document itself at 0
+    private String[] tags = new String[32];
+    private boolean[] hasMembers = new boolean[32];
+    private String[] openArray = new String[32];
+    private int depth;
+    // True while the "value" string of the current element has not yet been closed
+    private boolean valueOpen;
+
+    public JsonWriterContentHandler(Writer writer) {
+        this(writer, DefaultXMLTags.getInstance());
+    }
+
+    public JsonWriterContentHandler(Writer writer, XMLTags xmlTags) {
+        this(writer, xmlTags, "value", DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param writer     destination of the JSON text
+     * @param xmlTags    vocabulary of the XML elements emitted by EDIReader
+     * @param valueName  name of the member holding the character data of an element
+     * @param bufferSize size of the internal char buffer
+     */
+    public JsonWriterContentHandler(Writer writer, XMLTags xmlTags, String valueName, int bufferSize) {
+        super(writer, bufferSize);
+        this.xmlTags = xmlTags == null ? DefaultXMLTags.getInstance() : xmlTags;
+        this.valueName = valueName;
+    }
+
+    @Override
+    public void startDocument() throws SAXException {
+        depth = 0;
+        valueOpen = false;
+        tags[0] = null;
+        hasMembers[0] = false;
+        openArray[0] = null;
+        write('{');
+    }
+
+    @Override
+    public void endDocument() throws SAXException {
+        closeArray(0);
+        write('}');
+        flush();
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+        closeValue();
+        String tag = nameOf(localName, qName);
+
+        // Place the new object within its parent
+        String parentTag = tags[depth];
+        if (depth == 0 || isSingular(tag)) {
+            closeArray(depth);
+            beginMember(depth, tag);
+        } else {
+            String arrayName = isSequence(parentTag) ? xmlTags.getSegTag() : tag;
+            if (arrayName.equals(openArray[depth])) {
+                write(',');
+            } else {
+                closeArray(depth);
+                beginMember(depth, arrayName);
+                write('[');
+                openArray[depth] = arrayName;
+            }
+        }
+
+        if (++depth == tags.length) {
+            tags = Arrays.copyOf(tags, depth * 2);
+            hasMembers = Arrays.copyOf(hasMembers, depth * 2);
+            openArray = Arrays.copyOf(openArray, depth * 2);
+        }
+        tags[depth] = tag;
+        hasMembers[depth] = false;
+        openArray[depth] = null;
+        write('{');
+
+        if (attributes != null) {
+            boolean isLoop = tag.equals(xmlTags.getLoopTag());
+            for (int i = 0, n = attributes.getLength(); i < n; i++) {
+                String name = nameOf(attributes.getLocalName(i), attributes.getQName(i));
+                if (isLoop && name.equals(xmlTags.getIdAttribute())) {
+                    name = xmlTags.getLoopTag();
+                }
+                beginMember(depth, name);
+                writeString(attributes.getValue(i));
+            }
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        closeValue();
+        closeArray(depth);
+        write('}');
+        depth--;
+    }
+
+    @Override
+    public void characters(char[] chars, int start, int length) throws SAXException {
+        if (length == 0 || depth == 0) return;
+        if (!valueOpen) {
+            closeArray(depth);
+            beginMember(depth, valueName);
+            write('"');
+            valueOpen = true;
+        }
+        writeEscaped(chars, start, length);
+    }
+
+    @Override
+    public void ignorableWhitespace(char[] chars, int start, int length) throws SAXException {
+        characters(chars, start, length);
+    }
+
+    private boolean isSingular(String tag) {
+        return tag.equals(xmlTags.getSenderTag()) ||
+                tag.equals(xmlTags.getReceiverTag()) ||
+                tag.equals(xmlTags.getAddressTag());
+    }
+
+    private boolean isSequence(String tag) {
+        return tag != null && (tag.equals(xmlTags.getDocumentTag()) || tag.equals(xmlTags.getLoopTag()));
+    }
+
+    private static String nameOf(String localName, String qName) {
+        if (localName != null && !localName.isEmpty()) return localName;
+        if (qName == null) return "";
+        int index = qName.indexOf(':');
+        return index < 0 ? qName : qName.substring(index + 1);
+    }
+
+    private void beginMember(int level, String name) throws SAXException {
+        if (hasMembers[level]) {
+            write(',');
+        } else {
+            hasMembers[level] = true;
+        }
+        writeString(name);
+        write(':');
+    }
+
+    private void closeArray(int level) throws SAXException {
+        if (openArray[level] != null) {
+            write(']');
+            openArray[level] = null;
+        }
+    }
+
+    private void closeValue() throws SAXException {
+        if (valueOpen) {
+            write('"');
+            valueOpen = false;
+        }
+    }
+
+    private void writeString(String s) throws SAXException {
+        write('"');
+        if (s != null) {
+            for (int i = 0, n = s.length(); i < n; i++) {
+                reserve(6);
+                appendEscaped(s.charAt(i));
+            }
+        }
+        write('"');
+    }
+
+    private void writeEscaped(char[] chars, int start, int length) throws SAXException {
+        for (int i = start, end = start + length; i < end; i++) {
+            reserve(6);
+            appendEscaped(chars[i]);
+        }
+    }
+
+    // Caller has reserved room for at least 6 chars
+    private void appendEscaped(char c) {
+        switch (c) {
+            case '"':
+            case '\\':
+                buffer[position++] = '\\';
+                buffer[position++] = c;
+                break;
+            case '\n':
+                buffer[position++] = '\\';
+                buffer[position++] = 'n';
+                break;
+            case '\r':
+                buffer[position++] = '\\';
+                buffer[position++] = 'r';
+                break;
+            case '\t':
+                buffer[position++] = '\\';
+                buffer[position++] = 't';
+                break;
+            default:
+                if (c < 0x20) {
+                    buffer[position++] = '\\';
+                    buffer[position++] = 'u';
+                    buffer[position++] = '0';
+                    buffer[position++] = '0';
+                    buffer[position++] = HEX[c >> 4];
+                    buffer[position++] = HEX[c & 0xF];
+                } else {
+                    buffer[position++] = c;
+                }
+        }
+    }
+}
@@ -27,25 +27,33 @@ import org.xml.sax.ContentHandler;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
 
 import static com.berryworks.edireader.util.FixedLength.isPresent;
 
 /**
- * This implementation of a SAX ContentHandler passes SAX events it receives
- * to a delegate ContentHandler with the added value of buffering these events
- * in a queue so that items in the queue may be modified as needed
- * before they are sent to the delegate.
+ * A SAX ContentHandler that holds back a window of the most recent startElement and endElement
+ * events before passing them to a wrapped ContentHandler, so that attributes of recently
+ * started elements can still be examined and modified with getAttribute() and putAttribute().
+ * <p>
+ * The window is a fixed-capacity ring of event slots. A slot's attributes and character data
+ * are kept in an EDIAttributes and a char array that belong to the slot and are reused each time
+ * the slot is recycled, so that queueing an event does not allocate any objects once the ring has warmed up.
  */
 public class QueuedContentHandler extends DefaultHandler {
     private final ContentHandler wrappedHandler;
-    private final LinkedList<QueuedItem> queue = new LinkedList<>();
-    private final int queueSizeLimit;
+    private final Slot[] ring;
+    private int head;
+    private int size;
     private final SourcePosition sourcePosition;
 
     public QueuedContentHandler(ContentHandler handler, int queueSizeLimit, SourcePosition sourcePosition) {
         wrappedHandler = handler;
-        this.queueSizeLimit = queueSizeLimit;
+        ring = new Slot[Math.max(queueSizeLimit, 1)];
+        for (int i = 0; i < ring.length; i++) {
+            ring[i] = new Slot();
+        }
         this.sourcePosition = sourcePosition;
     }
 
@@ -61,8 +69,8 @@ public class QueuedContentHandler extends DefaultHandler {
     }
 
     public void drainQueue() throws SAXException {
-        while (!queue.isEmpty()) {
-            queue.removeFirst().process(wrappedHandler);
+        while (size > 0) {
+            releaseFirst();
         }
         if (wrappedHandler instanceof SourcePosition) {
             ((SourcePosition) wrappedHandler).setCharCounts(-1, -1);
@@ -72,71 +80,183 @@ public class QueuedContentHandler extends DefaultHandler {
 
     @Override
     public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
-        limitSize();
-        final int charCount = sourcePosition == null ? 0 : sourcePosition.getCharCount();
-        final int segmentCharCount = sourcePosition == null ? 0 : sourcePosition.getSegmentCharCount();
-        queue.add(new QueuedStartItem(uri, localName, qName, attributes, charCount, segmentCharCount));
+        Slot slot = nextSlot();
+        slot.start = true;
+        slot.set(uri, localName, qName, charCount(), segmentCharCount());
+        slot.attributes.clear();
+        if (attributes != null) {
+            for (int i = 0, n = attributes.getLength(); i < n; i++) {
+                slot.attributes.addAttribute(
+                        attributes.getURI(i),
+                        attributes.getLocalName(i),
+                        attributes.getQName(i),
+                        attributes.getType(i),
+                        attributes.getValue(i));
+            }
+        }
     }
 
     @Override
     public void endElement(String uri, String localName, String qName) throws SAXException {
-        limitSize();
-        final int charCount = sourcePosition == null ? 0 : sourcePosition.getCharCount();
-        final int segmentCharCount = sourcePosition == null ? 0 : sourcePosition.getSegmentCharCount();
-        queue.add(new QueuedEndItem(uri, localName, qName, charCount, segmentCharCount));
-    }
-
-    private void limitSize() throws SAXException {
-        while (queue.size() >= queueSizeLimit) {
-            final QueuedItem queuedItem = queue.removeFirst();
-            queuedItem.process(wrappedHandler);
-        }
+        Slot slot = nextSlot();
+        slot.start = false;
+        slot.set(uri, localName, qName, charCount(), segmentCharCount());
     }
 
     @Override
     public void characters(char[] chars, int start, int length) throws SAXException {
-        characters(new String(chars, start, length));
+        lastSlot().addData(chars, start, length);
     }
 
     public void characters(String data) {
-        queue.getLast().addData(data);
+        Slot slot = lastSlot();
+        int length = data.length();
+        slot.ensureDataCapacity(length);
+        data.getChars(0, length, slot.data, slot.dataLength);
+        slot.dataLength += length;
+        slot.hasData = true;
     }
 
     public String getAttribute(String tag, String attributeName) {
-        for (int i = queue.size() - 1; i >= 0; i--) {
-            QueuedItem queuedItem = queue.get(i);
-            if (tag.equals(queuedItem.getLocalName())) {
-                EDIAttributes attributes = queuedItem.getAttributes();
-                return attributes.getValue(attributeName);
-            }
-        }
-        return null;
+        Slot slot = findStart(tag);
+        return slot == null ? null : slot.attributes.getValue(attributeName);
     }
 
     public void putAttribute(String tag, String attributeName, String data) {
         if (!isPresent(data)) return;
-        for (int i = queue.size() - 1; i >= 0; i--) {
-            QueuedItem queuedItem = queue.get(i);
-            if (tag.equals(queuedItem.getLocalName())) {
-                EDIAttributes attributes = queuedItem.getAttributes();
-                int index = attributes.getIndex(attributeName);
-                if (index >= 0)
-                    attributes.removeAttribute(index);
-                attributes.addCDATA(attributeName, data);
-                return;
-            }
+        Slot slot = findStart(tag);
+        if (slot == null) {
+            throw new RuntimeException("Could not find queued element " + tag + " for putAttribute()");
         }
-        throw new RuntimeException("Could not find queued element " + tag + " for putAttribute()");
+        EDIAttributes attributes = slot.attributes;
+        int index = attributes.getIndex(attributeName);
+        if (index >= 0)
+            attributes.removeAttribute(index);
+        attributes.addCDATA(attributeName, data);
     }
 
     EDIAttributes getFirstAttributes() {
-        if (queue.isEmpty())
+        if (size == 0)
             return null;
 
-        return queue.getFirst().getAttributes();
+        Slot slot = ring[head];
+        if (!slot.start)
+            throw new RuntimeException("getAttributes() should not be called on an end item");
+        return slot.attributes;
     }
 
     public ContentHandler getWrappedContentHandler() {
         return wrappedHandler;
     }
+
+    /**
+     * Find the most recently queued startElement for a given tag.
+     */
+    private Slot findStart(String tag) {
+        for (int i = size - 1; i >= 0; i--) {
+            Slot slot = ring[(head + i) % ring.length];
+            if (slot.start && (tag == slot.localName || tag.equals(slot.localName))) {
+                return slot;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Claim the slot following the most recently queued one, first releasing the oldest
+     * queued event to the wrapped handler if the ring is full.
+     */
+    private Slot nextSlot() throws SAXException {
+        if (size == ring.length) {
+            releaseFirst();
+        }
+        Slot slot = ring[(head + size) % ring.length];
+        size++;
+        return slot;
+    }
+
+    private Slot lastSlot() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        Slot slot = ring[(head + size - 1) % ring.length];
+        if (!slot.start) {
+            throw new RuntimeException("addData() should not be called on an end item");
+        }
+        return slot;
+    }
+
+    private void releaseFirst() throws SAXException {
+        Slot slot = ring[head];
+        head = (head + 1) % ring.length;
+        size--;
+        slot.process(wrappedHandler);
+    }
+
+    private int charCount() {
+        return sourcePosition == null ? 0 : sourcePosition.getCharCount();
+    }
+
+    private int segmentCharCount() {
+        return sourcePosition == null ? 0 : sourcePosition.getSegmentCharCount();
+    }
+
+    /**
+     * A reusable record of a startElement, with its character data, or an endElement.
+     */
+    private static class Slot {
+        private boolean start;
+        private String uri;
+        private String localName;
+        private String qName;
+        private final EDIAttributes attributes = new EDIAttributes();
+        private char[] data = new char[64];
+        private int dataLength;
+        private boolean hasData;
+        private int charCount;
+        private int segmentCharCount;
+
+        void set(String uri, String localName, String qName, int charCount, int segmentCharCount) {
+            this.uri = uri;
+            this.localName = localName;
+            this.qName = qName;
+            this.charCount = charCount;
+            this.segmentCharCount = segmentCharCount;
+            dataLength = 0;
+            hasData = false;
+        }
+
+        void addData(char[] chars, int start, int length) {
+            ensureDataCapacity(length);
+            System.arraycopy(chars, start, data, dataLength, length);
+            dataLength += length;
+            hasData = true;
+        }
+
+        void ensureDataCapacity(int length) {
+            if (dataLength + length > data.length) {
+                data = Arrays.copyOf(data, Math.max(dataLength + length, 2 * data.length));
+            }
+        }
+
+        void process(ContentHandler handler) throws SAXException {
+            if (handler instanceof SourcePosition) {
+                ((SourcePosition) handler).setCharCounts(charCount, segmentCharCount);
+            }
+
+            if (!start) {
+                handler.endElement(uri, localName, qName);
+            } else if (handler instanceof StartWithDataContentHandler startWithDataContentHandler) {
+                // If the handler is prepared to accept a startElement with the data at the same time, then do that.
+                startWithDataContentHandler.startElement(uri, localName, qName, attributes,
+                        hasData ? new String(data, 0, dataLength) : null);
+            } else {
+                // Otherwise, we have to pass the data separately.
+                handler.startElement(uri, localName, qName, attributes);
+                if (hasData) {
+                    handler.characters(data, 0, dataLength);
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2005-2026 by BerryWorks Software, LLC. All rights reserved.
+ *
+ * This file is part of EDIReader. You may obtain a license for its use directly from
+ * BerryWorks Software, and you may also choose to use this software under the terms of the
+ * GPL version 3. Other products in the EDIReader software suite are available only by licensing
+ * with BerryWorks. Only those files bearing the GPL statement below are available under the GPL.
+ *
+ * EDIReader is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * EDIReader is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with EDIReader.  If not,
+ * see <http://www.gnu.org/licenses/>.
+ */
+
+package com.berryworks.edireader.util.sax;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A SAX ContentHandler that holds the events it receives so that they can later be
+ * replayed, in order, to another ContentHandler.
+ * <p>
+ * This is useful for a HandlerFactory or other component that cannot release events until
+ * something later in the stream is known, such as the control number that names an output file.
+ * The events are recorded in the compact binary format of SAXObjectHandler. The most recent events
+ * are kept on the heap, up to a configurable number of bytes; whenever that limit is reached, the bytes
+ * are appended to a temporary file and the space is reused. Therefore a transaction with hundreds of
+ * thousands of segments occupies a small, fixed amount of heap no matter how large it is.
+ * No temporary file is created unless the limit is reached, and it is deleted by clear() or close().
+ */
+public class SAXEventBuffer extends DefaultHandler implements Closeable {
+    public static final int DEFAULT_MEMORY_LIMIT = 1024 * 1024;
+
+    private final File directory;
+    private final SpillingOutputStream outputStream;
+    private SAXObjectHandler recorder;
+
+    public SAXEventBuffer() {
+        this(DEFAULT_MEMORY_LIMIT, null);
+    }
+
+    /**
+     * @param memoryLimit maximum number of bytes of recorded events to keep on the heap
+     * @param directory   directory for the temporary file, or null for the default temporary-file directory
+     */
+    public SAXEventBuffer(int memoryLimit, File directory) {
+        this.directory = directory;
+        outputStream = new SpillingOutputStream(Math.max(memoryLimit, 1024));
+        startRecording();
+    }
+
+    @Override
+    public void startDocument() {
+        recorder.startDocument();
+    }
+
+    @Override
+    public void endDocument() throws SAXException {
+        recorder.endDocument();
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+        recorder.startElement(uri, localName, qName, attributes);
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        recorder.endElement(uri, localName, qName);
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) throws SAXException {
+        recorder.characters(ch, start, length);
+    }
+
+    @Override
+    public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+        recorder.characters(ch, start, length);
+    }
+
+    @Override
+    public void processingInstruction(String target, String data) throws SAXException {
+        recorder.processingInstruction(target, data);
+    }
+
+    /**
+     * Pass the buffered events, in the order in which they were received, to a ContentHandler.
+     * The buffer is then empty and ready to receive more events.
+     *
+     * @param handler ContentHandler to receive the events
+     * @throws SAXException if the handler throws one, or if the events could not be buffered or read back
+     */
+    public void replay(ContentHandler handler) throws SAXException {
+        try {
+            recorder.markEndOfStream();
+            if (outputStream.failure != null) {
+                throw new SAXException("Unable to buffer SAX events", outputStream.failure);
+            }
+
+            SAXObjectReader reader = new SAXObjectReader();
+            reader.setContentHandler(handler);
+            InputSource inputSource = new InputSource(outputStream.openInputStream());
+            try {
+                while (true) {
+                    reader.parse(inputSource);
+                }
+            } catch (EOFException ignore) {
+                // The normal end of the recorded events
+            }
+        } catch (IOException e) {
+            throw new SAXException("Unable to replay buffered SAX events", e);
+        } finally {
+            clear();
+        }
+    }
+
+    /**
+     * Discard any buffered events.
+     */
+    public void clear() {
+        outputStream.reset();
+        startRecording();
+    }
+
+    /**
+     * Returns the number of events received since the buffer was last empty.
+     *
+     * @return number of events
+     */
+    public int getEventCount() {
+        return recorder.getSAXEventsWritten();
+    }
+
+    /**
+     * Returns true if the buffered events exceeded the memory limit and have been partly written to a temporary file.
+     *
+     * @return true if a temporary file is in use
+     */
+    public boolean isSpilled() {
+        return outputStream.channel != null;
+    }
+
+    @Override
+    public void close() {
+        outputStream.reset();
+    }
+
+    private void startRecording() {
+        try {
+            recorder = new SAXObjectHandler(outputStream);
+        } catch (IOException e) {
+            // SAXObjectHandler only buffers its header in the constructor
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * An OutputStream that keeps the most recent bytes on the heap and appends older ones to a temporary file.
+     */
+    private class SpillingOutputStream extends OutputStream {
+        private final byte[] memory;
+        private int count;
+        private Path path;
+        private FileChannel channel;
+        private IOException failure;
+
+        SpillingOutputStream(int memoryLimit) {
+            memory = new byte[memoryLimit];
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == memory.length) {
+                spill();
+            }
+            memory[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (count == memory.length) {
+                    spill();
+                }
+                int n = Math.min(length, memory.length - count);
+                System.arraycopy(bytes, offset, memory, count, n);
+                count += n;
+                offset += n;
+                length -= n;
+            }
+        }
+
+        private void spill() throws IOException {
+            try {
+                if (channel == null) {
+                    path = directory == null ?
+                            Files.createTempFile("edireader", ".events") :
+                            Files.createTempFile(directory.toPath(), "edireader", ".events");
+                    channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                            StandardOpenOption.DELETE_ON_CLOSE);
+                }
+                ByteBuffer byteBuffer = ByteBuffer.wrap(memory, 0, count);
+                while (byteBuffer.hasRemaining()) {
+                    channel.write(byteBuffer);
+                }
+                count = 0;
+            } catch (IOException e) {
+                failure = e;
+                throw e;
+            }
+        }
+
+        InputStream openInputStream() throws IOException {
+            InputStream inMemory = new ByteArrayInputStream(memory, 0, count);
+            if (channel == null) {
+                return inMemory;
+            }
+            channel.position(0);
+            InputStream spilled = new BufferedInputStream(Channels.newInputStream(channel), 64 * 1024);
+            return new SequenceInputStream(spilled, inMemory);
+        }
+
+        void reset() {
+            count = 0;
+            failure = null;
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignore) {
+                }
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException ignore) {
+                }
+                channel = null;
+                path = null;
+            }
+        }
+    }
+}
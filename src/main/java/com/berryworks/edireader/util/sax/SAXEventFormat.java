@@ -0,0 +1,65 @@
+/*
+ * Copyright 2005-2026 by BerryWorks Software, LLC. All rights reserved.
+ *
+ * This file is part of EDIReader. You may obtain a license for its use directly from
+ * BerryWorks Software, and you may also choose to use this software under the terms of the
+ * GPL version 3. Other products in the EDIReader software suite are available only by licensing
+ * with BerryWorks. Only those files bearing the GPL statement below are available under the GPL.
+ *
+ * EDIReader is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * EDIReader is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with EDIReader.  If not,
+ * see <http://www.gnu.org/licenses/>.
+ */
+
+package com.berryworks.edireader.util.sax;
+
+/**
+ * Constants describing the binary SAX event format written by SAXObjectHandler
+ * and replayed by SAXObjectReader.
+ * <p>
+ * A stream begins with the four MAGIC bytes and a VERSION byte, followed by a sequence of events.
+ * Each event is a one-byte opcode and its operands. Integers are unsigned varints, seven bits per byte,
+ * least significant group first. Character data is a varint count followed by each char as a varint,
+ * so ASCII text takes one byte per char.
+ * <p>
+ * Names, attribute types, and short attribute values are written as string references into a table
+ * that is built up as the stream is written and read, so that a repeated string such as an element Id
+ * is written in full only once. A string reference is a varint: NULL_STRING, a LITERAL_STRING or NEW_STRING
+ * followed by the string's characters, or TABLE_BASE plus the index of a string already in the table.
+ */
+final class SAXEventFormat {
+    static final byte[] MAGIC = {'B', 'W', 'S', 'X'};
+    static final int VERSION = 1;
+
+    static final int START_DOCUMENT = 1;
+    static final int END_DOCUMENT = 2;
+    // uri, localName, qName, attribute count, and uri/localName/qName/type/value for each attribute
+    static final int START_ELEMENT = 3;
+    // Ends the most recently started element, whose names are not repeated
+    static final int END_ELEMENT = 4;
+    // uri, localName, qName, for an endElement that does not match the most recent startElement
+    static final int END_ELEMENT_NAMED = 5;
+    static final int CHARACTERS = 6;
+    static final int END_OF_STREAM = 7;
+    // target, data
+    static final int PROCESSING_INSTRUCTION = 8;
+
+    static final int NULL_STRING = 0;
+    static final int LITERAL_STRING = 1;
+    static final int NEW_STRING = 2;
+    static final int TABLE_BASE = 3;
+
+    // Strings longer than this, or beyond this many table entries, are written as literals
+    static final int MAX_TABLE_STRING_LENGTH = 32;
+    static final int MAX_TABLE_SIZE = 8192;
+
+    private SAXEventFormat() {
+    }
+}
@@ -25,22 +25,42 @@ import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
 import java.io.IOException;
-import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.berryworks.edireader.util.sax.SAXEventFormat.*;
 
 /**
  * This implementation of a SAX ContentHandler
  * turns the sequence of SAX method calls received from
- * a parser into a stream of serialized Java objects.
+ * a parser into a compact binary stream that can be replayed
+ * with a SAXObjectReader.
+ * <p>
+ * Earlier versions wrote a stream of serialized Java objects, one per SAX call.
+ * The binary format, described in SAXEventFormat, is much smaller and faster to write and read,
+ * and does not depend on the layout of the SAXObject classes.
+ * Output is buffered, and the OutputStream is flushed at endDocument() and markEndOfStream().
  */
 public class SAXObjectHandler extends DefaultHandler {
 
-    private final ObjectOutputStream objectStream;
+    private final OutputStream outputStream;
+    private final byte[] buffer = new byte[8192];
+    private int position;
+    private final Map<String, Integer> stringTable = new HashMap<>();
+    // Names of the open elements, three per element
+    private String[] elementStack = new String[3 * 32];
+    private int elementStackSize;
     private int sAXEventsWritten;
     private boolean disabled;
 
     public SAXObjectHandler(OutputStream outputStream) throws IOException {
-        objectStream = new ObjectOutputStream(outputStream);
+        this.outputStream = outputStream;
+        for (byte b : MAGIC) {
+            writeByte(b);
+        }
+        writeByte(VERSION);
     }
 
     @Override
@@ -49,7 +69,7 @@ public class SAXObjectHandler extends DefaultHandler {
             return;
 
         try {
-            objectStream.writeObject(new SAXStartDocument());
+            writeByte(START_DOCUMENT);
             sAXEventsWritten++;
         } catch (IOException e) {
             e.printStackTrace();
@@ -63,8 +83,9 @@ public class SAXObjectHandler extends DefaultHandler {
             return;
 
         try {
-            objectStream.writeObject(new SAXEndDocument());
+            writeByte(END_DOCUMENT);
             sAXEventsWritten++;
+            flush();
         } catch (IOException e) {
             e.printStackTrace();
             disable();
@@ -77,7 +98,26 @@ public class SAXObjectHandler extends DefaultHandler {
             return;
 
         try {
-            objectStream.writeObject(new SAXStartElement(uri, localName, qName, attributes));
+            writeByte(START_ELEMENT);
+            writeStringReference(uri);
+            writeStringReference(localName);
+            writeStringReference(qName);
+            int n = attributes == null ? 0 : attributes.getLength();
+            writeVarint(n);
+            for (int i = 0; i < n; i++) {
+                writeStringReference(attributes.getURI(i));
+                writeStringReference(attributes.getLocalName(i));
+                writeStringReference(attributes.getQName(i));
+                writeStringReference(attributes.getType(i));
+                writeStringReference(attributes.getValue(i));
+            }
+
+            if (elementStackSize + 3 > elementStack.length) {
+                elementStack = Arrays.copyOf(elementStack, elementStack.length * 2);
+            }
+            elementStack[elementStackSize++] = uri;
+            elementStack[elementStackSize++] = localName;
+            elementStack[elementStackSize++] = qName;
             sAXEventsWritten++;
         } catch (IOException e) {
             e.printStackTrace();
@@ -91,7 +131,22 @@ public class SAXObjectHandler extends DefaultHandler {
             return;
 
         try {
-            objectStream.writeObject(new SAXEndElement(uri, localName, qName));
+            int n = elementStackSize;
+            if (n >= 3 &&
+                    same(uri, elementStack[n - 3]) &&
+                    same(localName, elementStack[n - 2]) &&
+                    same(qName, elementStack[n - 1])) {
+                writeByte(END_ELEMENT);
+            } else {
+                writeByte(END_ELEMENT_NAMED);
+                writeStringReference(uri);
+                writeStringReference(localName);
+                writeStringReference(qName);
+            }
+            if (n >= 3) {
+                elementStackSize -= 3;
+                Arrays.fill(elementStack, elementStackSize, n, null);
+            }
             sAXEventsWritten++;
         } catch (IOException e) {
             e.printStackTrace();
@@ -105,7 +160,40 @@ public class SAXObjectHandler extends DefaultHandler {
             return;
 
         try {
-            objectStream.writeObject(new SAXCharacters(ch, start, length));
+            writeByte(CHARACTERS);
+            writeVarint(length);
+            for (int i = start, end = start + length; i < end; i++) {
+                if (buffer.length - position < 3) {
+                    flushBuffer();
+                }
+                char c = ch[i];
+                if (c < 0x80) {
+                    buffer[position++] = (byte) c;
+                } else if (c < 0x4000) {
+                    buffer[position++] = (byte) (c | 0x80);
+                    buffer[position++] = (byte) (c >>> 7);
+                } else {
+                    buffer[position++] = (byte) (c | 0x80);
+                    buffer[position++] = (byte) ((c >>> 7) | 0x80);
+                    buffer[position++] = (byte) (c >>> 14);
+                }
+            }
+            sAXEventsWritten++;
+        } catch (IOException e) {
+            e.printStackTrace();
+            disable();
+        }
+    }
+
+    @Override
+    public void processingInstruction(String target, String data) throws SAXException {
+        if (disabled)
+            return;
+
+        try {
+            writeByte(PROCESSING_INSTRUCTION);
+            writeStringReference(target);
+            writeStringReference(data);
             sAXEventsWritten++;
         } catch (IOException e) {
             e.printStackTrace();
@@ -121,15 +209,77 @@ public class SAXObjectHandler extends DefaultHandler {
         if (disabled)
             return;
 
-        objectStream.writeObject(new SAXEndOfStreamMarker());
+        writeByte(END_OF_STREAM);
+        flush();
     }
 
     public void disable() {
         disabled = true;
         try {
-            objectStream.close();
+            outputStream.close();
         } catch (IOException ignore) {
         }
     }
 
+    private static boolean same(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private void writeStringReference(String s) throws IOException {
+        if (s == null) {
+            writeVarint(NULL_STRING);
+            return;
+        }
+
+        Integer index = stringTable.get(s);
+        if (index != null) {
+            writeVarint(TABLE_BASE + index);
+        } else if (s.length() <= MAX_TABLE_STRING_LENGTH && stringTable.size() < MAX_TABLE_SIZE) {
+            stringTable.put(s, stringTable.size());
+            writeVarint(NEW_STRING);
+            writeString(s);
+        } else {
+            writeVarint(LITERAL_STRING);
+            writeString(s);
+        }
+    }
+
+    private void writeString(String s) throws IOException {
+        int n = s.length();
+        writeVarint(n);
+        for (int i = 0; i < n; i++) {
+            writeVarint(s.charAt(i));
+        }
+    }
+
+    private void writeVarint(int value) throws IOException {
+        if (buffer.length - position < 5) {
+            flushBuffer();
+        }
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeByte(int b) throws IOException {
+        if (position == buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    private void flush() throws IOException {
+        flushBuffer();
+        outputStream.flush();
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            outputStream.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
 }
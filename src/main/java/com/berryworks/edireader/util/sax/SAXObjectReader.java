@@ -21,21 +21,41 @@
 package com.berryworks.edireader.util.sax;
 
 import org.xml.sax.*;
+import org.xml.sax.helpers.AttributesImpl;
 
-import java.io.EOFException;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.ObjectInputStream;
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.berryworks.edireader.util.sax.SAXEventFormat.*;
 
 /**
  * This class implements a playback facility so that
- * a stream of SAXObjects can be used to make calls to
+ * a stream of SAX events recorded by a SAXObjectHandler can be used to make calls to
  * an arbitrary SAX ContentHandler.
+ * <p>
+ * Each call to parse() replays events through the next endDocument(). When the end of the
+ * recorded stream is reached, an EOFException is thrown. The Attributes and char arrays passed to
+ * the ContentHandler are reused from one call to the next, as the SAX contract allows, so a replay
+ * allocates little beyond the strings that are recorded only once in the stream's string table.
+ * <p>
+ * Streams of serialized SAXObjects, written by earlier versions of SAXObjectHandler,
+ * are recognized and replayed as well.
  */
 public class SAXObjectReader implements XMLReader {
 
     private ContentHandler contentHandler;
-    private ObjectInputStream inputStream;
+    private InputStream inputStream;
+    private ObjectInputStream legacyInputStream;
+    private final byte[] buffer = new byte[8192];
+    private int position, limit;
+    private final List<String> stringTable = new ArrayList<>();
+    private final AttributesImpl attributes = new AttributesImpl();
+    private char[] chars = new char[256];
+    // Names of the open elements, three per element
+    private String[] elementStack = new String[3 * 32];
+    private int elementStackSize;
 
     public void setContentHandler(ContentHandler contentHandler) {
         this.contentHandler = contentHandler;
@@ -52,12 +72,111 @@ public class SAXObjectReader implements XMLReader {
           used on the previous call.
          */
         if (inputStream == null) {
-            inputStream = new ObjectInputStream(input.getByteStream());
+            inputStream = input.getByteStream();
+            readStreamHeader();
+        }
+
+        if (legacyInputStream != null) {
+            parseLegacy();
+            return;
+        }
+
+        while (true) {
+            int opcode = readByte();
+            switch (opcode) {
+                case START_DOCUMENT:
+                    contentHandler.startDocument();
+                    break;
+                case END_DOCUMENT:
+                    contentHandler.endDocument();
+                    return;
+                case START_ELEMENT:
+                    startElement();
+                    break;
+                case END_ELEMENT:
+                    if (elementStackSize < 3) {
+                        throw new IOException("Recorded SAX events end an element that was not started");
+                    }
+                    elementStackSize -= 3;
+                    contentHandler.endElement(
+                            elementStack[elementStackSize],
+                            elementStack[elementStackSize + 1],
+                            elementStack[elementStackSize + 2]);
+                    break;
+                case END_ELEMENT_NAMED:
+                    String uri = readStringReference();
+                    String localName = readStringReference();
+                    String qName = readStringReference();
+                    if (elementStackSize >= 3) {
+                        elementStackSize -= 3;
+                    }
+                    contentHandler.endElement(uri, localName, qName);
+                    break;
+                case CHARACTERS:
+                    int length = readString();
+                    contentHandler.characters(chars, 0, length);
+                    break;
+                case PROCESSING_INSTRUCTION:
+                    String target = readStringReference();
+                    contentHandler.processingInstruction(target, readStringReference());
+                    break;
+                case END_OF_STREAM:
+                    throw new EOFException();
+                default:
+                    throw new IOException("Unexpected event code " + opcode + " in recorded SAX events");
+            }
+        }
+    }
+
+    private void startElement() throws IOException, SAXException {
+        String uri = readStringReference();
+        String localName = readStringReference();
+        String qName = readStringReference();
+        int n = readVarint();
+        attributes.clear();
+        for (int i = 0; i < n; i++) {
+            attributes.addAttribute(
+                    readStringReference(),
+                    readStringReference(),
+                    readStringReference(),
+                    readStringReference(),
+                    readStringReference());
+        }
+
+        if (elementStackSize + 3 > elementStack.length) {
+            elementStack = Arrays.copyOf(elementStack, elementStack.length * 2);
+        }
+        elementStack[elementStackSize++] = uri;
+        elementStack[elementStackSize++] = localName;
+        elementStack[elementStackSize++] = qName;
+
+        contentHandler.startElement(uri, localName, qName, attributes);
+    }
+
+    private void readStreamHeader() throws IOException {
+        ensureAvailable(2);
+        if ((buffer[position] & 0xFF) == 0xAC && (buffer[position + 1] & 0xFF) == 0xED) {
+            // A stream of serialized Java objects
+            InputStream alreadyRead = new ByteArrayInputStream(buffer, position, limit - position);
+            legacyInputStream = new ObjectInputStream(new SequenceInputStream(alreadyRead, inputStream));
+            return;
+        }
+
+        for (byte b : MAGIC) {
+            if (readByte() != b) {
+                throw new IOException("Input is not a stream of recorded SAX events");
+            }
         }
+        int version = readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported version " + version + " of recorded SAX events");
+        }
+    }
 
+    private void parseLegacy() throws IOException, SAXException {
         try {
             while (true) {
-                Object o = inputStream.readObject();
+                Object o = legacyInputStream.readObject();
                 if (o == null) {
                     throw new EOFException();
                 }
@@ -75,6 +194,94 @@ public class SAXObjectReader implements XMLReader {
         }
     }
 
+    private String readStringReference() throws IOException {
+        int reference = readVarint();
+        switch (reference) {
+            case NULL_STRING:
+                return null;
+            case LITERAL_STRING:
+                return new String(chars, 0, readString());
+            case NEW_STRING:
+                String s = new String(chars, 0, readString());
+                stringTable.add(s);
+                return s;
+            default:
+                int index = reference - TABLE_BASE;
+                if (index >= stringTable.size()) {
+                    throw new IOException("Invalid string reference in recorded SAX events");
+                }
+                return stringTable.get(index);
+        }
+    }
+
+    /**
+     * Read a count and that many chars into the chars array.
+     *
+     * @return number of chars read
+     */
+    private int readString() throws IOException {
+        int length = readVarint();
+        if (length > chars.length) {
+            chars = new char[Math.max(length, 2 * chars.length)];
+        }
+        for (int i = 0; i < length; i++) {
+            if (limit - position >= 3) {
+                // Fast path, with no need to check for the end of the buffer
+                int b = buffer[position++];
+                if (b >= 0) {
+                    chars[i] = (char) b;
+                } else {
+                    int c = b & 0x7F;
+                    b = buffer[position++];
+                    if (b >= 0) {
+                        chars[i] = (char) (c | b << 7);
+                    } else {
+                        chars[i] = (char) (c | (b & 0x7F) << 7 | buffer[position++] << 14);
+                    }
+                }
+            } else {
+                chars[i] = (char) readVarint();
+            }
+        }
+        return length;
+    }
+
+    private int readVarint() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed integer in recorded SAX events");
+    }
+
+    private int readByte() throws IOException {
+        if (position == limit) {
+            ensureAvailable(1);
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    private void ensureAvailable(int n) throws IOException {
+        if (limit - position >= n) return;
+
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        while (limit < n) {
+            int count = inputStream.read(buffer, limit, buffer.length - limit);
+            if (count < 0) {
+                throw new EOFException();
+            }
+            limit += count;
+        }
+    }
+
     public boolean getFeature(String name) throws SAXNotRecognizedException, SAXNotSupportedException {
         return false;
     }
@@ -103,7 +103,8 @@ public class StackedContentHandler extends DefaultHandler {
             if (tag.equals(stackedItem.getLocalName())) {
                 EDIAttributes attributes = stackedItem.getAttributes();
                 attributes.addCDATA(attributeName, data);
-                logger.trace("Added {}={} to {}", attributeName, data, tag);
+                if (logger.isTraceEnabled())
+                    logger.trace("Added {}={} to {}", attributeName, data, tag);
                 return;
             }
         }
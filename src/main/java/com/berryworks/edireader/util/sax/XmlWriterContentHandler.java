@@ -0,0 +1,295 @@
+/*
+ * Copyright 2005-2026 by BerryWorks Software, LLC. All rights reserved.
+ *
+ * This file is part of EDIReader. You may obtain a license for its use directly from
+ * BerryWorks Software, and you may also choose to use this software under the terms of the
+ * GPL version 3. Other products in the EDIReader software suite are available only by licensing
+ * with BerryWorks. Only those files bearing the GPL statement below are available under the GPL.
+ *
+ * EDIReader is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * EDIReader is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with EDIReader.  If not,
+ * see <http://www.gnu.org/licenses/>.
+ */
+
+package com.berryworks.edireader.util.sax;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * A SAX ContentHandler that serializes the events it receives as XML text.
+ * <p>
+ * This is a lightweight alternative to feeding EDIReader through the JAXP identity Transformer.
+ * Markup and escaped character data are written into a large char buffer, and indentation, if enabled,
+ * is generated as the elements are written instead of by re-scanning the text afterward with an XmlFormatter.
+ * <p>
+ * The output is the same as that of the identity Transformer: an XML declaration followed by the
+ * elements, with empty elements written in the short form. The underlying Writer is flushed, but not
+ * closed, at endDocument().
+ */
+public class XmlWriterContentHandler extends BufferedWriterContentHandler {
+    private final static String SEPARATOR = System.getProperty("line.separator");
+    private final static String INDENT = "    ";
+
+    private boolean indent;
+    private String encoding = "UTF-8";
+
+    // Depth of the element currently open, with the root at 1
+    private int depth;
+    // True while the '>' of the most recent start tag has not yet been written
+    private boolean startTagOpen;
+    // Per-depth state, indexed by depth
+    private boolean[] hasChildElements = new boolean[32];
+    private boolean[] hasText = new boolean[32];
+    private String[] defaultNamespace = new String[32];
+    // Namespace declarations from startPrefixMapping(), to be written on the next start tag
+    private String[] pendingPrefixes = new String[4];
+    private String[] pendingUris = new String[4];
+    private int pendingCount;
+
+    public XmlWriterContentHandler(Writer writer) {
+        this(writer, false);
+    }
+
+    public XmlWriterContentHandler(Writer writer, boolean indent) {
+        this(writer, indent, DEFAULT_BUFFER_SIZE);
+    }
+
+    public XmlWriterContentHandler(Writer writer, boolean indent, int bufferSize) {
+        super(writer, bufferSize);
+        this.indent = indent;
+        defaultNamespace[0] = "";
+    }
+
+    public boolean isIndent() {
+        return indent;
+    }
+
+    public void setIndent(boolean indent) {
+        this.indent = indent;
+    }
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Set the encoding name declared in the XML declaration. This class writes chars,
+     * so the actual encoding is determined by the Writer; the default is UTF-8.
+     *
+     * @param encoding name of the encoding, or null to omit the encoding from the XML declaration
+     */
+    public void setEncoding(String encoding) {
+        this.encoding = encoding;
+    }
+
+    @Override
+    public void startDocument() throws SAXException {
+        depth = 0;
+        startTagOpen = false;
+        pendingCount = 0;
+        hasChildElements[0] = false;
+        hasText[0] = false;
+        write("<?xml version=\"1.0\"");
+        if (encoding != null) {
+            write(" encoding=\"");
+            write(encoding);
+            write('"');
+        }
+        write("?>");
+    }
+
+    @Override
+    public void endDocument() throws SAXException {
+        closeStartTag();
+        flush();
+    }
+
+    @Override
+    public void startPrefixMapping(String prefix, String uri) {
+        if (pendingCount == pendingPrefixes.length) {
+            pendingPrefixes = Arrays.copyOf(pendingPrefixes, pendingCount * 2);
+            pendingUris = Arrays.copyOf(pendingUris, pendingCount * 2);
+        }
+        pendingPrefixes[pendingCount] = prefix == null ? "" : prefix;
+        pendingUris[pendingCount++] = uri == null ? "" : uri;
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+        closeStartTag();
+        hasChildElements[depth] = true;
+        if (indent && !hasText[depth]) {
+            newLine(depth);
+        }
+
+        if (++depth == hasText.length) {
+            hasChildElements = Arrays.copyOf(hasChildElements, depth * 2);
+            hasText = Arrays.copyOf(hasText, depth * 2);
+            defaultNamespace = Arrays.copyOf(defaultNamespace, depth * 2);
+        }
+        hasChildElements[depth] = false;
+        hasText[depth] = false;
+        defaultNamespace[depth] = defaultNamespace[depth - 1];
+
+        String name = (qName == null || qName.isEmpty()) ? localName : qName;
+        write('<');
+        write(name);
+
+        for (int i = 0; i < pendingCount; i++) {
+            String prefix = pendingPrefixes[i];
+            if (prefix.isEmpty()) {
+                defaultNamespace[depth] = pendingUris[i];
+                writeAttribute("xmlns", pendingUris[i]);
+            } else {
+                writeAttribute("xmlns:" + prefix, pendingUris[i]);
+            }
+        }
+        pendingCount = 0;
+
+        // An element in a namespace that was not declared by startPrefixMapping()
+        // becomes the default namespace for itself and its descendants.
+        if (uri != null && !uri.isEmpty() && name.indexOf(':') < 0 && !uri.equals(defaultNamespace[depth])) {
+            defaultNamespace[depth] = uri;
+            writeAttribute("xmlns", uri);
+        }
+
+        if (attributes != null) {
+            for (int i = 0, n = attributes.getLength(); i < n; i++) {
+                String attributeName = attributes.getQName(i);
+                if (attributeName == null || attributeName.isEmpty()) {
+                    attributeName = attributes.getLocalName(i);
+                }
+                writeAttribute(attributeName, attributes.getValue(i));
+            }
+        }
+        startTagOpen = true;
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        if (startTagOpen) {
+            write("/>");
+            startTagOpen = false;
+        } else {
+            if (indent && hasChildElements[depth] && !hasText[depth]) {
+                newLine(depth - 1);
+            }
+            write("</");
+            write((qName == null || qName.isEmpty()) ? localName : qName);
+            write('>');
+        }
+        depth--;
+    }
+
+    @Override
+    public void characters(char[] chars, int start, int length) throws SAXException {
+        if (length == 0) return;
+        closeStartTag();
+        hasText[depth] = true;
+
+        int end = start + length;
+        for (int i = start; i < end; i++) {
+            reserve(8);
+            char c = chars[i];
+            switch (c) {
+                case '<':
+                    append("&lt;");
+                    break;
+                case '>':
+                    append("&gt;");
+                    break;
+                case '&':
+                    append("&amp;");
+                    break;
+                case '\r':
+                    append("&#13;");
+                    break;
+                default:
+                    if (c < 0x20 && c != '\t' && c != '\n') {
+                        appendCharacterReference(c);
+                    } else {
+                        buffer[position++] = c;
+                    }
+            }
+        }
+    }
+
+    @Override
+    public void ignorableWhitespace(char[] chars, int start, int length) throws SAXException {
+        characters(chars, start, length);
+    }
+
+    private void closeStartTag() throws SAXException {
+        if (startTagOpen) {
+            write('>');
+            startTagOpen = false;
+        }
+    }
+
+    private void newLine(int indentLevel) throws SAXException {
+        write(SEPARATOR);
+        for (int i = 0; i < indentLevel; i++) {
+            write(INDENT);
+        }
+    }
+
+    private void writeAttribute(String name, String value) throws SAXException {
+        write(' ');
+        write(name);
+        write("=\"");
+        if (value != null) {
+            for (int i = 0, n = value.length(); i < n; i++) {
+                reserve(8);
+                char c = value.charAt(i);
+                switch (c) {
+                    case '<':
+                        append("&lt;");
+                        break;
+                    case '>':
+                        append("&gt;");
+                        break;
+                    case '&':
+                        append("&amp;");
+                        break;
+                    case '"':
+                        append("&quot;");
+                        break;
+                    case '\n':
+                    case '\r':
+                    case '\t':
+                        appendCharacterReference(c);
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            appendCharacterReference(c);
+                        } else {
+                            buffer[position++] = c;
+                        }
+                }
+            }
+        }
+        write('"');
+    }
+
+    // Caller has reserved room for at least 5 chars; c is always below 0x20
+    private void appendCharacterReference(char c) {
+        buffer[position++] = '&';
+        buffer[position++] = '#';
+        if (c >= 10) {
+            buffer[position++] = (char) ('0' + c / 10);
+        }
+        buffer[position++] = (char) ('0' + c % 10);
+        buffer[position++] = ';';
+    }
+}
@@ -0,0 +1,472 @@
+/*
+ * Copyright 2005-2026 by BerryWorks Software, LLC. All rights reserved.
+ *
+ * This file is part of EDIReader. You may obtain a license for its use directly from
+ * BerryWorks Software, and you may also choose to use this software under the terms of the
+ * GPL version 3. Other products in the EDIReader software suite are available only by licensing
+ * with BerryWorks. Only those files bearing the GPL statement below are available under the GPL.
+ *
+ * EDIReader is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * EDIReader is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with EDIReader.  If not,
+ * see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.berryworks.edireader.writer;
+
+import com.berryworks.edireader.EDIStandard;
+import com.berryworks.edireader.EDISyntaxException;
+import com.berryworks.edireader.SyntaxDescriptor;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Writes ANSI X12 or EDIFACT segments, taking care of the syntax characters and the envelope.
+ * <p>
+ * A segment is written by calling startSegment() with the segment tag, element() for each element,
+ * subElement() for each additional component of a composite element, repetition() for each additional
+ * occurrence of a repeating element, and finally endSegment(). The segment() method does the same for a
+ * segment whose elements are simple values. Data is escaped with the release character where necessary;
+ * data that cannot be represented, such as a delimiter within an X12 element, causes an EDISyntaxException.
+ * <p>
+ * The interchange, group, and transaction headers (ISA, GS, and ST for X12; UNB, UNG, and UNH for EDIFACT) are
+ * written like any other segment, but their trailers are written by endTransaction(), endGroup(),
+ * and endInterchange(), which supply the segment, transaction, or group count and repeat the control number
+ * of the header. If the control number of a header is omitted or empty, a sequential one is generated.
+ * The ISA elements are padded to their fixed lengths, and a longer value causes an EDISyntaxException.
+ * ISA11 (when a repetition separator is in use) and ISA16 are set from the syntax characters. A UNA segment
+ * is written before the UNB when the syntax characters differ from the EDIFACT defaults.
+ * <p>
+ * Any syntax character that is not set in the SyntaxDescriptor takes the usual default for the standard:
+ * {@code * : ~} with no release character for X12 and {@code + : ? '} for EDIFACT. There is no repetition
+ * separator unless one is set. The terminator suffix, if any, follows each segment terminator.
+ * <p>
+ * Output is accumulated in a private char buffer and passed to the underlying Writer only when the buffer fills,
+ * or when flush() or close() is called.
+ */
+public class EdiWriter implements Flushable, Closeable {
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final int[] ISA_LENGTHS = {2, 10, 2, 10, 2, 15, 2, 15, 6, 4, 1, 5, 9, 1, 1, 1};
+
+    private final Writer writer;
+    private final char[] buffer;
+    private int position;
+    private final boolean ansi;
+
+    // Syntax characters, with -1 for none
+    private final char delimiter, subDelimiter, terminator;
+    private final int repetitionSeparator, release;
+    private final char decimalMark;
+    private final String terminatorSuffix;
+
+    // The segment being written
+    private String tag;
+    private int elementIndex;
+    private int controlElement;
+    private String controlNumber;
+
+    // Envelope state
+    private String interchangeControlNumber, groupControlNumber, transactionControlNumber;
+    private int segmentCount, transactionCount, groupCount;
+    private boolean inTransaction, inGroup, inInterchange;
+    private long nextInterchangeNumber = 1, nextGroupNumber = 1, nextTransactionNumber = 1;
+
+    public EdiWriter(Writer writer, EDIStandard standard) {
+        this(writer, standard, new SyntaxDescriptor());
+    }
+
+    public EdiWriter(Writer writer, EDIStandard standard, SyntaxDescriptor syntaxDescriptor) {
+        this(writer, standard, syntaxDescriptor, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Write to a channel, encoding the chars with a given Charset.
+     *
+     * @param channel          destination of the EDI
+     * @param charset          encoding of the EDI
+     * @param standard         ANSI or EDIFACT
+     * @param syntaxDescriptor syntax characters, with any that are not set taking the usual default
+     */
+    public EdiWriter(WritableByteChannel channel, Charset charset, EDIStandard standard, SyntaxDescriptor syntaxDescriptor) {
+        this(Channels.newWriter(channel, charset.newEncoder(), DEFAULT_BUFFER_SIZE), standard, syntaxDescriptor, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param writer           destination of the EDI
+     * @param standard         ANSI or EDIFACT
+     * @param syntaxDescriptor syntax characters, with any that are not set taking the usual default
+     * @param bufferSize       size of the internal char buffer
+     */
+    public EdiWriter(Writer writer, EDIStandard standard, SyntaxDescriptor syntaxDescriptor, int bufferSize) {
+        if (writer == null) {
+            throw new IllegalArgumentException("EdiWriter requires a non-null Writer");
+        }
+        if (standard != EDIStandard.ANSI && standard != EDIStandard.EDIFACT) {
+            throw new IllegalArgumentException("EdiWriter supports ANSI and EDIFACT, not " + standard);
+        }
+        this.writer = writer;
+        buffer = new char[Math.max(bufferSize, 256)];
+        ansi = standard == EDIStandard.ANSI;
+
+        SyntaxDescriptor sd = syntaxDescriptor == null ? new SyntaxDescriptor() : syntaxDescriptor;
+        delimiter = sd.getDelimiter() != 0 ? sd.getDelimiter() : ansi ? '*' : '+';
+        subDelimiter = sd.getSubDelimiter() != 0 ? sd.getSubDelimiter() : ':';
+        terminator = sd.getTerminator() != 0 ? sd.getTerminator() : ansi ? '~' : '\'';
+        repetitionSeparator = sd.getRepetitionSeparator() != 0 ? sd.getRepetitionSeparator() : -1;
+        release = ansi ? -1 : sd.getRelease() > 0 ? sd.getRelease() : sd.getRelease() < 0 ? -1 : '?';
+        decimalMark = sd.getDecimalMark() != 0 ? sd.getDecimalMark() : '.';
+        terminatorSuffix = sd.getTerminatorSuffix() == null ? "" : sd.getTerminatorSuffix();
+    }
+
+    /**
+     * Write a segment whose elements are simple values.
+     *
+     * @param tag      segment tag
+     * @param elements values of the elements, with null for an empty element
+     * @throws IOException        if the underlying Writer fails
+     * @throws EDISyntaxException if a value cannot be represented with the syntax characters
+     */
+    public void segment(String tag, String... elements) throws IOException, EDISyntaxException {
+        startSegment(tag);
+        for (String element : elements) {
+            element(element);
+        }
+        endSegment();
+    }
+
+    /**
+     * Begin a segment.
+     *
+     * @param tag segment tag
+     * @throws IOException if the underlying Writer fails
+     */
+    public void startSegment(String tag) throws IOException {
+        if (this.tag != null) {
+            throw new IllegalStateException("Segment " + this.tag + " has not been ended");
+        }
+        this.tag = tag;
+        elementIndex = 0;
+        controlNumber = null;
+        controlElement = 0;
+
+        if (ansi) {
+            switch (tag) {
+                case "ISA" -> startInterchange(13);
+                case "GS" -> startGroup(6);
+                case "ST" -> startTransaction(2);
+            }
+        } else {
+            switch (tag) {
+                case "UNB" -> {
+                    startInterchange(5);
+                    if (delimiter != '+' || subDelimiter != ':' || release != '?' || terminator != '\'' ||
+                        repetitionSeparator >= 0 || decimalMark != '.') {
+                        writeUNA();
+                    }
+                }
+                case "UNG" -> startGroup(5);
+                case "UNH" -> startTransaction(1);
+            }
+        }
+        if (inTransaction) segmentCount++;
+        write(tag);
+    }
+
+    /**
+     * Begin the next element of the current segment.
+     *
+     * @param value value of the element, or of its first component if it is a composite; may be null
+     * @throws IOException        if the underlying Writer fails
+     * @throws EDISyntaxException if the value cannot be represented with the syntax characters
+     */
+    public void element(String value) throws IOException, EDISyntaxException {
+        if (tag == null) {
+            throw new IllegalStateException("No segment has been started");
+        }
+        elementIndex++;
+        if (elementIndex == controlElement) {
+            if (value == null || value.isEmpty()) {
+                value = generateControlNumber();
+            } else if (ansi && "ISA".equals(tag) && value.length() < ISA_LENGTHS[12]) {
+                // ISA13 is numeric, so a short control number is padded on the left with zeros
+                value = "0".repeat(ISA_LENGTHS[12] - value.length()) + value;
+            }
+            controlNumber = value;
+        }
+        write(delimiter);
+        if (ansi && "ISA".equals(tag)) {
+            writeISAElement(value);
+        } else {
+            writeData(value);
+        }
+    }
+
+    /**
+     * Add another component to the current composite element.
+     *
+     * @param value value of the component; may be null
+     * @throws IOException        if the underlying Writer fails
+     * @throws EDISyntaxException if the value cannot be represented with the syntax characters
+     */
+    public void subElement(String value) throws IOException, EDISyntaxException {
+        write(subDelimiter);
+        writeData(value);
+    }
+
+    /**
+     * Add another occurrence of the current repeating element.
+     *
+     * @param value value of the occurrence, or of its first component; may be null
+     * @throws IOException        if the underlying Writer fails
+     * @throws EDISyntaxException if the value cannot be represented with the syntax characters,
+     *                            or if there is no repetition separator
+     */
+    public void repetition(String value) throws IOException, EDISyntaxException {
+        if (repetitionSeparator < 0) {
+            throw new EDISyntaxException("No repetition separator is available for a repeated " + tag + " element");
+        }
+        write((char) repetitionSeparator);
+        writeData(value);
+    }
+
+    /**
+     * End the current segment.
+     *
+     * @throws IOException        if the underlying Writer fails
+     * @throws EDISyntaxException if a generated control number cannot be represented
+     */
+    public void endSegment() throws IOException, EDISyntaxException {
+        if (tag == null) {
+            throw new IllegalStateException("No segment has been started");
+        }
+        int lastElement = ansi && "ISA".equals(tag) ? ISA_LENGTHS.length : controlElement;
+        while (elementIndex < lastElement) {
+            element(null);
+        }
+        if (controlElement > 0) {
+            switch (tag) {
+                case "ISA", "UNB" -> interchangeControlNumber = controlNumber;
+                case "GS", "UNG" -> groupControlNumber = controlNumber;
+                default -> transactionControlNumber = controlNumber;
+            }
+        }
+        tag = null;
+        writeTerminator();
+    }
+
+    /**
+     * Write the SE or UNT segment that ends the current transaction.
+     *
+     * @throws IOException        if the underlying Writer fails
+     * @throws EDISyntaxException if the control number cannot be represented
+     */
+    public void endTransaction() throws IOException, EDISyntaxException {
+        if (!inTransaction) {
+            throw new IllegalStateException("No transaction has been started");
+        }
+        segment(ansi ? "SE" : "UNT", String.valueOf(segmentCount + 1), transactionControlNumber);
+        inTransaction = false;
+    }
+
+    /**
+     * Write the GE or UNE segment that ends the current group.
+     *
+     * @throws IOException        if the underlying Writer fails
+     * @throws EDISyntaxException if the control number cannot be represented
+     */
+    public void endGroup() throws IOException, EDISyntaxException {
+        if (inTransaction) endTransaction();
+        if (!inGroup) {
+            throw new IllegalStateException("No group has been started");
+        }
+        segment(ansi ? "GE" : "UNE", String.valueOf(transactionCount), groupControlNumber);
+        inGroup = false;
+    }
+
+    /**
+     * Write the IEA or UNZ segment that ends the current interchange. The count is the number
+     * of groups, or for an EDIFACT interchange without groups, the number of messages.
+     *
+     * @throws IOException        if the underlying Writer fails
+     * @throws EDISyntaxException if the control number cannot be represented
+     */
+    public void endInterchange() throws IOException, EDISyntaxException {
+        if (inGroup) endGroup();
+        else if (inTransaction) endTransaction();
+        if (!inInterchange) {
+            throw new IllegalStateException("No interchange has been started");
+        }
+        segment(ansi ? "IEA" : "UNZ", String.valueOf(groupCount > 0 ? groupCount : transactionCount), interchangeControlNumber);
+        inInterchange = false;
+    }
+
+    /**
+     * Returns the number of segments written so far in the current transaction, including the header.
+     *
+     * @return number of segments
+     */
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        writer.flush();
+    }
+
+    /**
+     * Flush and close the underlying Writer.
+     * No trailers are written; call endInterchange() first to complete the interchange.
+     */
+    @Override
+    public void close() throws IOException {
+        flushBuffer();
+        writer.close();
+    }
+
+    private void startInterchange(int controlElement) {
+        this.controlElement = controlElement;
+        inInterchange = true;
+        inGroup = inTransaction = false;
+        groupCount = transactionCount = 0;
+    }
+
+    private void startGroup(int controlElement) {
+        this.controlElement = controlElement;
+        inGroup = true;
+        inTransaction = false;
+        groupCount++;
+        transactionCount = 0;
+    }
+
+    private void startTransaction(int controlElement) {
+        this.controlElement = controlElement;
+        inTransaction = true;
+        transactionCount++;
+        segmentCount = 0;
+    }
+
+    private String generateControlNumber() {
+        return switch (tag) {
+            case "ISA" -> String.format("%09d", nextInterchangeNumber++ % 1000000000L);
+            case "ST" -> String.format("%04d", nextTransactionNumber++);
+            case "GS", "UNG" -> String.valueOf(nextGroupNumber++);
+            case "UNB" -> String.valueOf(nextInterchangeNumber++);
+            default -> String.valueOf(nextTransactionNumber++);
+        };
+    }
+
+    private void writeISAElement(String value) throws IOException, EDISyntaxException {
+        int length = ISA_LENGTHS[Math.min(elementIndex, ISA_LENGTHS.length) - 1];
+        if (elementIndex == 11 && repetitionSeparator >= 0) {
+            write((char) repetitionSeparator);
+        } else if (elementIndex == 16) {
+            write(subDelimiter);
+        } else {
+            if (value == null) value = "";
+            if (value.length() > length) {
+                throw new EDISyntaxException(String.format("ISA%02d value '%s' is longer than %d characters",
+                        elementIndex, value, length));
+            }
+            writeData(value);
+            for (int i = value.length(); i < length; i++) {
+                write(' ');
+            }
+        }
+    }
+
+    private void writeUNA() throws IOException {
+        write("UNA");
+        write(subDelimiter);
+        write(delimiter);
+        write(decimalMark);
+        write(release < 0 ? ' ' : (char) release);
+        write(repetitionSeparator < 0 ? ' ' : (char) repetitionSeparator);
+        writeTerminator();
+    }
+
+    private void writeTerminator() throws IOException {
+        write(terminator);
+        write(terminatorSuffix);
+    }
+
+    private void writeData(String value) throws IOException, EDISyntaxException {
+        if (value == null) return;
+        int n = value.length();
+        if (buffer.length - position < 2 * n) {
+            flushBuffer();
+        }
+        if (buffer.length < 2 * n) {
+            // A value this large is written in pieces
+            for (int i = 0; i < n; i++) {
+                writeDataChar(value.charAt(i));
+            }
+            return;
+        }
+        for (int i = 0; i < n; i++) {
+            char c = value.charAt(i);
+            if (c == delimiter || c == subDelimiter || c == terminator || c == repetitionSeparator || c == release) {
+                escape(c);
+            }
+            buffer[position++] = c;
+        }
+    }
+
+    private void writeDataChar(char c) throws IOException, EDISyntaxException {
+        if (c == delimiter || c == subDelimiter || c == terminator || c == repetitionSeparator || c == release) {
+            if (position == buffer.length) flushBuffer();
+            escape(c);
+        }
+        write(c);
+    }
+
+    // Caller has ensured room for the release character
+    private void escape(char c) throws EDISyntaxException {
+        if (release < 0) {
+            throw new EDISyntaxException("Data character '" + c + "' in " + tag +
+                                         " cannot be represented without a release character");
+        }
+        buffer[position++] = (char) release;
+    }
+
+    private void write(char c) throws IOException {
+        if (position == buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = c;
+    }
+
+    private void write(String s) throws IOException {
+        int n = s.length();
+        if (n > buffer.length - position) {
+            flushBuffer();
+            if (n > buffer.length) {
+                writer.write(s);
+                return;
+            }
+        }
+        s.getChars(0, n, buffer, position);
+        position += n;
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position == 0) return;
+        writer.write(buffer, 0, position);
+        position = 0;
+    }
+}
@@ -0,0 +1,440 @@
+/*
+ * Copyright 2005-2026 by BerryWorks Software, LLC. All rights reserved.
+ *
+ * This file is part of EDIReader. You may obtain a license for its use directly from
+ * BerryWorks Software, and you may also choose to use this software under the terms of the
+ * GPL version 3. Other products in the EDIReader software suite are available only by licensing
+ * with BerryWorks. Only those files bearing the GPL statement below are available under the GPL.
+ *
+ * EDIReader is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * EDIReader is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with EDIReader.  If not,
+ * see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.berryworks.edireader.writer;
+
+import com.berryworks.edireader.DefaultXMLTags;
+import com.berryworks.edireader.EDIAttributes;
+import com.berryworks.edireader.EDIStandard;
+import com.berryworks.edireader.SyntaxDescriptor;
+import com.berryworks.edireader.XMLTags;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A SAX ContentHandler that writes EDI from the XML vocabulary emitted by EDIReader,
+ * so that EDI that has been parsed into XML, and perhaps transformed, can be turned back into EDI.
+ * <p>
+ * The interchange, group, and transaction elements become the ISA/GS/ST or UNB/UNG/UNH envelope segments,
+ * using their attributes and the sender and receiver addresses, and the matching trailers are written with
+ * counts computed by an EdiWriter. An EDIFACT group element without attributes, as EDIReader emits for messages
+ * that are not enclosed in a UNG, produces no UNG or UNE. Each segment element becomes a segment, with its elements
+ * placed according to the number at the end of their Id attributes; consecutive elements with the same Id are
+ * written as repetitions, and the subelements of a composite are placed according to their Sequence attributes.
+ * Loop elements, and any other elements not listed here, are ignored.
+ * <p>
+ * The syntax characters are taken from the SyntaxDescriptor, if one is given, and otherwise from the
+ * ElementDelimiter, SubElementDelimiter, SegmentTerminator, RepetitionSeparator, and Decimal attributes of the
+ * interchange, if present, and otherwise are the usual defaults for the standard.
+ * EDI is written as the events arrive, and only the current interchange header is retained,
+ * so memory use does not depend on the size of the input. The Writer is flushed, but not closed, at endDocument().
+ */
+public class EdiWriterContentHandler extends DefaultHandler {
+
+    private final Writer writer;
+    private final SyntaxDescriptor syntaxDescriptor;
+    private final XMLTags xmlTags;
+    private EdiWriter ediWriter;
+    private String ediWriterKey;
+    private boolean ansi;
+
+    // The interchange header, held until the sender and receiver are known
+    private EDIAttributes interchangeAttributes;
+    private String[] sender, receiver;
+    private boolean inSender, inReceiver;
+    private boolean headerPending;
+    private boolean groupWritten;
+
+    // The segment being written
+    private String segmentTag;
+    private String elementId;
+    private int elementIndex;
+    private int subElementIndex;
+    private boolean composite;
+    // True until the current element, or occurrence of a repeating element, has been begun
+    private boolean pending, pendingRepetition;
+    private boolean inElement, inSubElement;
+    private final StringBuilder text = new StringBuilder();
+
+    public EdiWriterContentHandler(Writer writer) {
+        this(writer, null);
+    }
+
+    public EdiWriterContentHandler(Writer writer, SyntaxDescriptor syntaxDescriptor) {
+        this(writer, syntaxDescriptor, DefaultXMLTags.getInstance());
+    }
+
+    /**
+     * @param writer           destination of the EDI
+     * @param syntaxDescriptor syntax characters for the EDI, or null to use those described in the XML
+     * @param xmlTags          vocabulary of the XML elements emitted by EDIReader
+     */
+    public EdiWriterContentHandler(Writer writer, SyntaxDescriptor syntaxDescriptor, XMLTags xmlTags) {
+        if (writer == null) {
+            throw new IllegalArgumentException("EdiWriterContentHandler requires a non-null Writer");
+        }
+        this.writer = writer;
+        this.syntaxDescriptor = syntaxDescriptor;
+        this.xmlTags = xmlTags == null ? DefaultXMLTags.getInstance() : xmlTags;
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+        String tag = nameOf(localName, qName);
+        try {
+            if (tag.equals(xmlTags.getElementTag())) {
+                startEdiElement(attributes);
+            } else if (tag.equals(xmlTags.getSubElementTag())) {
+                startSubElement(attributes);
+            } else if (tag.equals(xmlTags.getSegTag())) {
+                segmentTag = attributes.getValue(xmlTags.getIdAttribute());
+                elementId = null;
+                elementIndex = 0;
+                ediWriter.startSegment(segmentTag);
+            } else if (tag.equals(xmlTags.getDocumentTag())) {
+                startTransaction(attributes);
+            } else if (tag.equals(xmlTags.getGroupTag())) {
+                writeInterchangeHeader();
+                startGroup(attributes);
+            } else if (tag.equals(xmlTags.getInterchangeTag())) {
+                interchangeAttributes = new EDIAttributes(attributes);
+                sender = receiver = null;
+                headerPending = true;
+            } else if (tag.equals(xmlTags.getSenderTag())) {
+                inSender = true;
+            } else if (tag.equals(xmlTags.getReceiverTag())) {
+                inReceiver = true;
+            } else if (tag.equals(xmlTags.getAddressTag())) {
+                String[] address = {
+                        attributes.getValue(xmlTags.getIdAttribute()),
+                        attributes.getValue(xmlTags.getQualifierAttribute()),
+                        attributes.getValue(xmlTags.getAddressExtraAttribute())};
+                if (inSender) sender = address;
+                else if (inReceiver) receiver = address;
+            }
+        } catch (IOException e) {
+            throw new SAXException(e);
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        String tag = nameOf(localName, qName);
+        try {
+            if (tag.equals(xmlTags.getElementTag())) {
+                endEdiElement();
+            } else if (tag.equals(xmlTags.getSubElementTag())) {
+                writeComponent(text.isEmpty() ? null : text.toString());
+                text.setLength(0);
+                inSubElement = false;
+            } else if (tag.equals(xmlTags.getSegTag())) {
+                ediWriter.endSegment();
+                segmentTag = null;
+            } else if (tag.equals(xmlTags.getDocumentTag())) {
+                ediWriter.endTransaction();
+            } else if (tag.equals(xmlTags.getGroupTag())) {
+                if (groupWritten) {
+                    ediWriter.endGroup();
+                    groupWritten = false;
+                }
+            } else if (tag.equals(xmlTags.getInterchangeTag())) {
+                writeInterchangeHeader();
+                ediWriter.endInterchange();
+                interchangeAttributes = null;
+            } else if (tag.equals(xmlTags.getSenderTag())) {
+                inSender = false;
+            } else if (tag.equals(xmlTags.getReceiverTag())) {
+                inReceiver = false;
+            }
+        } catch (IOException e) {
+            throw new SAXException(e);
+        }
+    }
+
+    @Override
+    public void characters(char[] chars, int start, int length) {
+        if (inSubElement || (inElement && !composite)) {
+            text.append(chars, start, length);
+        }
+    }
+
+    @Override
+    public void endDocument() throws SAXException {
+        try {
+            if (ediWriter != null) {
+                ediWriter.flush();
+            } else {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            throw new SAXException(e);
+        }
+    }
+
+    private void startEdiElement(Attributes attributes) throws IOException, SAXException {
+        String id = attributes.getValue(xmlTags.getIdAttribute());
+        composite = "yes".equals(attributes.getValue(xmlTags.getCompositeIndicator()));
+        subElementIndex = 0;
+        inElement = true;
+        text.setLength(0);
+
+        if (id != null && id.equals(elementId)) {
+            // Another occurrence of a repeating element
+            pendingRepetition = true;
+        } else {
+            int index = id != null && segmentTag != null && id.startsWith(segmentTag) ?
+                    indexOf(id.substring(segmentTag.length())) : 0;
+            if (index <= elementIndex) index = elementIndex + 1;
+            while (++elementIndex < index) {
+                ediWriter.element(null);
+            }
+            pendingRepetition = false;
+        }
+        pending = true;
+        elementId = id;
+    }
+
+    private void startSubElement(Attributes attributes) throws IOException, SAXException {
+        int sequence = indexOf(attributes.getValue(xmlTags.getSubElementSequence()));
+        if (sequence <= subElementIndex) sequence = subElementIndex + 1;
+        while (++subElementIndex < sequence) {
+            writeComponent(null);
+        }
+        inSubElement = true;
+        text.setLength(0);
+    }
+
+    private void endEdiElement() throws IOException, SAXException {
+        if (!composite) {
+            writeComponent(text.isEmpty() ? null : text.toString());
+            text.setLength(0);
+        } else if (pending) {
+            writeComponent(null);
+        }
+        inElement = false;
+    }
+
+    /**
+     * Write the value of a simple element or of the current subelement of a composite.
+     * The element, or occurrence of a repeating element, is begun only when its first value is known.
+     */
+    private void writeComponent(String value) throws IOException, SAXException {
+        if (pending) {
+            pending = false;
+            if (pendingRepetition) {
+                ediWriter.repetition(value);
+            } else {
+                ediWriter.element(value);
+            }
+        } else {
+            ediWriter.subElement(value);
+        }
+    }
+
+    private void writeInterchangeHeader() throws IOException, SAXException {
+        if (!headerPending) return;
+        headerPending = false;
+        EDIAttributes a = interchangeAttributes;
+        ansi = EDIStandard.select(valueOf(a, xmlTags.getStandard())) != EDIStandard.EDIFACT;
+        chooseEdiWriter(a);
+        String[] from = sender == null ? new String[3] : sender;
+        String[] to = receiver == null ? new String[3] : receiver;
+
+        if (ansi) {
+            ediWriter.segment("ISA",
+                    valueOf(a, xmlTags.getAuthorizationQual()),
+                    valueOf(a, xmlTags.getAuthorization()),
+                    valueOf(a, xmlTags.getSecurityQual()),
+                    valueOf(a, xmlTags.getSecurity()),
+                    from[1], from[0], to[1], to[0],
+                    valueOf(a, xmlTags.getDate()),
+                    valueOf(a, xmlTags.getTime()),
+                    a.getValue(xmlTags.getStandardsId()) == null ? "U" : a.getValue(xmlTags.getStandardsId()),
+                    valueOf(a, xmlTags.getVersion()),
+                    valueOf(a, xmlTags.getControl()),
+                    valueOf(a, xmlTags.getAcknowledgementRequest()),
+                    valueOf(a, xmlTags.getTestIndicator()));
+        } else {
+            ediWriter.startSegment("UNB");
+            ediWriter.element(valueOf(a, xmlTags.getSyntaxIdentifier()));
+            subElements(a.getValue(xmlTags.getSyntaxVersion()));
+            ediWriter.element(from[0]);
+            subElements(from[1], from[2]);
+            ediWriter.element(to[0]);
+            subElements(to[1], to[2]);
+            ediWriter.element(valueOf(a, xmlTags.getDate()));
+            subElements(a.getValue(xmlTags.getTime()));
+            ediWriter.element(valueOf(a, xmlTags.getControl()));
+            optionalElements(a,
+                    xmlTags.getRecipientReference(),
+                    xmlTags.getApplicationReference(),
+                    xmlTags.getProcessingPriority(),
+                    xmlTags.getAcknowledgementRequest(),
+                    xmlTags.getInterchangeAgreementIdentifier(),
+                    xmlTags.getTestIndicator());
+            ediWriter.endSegment();
+        }
+    }
+
+    private void startGroup(Attributes a) throws IOException, SAXException {
+        if (ansi) {
+            ediWriter.segment("GS",
+                    valueOf(a, xmlTags.getGroupType()),
+                    valueOf(a, xmlTags.getApplSender()),
+                    valueOf(a, xmlTags.getApplReceiver()),
+                    valueOf(a, xmlTags.getDate()),
+                    valueOf(a, xmlTags.getTime()),
+                    valueOf(a, xmlTags.getControl()),
+                    valueOf(a, xmlTags.getStandardCode()),
+                    valueOf(a, xmlTags.getStandardVersion()));
+            groupWritten = true;
+        } else if (a.getValue(xmlTags.getGroupType()) != null) {
+            ediWriter.startSegment("UNG");
+            ediWriter.element(valueOf(a, xmlTags.getGroupType()));
+            ediWriter.element(valueOf(a, xmlTags.getApplSender()));
+            subElements(a.getValue(xmlTags.getApplSenderQualifier()));
+            ediWriter.element(valueOf(a, xmlTags.getApplReceiver()));
+            subElements(a.getValue(xmlTags.getApplReceiverQualifier()));
+            ediWriter.element(valueOf(a, xmlTags.getDate()));
+            subElements(a.getValue(xmlTags.getTime()));
+            ediWriter.element(valueOf(a, xmlTags.getControl()));
+            ediWriter.element(valueOf(a, xmlTags.getStandardCode()));
+            // EDIReader joins the version and release, as in D96A, and the version is the leading letter
+            String version = valueOf(a, xmlTags.getStandardVersion());
+            boolean split = version.length() > 1 && Character.isLetter(version.charAt(0));
+            ediWriter.element(split ? version.substring(0, 1) : version);
+            if (split) subElements(version.substring(1));
+            ediWriter.endSegment();
+            groupWritten = true;
+        }
+    }
+
+    private void startTransaction(Attributes a) throws IOException, SAXException {
+        if (ansi) {
+            String version = a.getValue(xmlTags.getMessageVersion());
+            if (version == null) {
+                ediWriter.segment("ST", valueOf(a, xmlTags.getDocumentType()), valueOf(a, xmlTags.getControl()));
+            } else {
+                ediWriter.segment("ST", valueOf(a, xmlTags.getDocumentType()), valueOf(a, xmlTags.getControl()), version);
+            }
+        } else {
+            ediWriter.startSegment("UNH");
+            ediWriter.element(valueOf(a, xmlTags.getControl()));
+            ediWriter.element(valueOf(a, xmlTags.getDocumentType()));
+            subElements(a.getValue(xmlTags.getMessageVersion()),
+                    a.getValue(xmlTags.getMessageRelease()),
+                    a.getValue(xmlTags.getAgency()),
+                    a.getValue(xmlTags.getAssociation()));
+            optionalElements(a, xmlTags.getAccessReference());
+            ediWriter.endSegment();
+        }
+    }
+
+    /**
+     * Use an EdiWriter with the syntax characters for this interchange,
+     * reusing the previous one if they have not changed.
+     */
+    private void chooseEdiWriter(EDIAttributes a) {
+        SyntaxDescriptor sd = new SyntaxDescriptor();
+        if (syntaxDescriptor != null) {
+            sd.setDelimiter(syntaxDescriptor.getDelimiter());
+            sd.setSubDelimiter(syntaxDescriptor.getSubDelimiter());
+            sd.setRepetitionSeparator(syntaxDescriptor.getRepetitionSeparator());
+            sd.setTerminator(syntaxDescriptor.getTerminator());
+            sd.setRelease(syntaxDescriptor.getRelease());
+            sd.setDecimalMark(syntaxDescriptor.getDecimalMark());
+            sd.setTerminatorSuffix(syntaxDescriptor.getTerminatorSuffix());
+        }
+        if (sd.getDelimiter() == 0) sd.setDelimiter(charOf(a, xmlTags.getElementDelimiter()));
+        if (sd.getSubDelimiter() == 0) sd.setSubDelimiter(charOf(a, xmlTags.getSubElementDelimiter()));
+        if (sd.getTerminator() == 0) sd.setTerminator(charOf(a, xmlTags.getSegmentTerminator()));
+        if (sd.getDecimalMark() == 0) sd.setDecimalMark(charOf(a, xmlTags.getDecimal()));
+        if (sd.getRepetitionSeparator() == 0) {
+            sd.setRepetitionSeparator(charOf(a, xmlTags.getRepetitionSeparator()));
+            if (ansi && sd.getRepetitionSeparator() == 0 && a.getValue(xmlTags.getStandardsId()) == null) {
+                // EDIReader omits the StandardsId when ISA11 is a repetition separator
+                sd.setRepetitionSeparator('^');
+            }
+        }
+
+        String key = String.valueOf(ansi) + sd.getDelimiter() + sd.getSubDelimiter() + sd.getRepetitionSeparator() +
+                     sd.getTerminator() + sd.getDecimalMark() + sd.getRelease() + sd.getTerminatorSuffix();
+        if (!key.equals(ediWriterKey)) {
+            if (ediWriter != null) {
+                try {
+                    ediWriter.flush();
+                } catch (IOException ignore) {
+                    // Reported by the next write
+                }
+            }
+            ediWriter = new EdiWriter(writer, ansi ? EDIStandard.ANSI : EDIStandard.EDIFACT, sd);
+            ediWriterKey = key;
+        }
+    }
+
+    private void subElements(String... values) throws IOException, SAXException {
+        // Omit trailing empty components
+        int n = values.length;
+        while (n > 0 && (values[n - 1] == null || values[n - 1].isEmpty())) n--;
+        for (int i = 0; i < n; i++) {
+            ediWriter.subElement(values[i]);
+        }
+    }
+
+    private void optionalElements(Attributes a, String... names) throws IOException, SAXException {
+        // Omit trailing empty elements
+        int n = names.length;
+        while (n > 0 && a.getValue(names[n - 1]) == null) n--;
+        for (int i = 0; i < n; i++) {
+            ediWriter.element(a.getValue(names[i]));
+        }
+    }
+
+    private static String valueOf(Attributes attributes, String name) {
+        String value = attributes.getValue(name);
+        return value == null ? "" : value;
+    }
+
+    private static char charOf(Attributes attributes, String name) {
+        String value = attributes.getValue(name);
+        return value == null || value.isEmpty() ? 0 : value.charAt(0);
+    }
+
+    // The number in a Sequence, or in an element Id following the segment tag
+    private static int indexOf(String digits) {
+        if (digits == null || digits.isEmpty() || digits.length() > 9) return 0;
+        for (int i = 0; i < digits.length(); i++) {
+            if (!Character.isDigit(digits.charAt(i))) return 0;
+        }
+        return Integer.parseInt(digits);
+    }
+
+    private static String nameOf(String localName, String qName) {
+        if (localName != null && !localName.isEmpty()) return localName;
+        if (qName == null) return "";
+        int index = qName.indexOf(':');
+        return index < 0 ? qName : qName.substring(index + 1);
+    }
+}
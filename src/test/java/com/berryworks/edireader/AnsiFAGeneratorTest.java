@@ -12,9 +12,11 @@ import org.xml.sax.SAXException;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.io.Writer;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class AnsiFAGeneratorTest {
 
@@ -89,6 +91,42 @@ public class AnsiFAGeneratorTest {
         assertLikeness(TEST_DATA_997_4010, output.toString());
     }
 
+    @Test
+    public void canGenerate997Asynchronously() throws IOException, SAXException {
+        ansiReader = new AnsiReader();
+        ansiReader.setAcknowledgment(ackStream);
+        ansiReader.setAsynchronousAcknowledgment(true);
+        ansiReader.parse(EDITestData.getAnsiInputSource());
+        assertTrue(ansiReader.getAckGenerator() instanceof AsyncReplyGenerator);
+        assertLikeness(TEST_DATA_997, output.toString());
+    }
+
+    @Test
+    public void asynchronousAcknowledgmentFailureIsReported() throws SAXException {
+        ansiReader = new AnsiReader();
+        ansiReader.setAcknowledgment(new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        ansiReader.setAsynchronousAcknowledgment(true);
+        try {
+            ansiReader.parse(EDITestData.getAnsiInputSource());
+            fail("Expected the acknowledgment failure to be reported");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("disk full"));
+        }
+    }
+
     @Ignore
     @Test
     public void canGenerateNegative997() throws IOException, SAXException {
@@ -5,12 +5,17 @@ import com.berryworks.edireader.util.sax.EDIReaderSAXAdapter;
 import org.junit.Before;
 import org.junit.Test;
 import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
 
 import javax.xml.transform.TransformerException;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 
 import static com.berryworks.edireader.util.Conversion.ediToxml;
 import static org.junit.Assert.*;
@@ -99,6 +104,18 @@ public class AnsiReaderTest {
         assertEquals(2, myContentHandler.getSegmentCountWithoutSTandSE());
     }
 
+    @Test
+    public void previewsFixedLengthISA() throws IOException, SAXException {
+        ansiReader.parseEdi(EDI_SAMPLE_5010);
+
+        assertEquals('*', ansiReader.getDelimiter());
+        assertEquals(':', ansiReader.getSubDelimiter());
+        assertEquals('^', ansiReader.getTerminator());
+        assertEquals('~', ansiReader.getRepetitionSeparator());
+        assertEquals("\n", ansiReader.getTerminatorSuffix());
+        assertEquals(EDI_SAMPLE_5010.substring(0, 106), ansiReader.getFirstSegment());
+    }
+
     @Test
     public void supportsOptionToObserveSyntaxCharacters() throws IOException, SAXException {
         // Baseline: default behavior, without the option
@@ -151,6 +168,96 @@ public class AnsiReaderTest {
         assertEquals(2, myContentHandler.getSegmentCountWithoutSTandSE());
     }
 
+    @Test
+    public void canParseLargeBIN() throws IOException, SAXException {
+        String payload = largePayload();
+        String ediText = EDI_BIN_SAMPLE.replace("BIN*10*1234567890", "BIN*" + payload.length() + "*" + payload);
+        PackageContentHandler handler = new PackageContentHandler();
+        EDIReader ediReader = new EDIReader();
+        ediReader.setContentHandler(handler);
+        ediReader.parse(new InputSource(new StringReader(ediText)));
+
+        assertEquals(1, handler.packageCount);
+        byte[] decoded = Base64.getDecoder().decode(handler.text.toString());
+        assertEquals(payload, new String(decoded, StandardCharsets.ISO_8859_1));
+        assertEquals(1, handler.segmentCount);
+    }
+
+    @Test
+    public void canPassBINToPayloadHandler() throws IOException, SAXException {
+        String payload = largePayload();
+        String ediText = EDI_BIN_SAMPLE.replace("BIN*10*1234567890", "BIN*" + payload.length() + "*" + payload);
+        PackageContentHandler handler = new PackageContentHandler();
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        EDIReader ediReader = new EDIReader();
+        ediReader.setContentHandler(handler);
+        ediReader.setBinaryPayloadHandler((segmentType, packageReference, length, data) -> {
+            assertEquals("BIN", segmentType);
+            assertNull(packageReference);
+            assertEquals(payload.length(), length);
+            byte[] bytes = new byte[1000];
+            int n;
+            while ((n = data.read(bytes)) > 0) {
+                received.write(bytes, 0, n);
+            }
+        });
+        ediReader.parse(new InputSource(new StringReader(ediText)));
+
+        assertEquals(payload, received.toString(StandardCharsets.ISO_8859_1.name()));
+        assertEquals(1, handler.packageCount);
+        assertEquals(0, handler.text.length());
+        assertEquals(1, handler.segmentCount);
+    }
+
+    @Test
+    public void skipsBINDataNotReadByPayloadHandler() throws IOException, SAXException {
+        String payload = largePayload();
+        String ediText = EDI_BIN_SAMPLE.replace("BIN*10*1234567890", "BIN*" + payload.length() + "*" + payload);
+        PackageContentHandler handler = new PackageContentHandler();
+        EDIReader ediReader = new EDIReader();
+        ediReader.setContentHandler(handler);
+        ediReader.setBinaryPayloadHandler((segmentType, packageReference, length, data) -> assertEquals('B', data.read()));
+        ediReader.parse(new InputSource(new StringReader(ediText)));
+
+        assertEquals(1, handler.packageCount);
+        assertEquals(1, handler.segmentCount);
+    }
+
+    private static String largePayload() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            sb.append("B*^:\u00e9\n").append(i % 10);
+        }
+        return sb.toString();
+    }
+
+    private static class PackageContentHandler extends DefaultHandler {
+        private final StringBuilder text = new StringBuilder();
+        private int packageCount;
+        private int segmentCount;
+        private boolean inPackage;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if ("package".equals(localName)) {
+                packageCount++;
+                inPackage = true;
+            } else if ("segment".equals(localName)) {
+                segmentCount++;
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            if ("package".equals(localName)) inPackage = false;
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inPackage) text.append(ch, start, length);
+        }
+    }
+
     @Test
     public void detectsGroupCountError() throws IOException, SAXException {
         String ediText = EDI_SAMPLE.replace("IEA*1*", "IEA*44*");
@@ -223,6 +330,61 @@ public class AnsiReaderTest {
         }
     }
 
+    @Test
+    public void collectsRecoverableErrors() throws IOException, SAXException {
+        String ediText = EDI_SAMPLE
+                .replace("ISA*00*", "ISA*0000*")
+                .replace("SE*4*0000001", "SE*44*1111111")
+                .replace("GE*1*1210001", "GE*2*1210001");
+        SyntaxErrorCollector collector = new SyntaxErrorCollector();
+        ansiReader.setSyntaxErrorCollector(collector);
+        ansiReader.setSyntaxExceptionHandler(syntaxException -> {
+            fail("Handler should not be called when collecting");
+            return false;
+        });
+
+        ansiReader.parseEdi(ediText);
+
+        assertNull(ansiReader.getSyntaxException());
+        assertEquals(4, collector.getErrorCount());
+        assertEquals(0, collector.getDroppedCount());
+        SyntaxErrorRecord error = collector.getErrors().get(0);
+        assertEquals(SyntaxErrorCode.ISA_FIXED_LENGTH, error.getCode());
+        assertEquals("ISA fixed-length field ISA01 has incorrect length. Expected 2 instead of 4 at segment 1, field 2",
+                error.getMessage());
+        error = collector.getErrors().get(1);
+        assertEquals(SyntaxErrorCode.SEGMENT_COUNT, error.getCode());
+        assertEquals(6, error.getSegmentNumber());
+        assertEquals(2, error.getElementNumber());
+        assertEquals("4", error.getExpected());
+        assertEquals("44", error.getActual());
+        assertEquals("Segment count error in SE segment. Expected 4 instead of 44 at segment 6, field 2", error.getMessage());
+        error = collector.getErrors().get(2);
+        assertEquals(SyntaxErrorCode.TRANSACTION_CONTROL_NUMBER, error.getCode());
+        assertEquals("Control number error in SE segment. Expected 0000001 instead of 1111111 at segment 6, field 3",
+                error.getMessage());
+        assertEquals(SyntaxErrorCode.TRANSACTION_COUNT, collector.getErrors().get(3).getCode());
+        assertTrue(error.getCharOffset() > 200);
+
+        CollectedSyntaxException exception = error.toException();
+        assertEquals(error.getMessage(), exception.getMessage());
+        assertEquals(6, exception.getErrorSegmentNumber());
+        assertEquals(0, exception.getStackTrace().length);
+    }
+
+    @Test
+    public void collectsOnlyUpToCapacity() throws IOException, SAXException {
+        SyntaxErrorCollector collector = new SyntaxErrorCollector(1);
+        ansiReader.setSyntaxErrorCollector(collector);
+
+        ansiReader.parseEdi(EDI_SAMPLE.replace("SE*4*0000001", "SE*44*1111111"));
+
+        assertEquals(2, collector.getErrorCount());
+        assertEquals(1, collector.getDroppedCount());
+        assertEquals(1, collector.getErrors().size());
+        assertEquals(SyntaxErrorCode.SEGMENT_COUNT, collector.getErrors().get(0).getCode());
+    }
+
     @Test
     public void correctsISA01FixedLength() throws IOException, SAXException {
         String ediText = EDI_SAMPLE.replace("ISA*00*", "ISA*0000*");
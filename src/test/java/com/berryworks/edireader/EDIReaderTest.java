@@ -4,10 +4,15 @@ import com.berryworks.edireader.util.sax.EDIReaderSAXAdapter;
 import org.junit.Test;
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class EDIReaderTest {
 
@@ -192,6 +197,84 @@ public class EDIReaderTest {
         assertEquals(1, contentHandler.numberOfSpacesOnlyElements());
     }
 
+    @Test
+    public void canBeStoppedByParseControl() throws IOException, SAXException {
+        ediReader = new EDIReader();
+        List<String> events = new ArrayList<>();
+        ediReader.setContentHandler(new DefaultHandler() {
+            @Override
+            public void startElement(String uri, String localName, String qName, Attributes attributes) {
+                events.add(localName);
+                if ("transaction".equals(localName)) {
+                    ediReader.getParseControl().stop();
+                }
+            }
+
+            @Override
+            public void endElement(String uri, String localName, String qName) {
+                events.add("/" + localName);
+            }
+
+            @Override
+            public void endDocument() {
+                events.add("end");
+            }
+        });
+
+        ediReader.parseEdi("""
+                ISA*00*          *00*          *ZZ*AAAA           *01*BBBB           *090825*0903*U*00401*000007629*0*T*>~
+                GS*SM*XXXXXXXXX*XXXX*20090825*0903*7629*X*004010~
+                ST*204*7629~
+                B2**XXXX**159771**PP~
+                SE*3*7629~
+                GE*1*7629~
+                IEA*1*000007629~
+                """);
+
+        assertEquals("[ediroot, interchange, sender, address, /address, /sender, receiver, address, /address, /receiver, group, transaction]",
+                events.toString());
+        assertTrue(ediReader.getParseControl().isStopped());
+        assertEquals('~', ediReader.getTerminator());
+        assertEquals("\n", ediReader.getTerminatorSuffix());
+    }
+
+    @Test
+    public void canBeReusedAfterBeingStopped() throws IOException, SAXException {
+        String edi = """
+                ISA*00*          *00*          *ZZ*AAAA           *01*BBBB           *090825*0903*U*00401*000007629*0*T*>~
+                GS*SM*XXXXXXXXX*XXXX*20090825*0903*7629*X*004010~
+                ST*204*7629~
+                B2**XXXX**159771**PP~
+                SE*3*7629~
+                GE*1*7629~
+                IEA*1*000007629~
+                """;
+        ediReader = new EDIReader();
+        List<String> events = new ArrayList<>();
+        ediReader.setContentHandler(new DefaultHandler() {
+            @Override
+            public void startElement(String uri, String localName, String qName, Attributes attributes) {
+                if ("transaction".equals(localName)) {
+                    events.add(localName);
+                    if (events.size() == 1) ediReader.getParseControl().stop();
+                }
+            }
+
+            @Override
+            public void endDocument() {
+                events.add("end");
+            }
+        });
+
+        ediReader.parseEdi(edi);
+        assertTrue(ediReader.getParseControl().isStopped());
+        assertEquals("[transaction]", events.toString());
+
+        ediReader.parseEdi(edi);
+        assertFalse(ediReader.getParseControl().isStopped());
+        assertEquals("[transaction, transaction, end]", events.toString());
+    }
+
     private static class MyContentHandler extends EDIReaderSAXAdapter {
         private int segmentCount, elementCount;
         private Attributes interchangeAttributes;
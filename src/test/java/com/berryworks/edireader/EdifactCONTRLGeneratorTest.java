@@ -56,6 +56,27 @@ public class EdifactCONTRLGeneratorTest {
         assertEquals(asLines(expected), asLines(mask(actual, expected)));
     }
 
+    @Test
+    public void canGenerateCONTRLAsynchronously() throws IOException, SAXException {
+
+        String ediText = EDITestData.getEdifactInterchange(2);
+        EDIReader ediReader = EDIReaderFactory.createEDIReader(new StringReader(ediText));
+        StringWriter ackWriter = new StringWriter();
+        ediReader.setAckStream(new BranchingWriter(ackWriter));
+        ediReader.setAsynchronousAcknowledgment(true);
+        ediReader.parse();
+
+        String expected = """
+                UNB+IATA:1+REUAGT82AGENT/LHR01:PIMA+REUAIR08DLH:PIMA+??????:????+841F60UNZ'
+                UNH+1+CONTRL:90:1:IA'
+                UCI+841F60UNZ+REUAIR08DLH:PIMA+REUAGT82AGENT/LHR01:PIMA+8'
+                UNT+3+1'
+                UNZ+1+841F60UNZ'
+                """;
+        String actual = ackWriter.toString();
+        assertEquals(asLines(expected), asLines(mask(actual, expected)));
+    }
+
     private String asLines(String wrappedSegments) {
         return wrappedSegments.replace("'", "'\n");
     }
@@ -106,6 +106,27 @@ public class EdifactEncodingTest {
         assertEquals("Рыба текст", handler.getNad04());
     }
 
+    @Test
+    public void unoW_asBytes() throws IOException, SAXException {
+        byte[] bytes = EDIFACT_UNOW.getBytes(StandardCharsets.UTF_8);
+        InputStream inputStream = new ByteArrayInputStream(bytes);
+        ediReader = EDIReaderFactory.createEDIReader(new InputSource(inputStream));
+        ediReader.setContentHandler(handler);
+        ediReader.parse();
+        assertEquals("Grüße Ωμέγα Рыба", handler.getNad04());
+    }
+
+    @Test
+    public void unoW_withUNA_asBytes() throws IOException, SAXException {
+        byte[] bytes = ("UNA:+.? '\n" + EDIFACT_UNOW).getBytes(StandardCharsets.UTF_8);
+        InputStream inputStream = new ByteArrayInputStream(bytes);
+        ediReader = new EdifactReader();
+        ediReader.setContentHandler(handler);
+        ediReader.parse(new InputSource(inputStream));
+        assertEquals("Grüße Ωμέγα Рыба", handler.getNad04());
+        assertEquals("\n", ediReader.getTerminatorSuffix());
+    }
+
     @Test
     public void testEdifactFiles() throws URISyntaxException, IOException, SAXException {
         testEdifactFile("tiny-UNOA.edi");
@@ -192,6 +213,15 @@ public class EdifactEncodingTest {
             UNZ+1+00000000000778'
             """;
 
+    private static final String EDIFACT_UNOW = """
+            UNB+UNOW:4+005435656:1+006415160CFS:1+000210:1434+00000000000778+rref+aref+p+a+cid+t'
+            UNH+00000000000117+INVOIC:D:97B:UN'
+            BGM+380+342459+9'
+            NAD+SE+005435656::16++Grüße Ωμέγα Рыба'
+            UNT+4+00000000000117'
+            UNZ+1+00000000000778'
+            """;
+
     private static class MyContentHandler extends EDIReaderSAXAdapter {
 
         private boolean armed;
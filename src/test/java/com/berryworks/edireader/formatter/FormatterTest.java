@@ -0,0 +1,73 @@
+package com.berryworks.edireader.formatter;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+
+public class FormatterTest {
+
+    private static final String EDI =
+            "ISA*00*          *00*          *ZZ*D00111         *ZZ*0055           *030603*1337*U*00401*000000121*0*T*:^\n" +
+                    "GS*HP*D00111*0055*20030603*1337*1210001*X*004010X091A1^\n" +
+                    "ST*870*0000001^\n" +
+                    "BSR*4*PA*SUPPLIER CONFIRMATION NUMBER*CCYYMMDD^\n" +
+                    "REF*MR*12345^\n" +
+                    "SE*4*0000001^\n" +
+                    "GE*1*1210001^\n" +
+                    "IEA*1*000000121^\n";
+
+    @Test
+    public void formatsInterchange() throws IOException {
+        StringWriter writer = new StringWriter();
+        PrintWriter printWriter = new PrintWriter(writer);
+        int count = new Formatter(new StringReader(EDI), printWriter).format();
+
+        assertEquals(EDI.length(), count);
+        String nl = System.lineSeparator();
+        assertEquals("ISA*00*          *00*          *ZZ*D00111         *ZZ*0055           *030603*1337*U*00401*000000121*0*T*:^" + nl +
+                "   GS*HP*D00111*0055*20030603*1337*1210001*X*004010X091A1^" + nl +
+                "      ST*870*0000001^" + nl +
+                "         BSR*4*PA*SUPPLIER CONFIRMATION NUMBER*CCYYMMDD^" + nl +
+                "         REF*MR*12345^" + nl +
+                "      SE*4*0000001" + nl +
+                "   GE*1*1210001" + nl +
+                "IEA*1*000000121" + nl, writer.toString());
+    }
+
+    @Test
+    public void sharedInputBufferDeliversAllCharsToBothReaders() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            sb.append(i).append(',');
+        }
+        String text = sb.toString();
+        SharedInputBuffer sharedInput = new SharedInputBuffer(new StringReader(text));
+        Reader readerA = sharedInput.getReaderA();
+        Reader readerB = sharedInput.getReaderB();
+
+        StringBuilder a = new StringBuilder();
+        StringBuilder b = new StringBuilder();
+        char[] buffer = new char[777];
+        int n;
+        while ((n = readerB.read(buffer)) > 0) {
+            b.append(buffer, 0, n);
+            // Reader A falls further and further behind Reader B
+            if ((n = readerA.read(buffer, 0, 500)) > 0) {
+                a.append(buffer, 0, n);
+            }
+        }
+        while ((n = readerA.read(buffer)) > 0) {
+            a.append(buffer, 0, n);
+        }
+
+        assertEquals(text, b.toString());
+        assertEquals(text, a.toString());
+        assertEquals(text.length(), sharedInput.getCount());
+    }
+}
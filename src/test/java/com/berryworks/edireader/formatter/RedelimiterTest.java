@@ -0,0 +1,178 @@
+package com.berryworks.edireader.formatter;
+
+import com.berryworks.edireader.EDISyntaxException;
+import com.berryworks.edireader.SyntaxDescriptor;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class RedelimiterTest {
+
+    private static final String ANSI =
+            "ISA*00*          *00*          *ZZ*D00111         *ZZ*0055           *030603*1337*^*00501*000000121*0*T*:~\n" +
+                    "GS*HP*D00111*0055*20030603*1337*1210001*X*005010X091A1~\n" +
+                    "ST*870*0000001~\n" +
+                    "BSR*4*PA*A:B^C*CCYYMMDD~\n" +
+                    "SE*3*0000001~\n" +
+                    "GE*1*1210001~\n" +
+                    "IEA*1*000000121~\n";
+
+    private static final String EDIFACT =
+            "UNB+UNOA:3+SENDER+RECEIVER+030603:1337+REF1'" +
+                    "UNH+1+ORDERS:D:96A:UN'" +
+                    "FTX+AAI+++A?+B?:C?'D'" +
+                    "UNT+3+1'" +
+                    "UNZ+1+REF1'";
+
+    @Test
+    public void changesAnsiDelimiters() throws EDISyntaxException {
+        SyntaxDescriptor target = new SyntaxDescriptor();
+        target.setDelimiter('|');
+        target.setSubDelimiter('>');
+        target.setRepetitionSeparator('!');
+        target.setTerminator('$');
+        target.setTerminatorSuffix("");
+
+        assertEquals(
+                "ISA|00|          |00|          |ZZ|D00111         |ZZ|0055           |030603|1337|!|00501|000000121|0|T|>$" +
+                        "GS|HP|D00111|0055|20030603|1337|1210001|X|005010X091A1$" +
+                        "ST|870|0000001$" +
+                        "BSR|4|PA|A>B!C|CCYYMMDD$" +
+                        "SE|3|0000001$" +
+                        "GE|1|1210001$" +
+                        "IEA|1|000000121$",
+                new Redelimiter(target).redelimit(ANSI));
+    }
+
+    @Test
+    public void keepsUnspecifiedCharactersAndLineBreaks() throws EDISyntaxException {
+        SyntaxDescriptor target = new SyntaxDescriptor();
+        target.setDelimiter('+');
+
+        assertEquals(ANSI.replace('*', '+'), new Redelimiter(target).redelimit(ANSI));
+    }
+
+    @Test
+    public void rejectsDataThatCannotBeRepresented() {
+        SyntaxDescriptor target = new SyntaxDescriptor();
+        target.setDelimiter('4');
+
+        try {
+            new Redelimiter(target).redelimit(ANSI);
+            fail("Expected an EDISyntaxException");
+        } catch (EDISyntaxException e) {
+            assertEquals(4, e.getErrorSegmentNumber());
+        }
+    }
+
+    @Test
+    public void addsUnaAndEscapesEdifactData() throws EDISyntaxException {
+        SyntaxDescriptor target = new SyntaxDescriptor();
+        target.setDelimiter('*');
+        target.setRelease('\\');
+        target.setTerminatorSuffix("\n");
+
+        assertEquals(
+                "UNA:*.\\ '\n" +
+                        "UNB*UNOA:3*SENDER*RECEIVER*030603:1337*REF1'\n" +
+                        "UNH*1*ORDERS:D:96A:UN'\n" +
+                        "FTX*AAI***A+B\\:C\\'D'\n" +
+                        "UNT*3*1'\n" +
+                        "UNZ*1*REF1'\n",
+                new Redelimiter(target).redelimit(EDIFACT));
+    }
+
+    @Test
+    public void rewritesUnaAndRestoresDefaults() throws EDISyntaxException {
+        String edi = "UNA|*.\\ $" +
+                "UNB*UNOA|3*SENDER*RECEIVER*030603|1337*REF1$" +
+                "UNH*1*ORDERS|D|96A|UN$" +
+                "FTX*AAI***A+B:C'D\\$E$" +
+                "UNT*3*1$" +
+                "UNZ*1*REF1$";
+        SyntaxDescriptor target = new SyntaxDescriptor();
+        target.setDelimiter('+');
+        target.setSubDelimiter(':');
+        target.setRelease('?');
+        target.setTerminator('\'');
+
+        assertEquals("UNA:+.? '" + EDIFACT.replace("'D'", "'D$E'"), new Redelimiter(target).redelimit(edi));
+    }
+
+    @Test
+    public void copiesBinaryDataAfterBin() throws EDISyntaxException {
+        String edi = "ISA*00*          *00*          *ZZ*D00111         *ZZ*0055           *030603*1337*U*00401*000000121*0*T*:~" +
+                "GS*HP*D00111*0055*20030603*1337*1210001*X*004010~" +
+                "ST*870*0000001~" +
+                "BIN*6*a*b~c:~" +
+                "SE*3*0000001~" +
+                "GE*1*1210001~" +
+                "IEA*1*000000121~";
+        SyntaxDescriptor target = new SyntaxDescriptor();
+        target.setDelimiter('|');
+        target.setTerminator('$');
+
+        assertEquals(edi.replace('*', '|').replace('~', '$').replace("a|b$c:", "a*b~c:"),
+                new Redelimiter(target).redelimit(edi));
+    }
+
+    @Test
+    public void copiesObjectAfterUno() throws EDISyntaxException {
+        String edi = "UNB+UNOA:3+SENDER+RECEIVER+030603:1337+REF1'" +
+                "UNH+1+ORDERS:D:96A:UN'" +
+                "UNO+6+PKG1'a+b'c:" +
+                "UNP+6+PKG1'" +
+                "UNT+4+1'" +
+                "UNZ+1+REF1'";
+        SyntaxDescriptor target = new SyntaxDescriptor();
+        target.setDelimiter('*');
+        target.setTerminator('~');
+
+        assertEquals("UNA:*.? ~" + edi.replace('+', '*').replace('\'', '~').replace("a*b~c:", "a+b'c:"),
+                new Redelimiter(target).redelimit(edi));
+    }
+
+    @Test
+    public void copiesObjectBeginningWithLineBreakAfterUno() throws EDISyntaxException {
+        String edi = "UNB+UNOA:3+SENDER+RECEIVER+030603:1337+REF1'" +
+                "UNH+1+ORDERS:D:96A:UN'" +
+                "UNO+6+PKG1'\r\n\u0001a+b" +
+                "UNP+6+PKG1'" +
+                "UNT+4+1'" +
+                "UNZ+1+REF1'";
+        SyntaxDescriptor target = new SyntaxDescriptor();
+        target.setDelimiter('*');
+        target.setTerminator('~');
+        target.setTerminatorSuffix("\n");
+
+        assertEquals("UNA:*.? ~\n" +
+                        "UNB*UNOA:3*SENDER*RECEIVER*030603:1337*REF1~\n" +
+                        "UNH*1*ORDERS:D:96A:UN~\n" +
+                        "UNO*6*PKG1~\n\r\n\u0001a+b" +
+                        "UNP*6*PKG1~\n" +
+                        "UNT*4*1~\n" +
+                        "UNZ*1*REF1~\n",
+                new Redelimiter(target).redelimit(edi));
+    }
+
+    @Test
+    public void handlesInputLargerThanBuffer() throws IOException, EDISyntaxException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            sb.append(ANSI);
+        }
+        SyntaxDescriptor target = new SyntaxDescriptor();
+        target.setDelimiter('|');
+        Redelimiter redelimiter = new Redelimiter(target);
+        redelimiter.setBufferSize(300);
+        StringWriter writer = new StringWriter();
+
+        assertEquals(3500, redelimiter.redelimit(new StringReader(sb.toString()), writer));
+        assertEquals(sb.toString().replace('*', '|'), writer.toString());
+    }
+}
@@ -1,11 +1,15 @@
 package com.berryworks.edireader.plugin;
 
+import com.berryworks.edireader.tokenizer.SegmentTag;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class PluginPreparationTest {
@@ -31,4 +35,37 @@ public class PluginPreparationTest {
         assertEquals(2, p.getList("BBB").size());
         assertEquals(3, p.getList("CCC").size());
     }
+
+    @Test
+    public void canLookUpBySegmentTag() {
+        LoopDescriptor a = new LoopDescriptor("LoopA", "AAA");
+        LoopDescriptor b1 = new LoopDescriptor("LoopB1", "BBB");
+        LoopDescriptor b2 = new LoopDescriptor("LoopB2", "BBB_withDescriptiveSuffix");
+        LoopDescriptor n1 = new LoopDescriptor("LoopN1", "N1");
+
+        PluginPreparation p = new PluginPreparation(new LoopDescriptor[]{a, b1, b2, n1});
+
+        assertArrayEquals(new LoopDescriptor[]{a}, p.getDescriptors(SegmentTag.pack("AAA")));
+        assertArrayEquals(new LoopDescriptor[]{b1, b2}, p.getDescriptors(SegmentTag.pack("BBB")));
+        assertArrayEquals(new LoopDescriptor[]{n1}, p.getDescriptors(SegmentTag.pack("N1")));
+        assertNull(p.getDescriptors(SegmentTag.pack("N2")));
+        assertNull(p.getDescriptors(SegmentTag.NONE));
+    }
+
+    @Test
+    public void canLookUpManySegmentTags() {
+        List<LoopDescriptor> loops = new ArrayList<>();
+        for (char c1 = 'A'; c1 <= 'Z'; c1++) {
+            for (char c2 = '0'; c2 <= '9'; c2++) {
+                loops.add(new LoopDescriptor("Loop" + c1 + c2, "" + c1 + c2 + 'X'));
+            }
+        }
+        PluginPreparation p = new PluginPreparation(loops.toArray(new LoopDescriptor[0]));
+
+        for (LoopDescriptor loop : loops) {
+            LoopDescriptor[] found = p.getDescriptors(SegmentTag.pack(loop.getFirstSegment()));
+            assertArrayEquals(new LoopDescriptor[]{loop}, found);
+        }
+        assertNull(p.getDescriptors(SegmentTag.pack("A0Y")));
+    }
 }
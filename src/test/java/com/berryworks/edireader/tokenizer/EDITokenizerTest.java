@@ -1769,6 +1769,39 @@ public class EDITokenizerTest {
         }
     }
 
+    @Test
+    public void rearmContinuesWithBufferedInput() throws Exception {
+
+        tokenizer = new EDITokenizer(new StringReader("AAA*1~BBB*2~\nCCC+3:4'"));
+        tokenizer.setDelimiter('*');
+        tokenizer.setTerminator('~');
+        tokenizer.setSubDelimiter('<');
+
+        assertEquals("AAA", tokenizer.nextToken().getValue());
+        assertEquals("1", tokenizer.nextToken().getValue());
+        assertEquals(SEGMENT_END, tokenizer.nextToken().getType());
+        assertEquals("BBB", tokenizer.nextToken().getValue());
+        assertEquals("2", tokenizer.nextToken().getValue());
+        assertEquals(SEGMENT_END, tokenizer.nextToken().getType());
+        assertEquals(2, tokenizer.getSegmentCount());
+
+        assertTrue(tokenizer.rearm());
+        assertEquals('+', tokenizer.getDelimiter());
+        assertEquals(0, tokenizer.getSegmentCount());
+        tokenizer.scanTerminatorSuffix();
+        assertEquals('C', tokenizer.lookahead(1)[0]);
+
+        tokenizer.setTerminator('\'');
+        Token t = tokenizer.nextToken();
+        assertEquals(SEGMENT_START, t.getType());
+        assertEquals("CCC", t.getValue());
+        assertEquals("3", tokenizer.nextToken().getValue());
+        t = tokenizer.nextToken();
+        assertEquals(SUB_ELEMENT, t.getType());
+        assertEquals("4", t.getValue());
+        assertEquals(1, tokenizer.getSegmentCount());
+    }
+
     @Test
     public void testGetBuffered() throws Exception {
 
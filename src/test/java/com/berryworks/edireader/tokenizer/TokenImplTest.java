@@ -21,6 +21,20 @@ public class TokenImplTest {
         token = new TokenImpl(new EDITokenizer(new StringReader("")));
     }
 
+    @Test
+    public void segmentTypeIsAlsoEncoded() throws Exception {
+        token.setSegmentType("NM1");
+        assertEquals(SegmentTag.pack("NM1"), token.getSegmentTag());
+        assertNotEquals(SegmentTag.pack("N1M"), token.getSegmentTag());
+        assertTrue(token.getSegmentTag() > 0 && token.getSegmentTag() < SegmentTag.LIMIT);
+
+        token.setSegmentType("nm1");
+        assertEquals(SegmentTag.NONE, token.getSegmentTag());
+        token.setSegmentType("ABCD");
+        assertEquals(SegmentTag.NONE, token.getSegmentTag());
+        assertNotEquals(SegmentTag.pack("A"), SegmentTag.pack("0A"));
+    }
+
     @Test
     public void testAppend() {
         assertEquals(0, token.getIndex());
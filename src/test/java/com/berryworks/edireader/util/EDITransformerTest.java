@@ -0,0 +1,114 @@
+package com.berryworks.edireader.util;
+
+import com.berryworks.edireader.benchmark.EDITestData;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.xml.sax.InputSource;
+
+import javax.xml.transform.Templates;
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class EDITransformerTest {
+
+    private static final String STYLESHEET = """
+            <xsl:stylesheet version="1.0" xmlns:xsl="http://www.w3.org/1999/XSL/Transform">
+              <xsl:output method="text"/>
+              <xsl:template match="/">
+                <xsl:for-each select="//transaction">
+                  <xsl:value-of select="@DocType"/>:<xsl:value-of select="@Control"/>;</xsl:for-each>
+              </xsl:template>
+            </xsl:stylesheet>
+            """;
+
+    private Path directory;
+    private Path stylesheet;
+    private EDITransformer transformer;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("edireader");
+        stylesheet = directory.resolve("summary.xsl");
+        Files.writeString(stylesheet, STYLESHEET);
+        transformer = new EDITransformer();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (var paths = Files.list(directory)) {
+            for (Path path : paths.toList()) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void canTransform() throws Exception {
+        StringWriter output = new StringWriter();
+        transformer.transform(new InputSource(new StringReader(EDITestData.getAnsiInterchange(2))), stylesheet,
+                new StreamResult(output));
+        assertEquals("824:000042460;824:000042460;", output.toString().trim());
+    }
+
+    @Test
+    public void compilesStylesheetOnlyWhenModified() throws Exception {
+        Templates templates = transformer.getTemplates(stylesheet);
+        assertSame(templates, transformer.getTemplates(stylesheet));
+        assertSame(templates, transformer.getTemplates(directory.resolve("../" + directory.getFileName() + "/summary.xsl")));
+
+        Files.setLastModifiedTime(stylesheet, FileTime.fromMillis(Files.getLastModifiedTime(stylesheet).toMillis() + 2000));
+        Templates recompiled = transformer.getTemplates(stylesheet);
+        assertNotSame(templates, recompiled);
+        assertSame(recompiled, transformer.getTemplates(stylesheet));
+    }
+
+    @Test
+    public void canTransformManyFilesInParallel() throws Exception {
+        List<Path> inputs = new ArrayList<>();
+        for (int i = 1; i <= 8; i++) {
+            Path input = directory.resolve("input" + i + ".edi");
+            Files.writeString(input, EDITestData.getAnsiInterchange(i));
+            inputs.add(input);
+        }
+
+        List<Path> outputs = transformer.transformAll(inputs, stylesheet,
+                input -> directory.resolve(input.getFileName() + ".txt"), 4);
+
+        assertEquals(8, outputs.size());
+        for (int i = 1; i <= 8; i++) {
+            assertEquals(directory.resolve("input" + i + ".edi.txt"), outputs.get(i - 1));
+            String text = Files.readString(outputs.get(i - 1)).trim();
+            assertEquals(i, text.split(";").length);
+        }
+    }
+
+    @Test
+    public void reportsEachFailure() throws Exception {
+        List<Path> inputs = new ArrayList<>();
+        for (String name : new String[]{"good.edi", "bad1.edi", "bad2.edi"}) {
+            Path input = directory.resolve(name);
+            Files.writeString(input, name.startsWith("good") ? EDITestData.getAnsiInterchange() : "not EDI at all");
+            inputs.add(input);
+        }
+
+        try {
+            transformer.transformAll(inputs, stylesheet, input -> directory.resolve(input.getFileName() + ".txt"), 2);
+            fail("Expected the bad inputs to be reported");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("bad1.edi"));
+            assertEquals(1, e.getSuppressed().length);
+            assertTrue(e.getSuppressed()[0].getMessage().contains("bad2.edi"));
+        }
+    }
+}
@@ -5,8 +5,8 @@ import com.berryworks.edireader.benchmark.EDITestData;
 import org.junit.Test;
 import org.xml.sax.SAXException;
 
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
+import java.nio.CharBuffer;
 
 import static com.berryworks.edireader.EDIReaderTest.INVOIC_97B_NO_SUFFIX;
 import static com.berryworks.edireader.EdifactReaderTest.EDIFACT_WITH_GROUP;
@@ -113,6 +113,51 @@ public class EdiProberTest {
         assertEquals("?", ediProber.getReleaseCharacter());
     }
 
+    @Test
+    public void canProbeUnsupportedStandards() throws IOException, SAXException {
+        EdiProber ediProber = new EdiProber();
+        ediProber.probe("STX=ANA:1+5000000000000:SOME STORES LTD+5010000000000:SUPPLIER UK LTD+070315:130233+000007+PASSW+ORDHDR+B'");
+        assertEquals(EDIStandard.TRADACOMS, ediProber.getStandard());
+
+        ediProber.probe("\nMSH|^~\\&|SENDING_APP|SENDING_FAC|RECEIVING_APP|RECEIVING_FAC|20260101120000||ADT^A01|MSG00001|P|2.5\r");
+        assertEquals(EDIStandard.HL7, ediProber.getStandard());
+        assertNull(ediProber.getDocumentType());
+    }
+
+    @Test
+    public void readsOnlyTheHeader() throws IOException, SAXException {
+        String interchange = EDITestData.getAnsiInterchange();
+        String first = interchange.substring(0, interchange.indexOf("SE~"));
+        StringBuilder sb = new StringBuilder(first);
+        for (int i = 0; i < 100000; i++) {
+            sb.append("BGN~11~FFA.ABCDEF.123456~020111~0956$");
+        }
+        sb.append(interchange.substring(interchange.indexOf("SE~")));
+        int[] charsRead = new int[1];
+        Reader reader = new FilterReader(new StringReader(sb.toString())) {
+            @Override
+            public int read(char[] chars, int offset, int length) throws IOException {
+                int n = super.read(chars, offset, length);
+                if (n > 0) charsRead[0] += n;
+                return n;
+            }
+
+            @Override
+            public int read(CharBuffer target) throws IOException {
+                int n = super.read(target);
+                if (n > 0) charsRead[0] += n;
+                return n;
+            }
+        };
+
+        EdiProber ediProber = new EdiProber();
+        ediProber.probe(reader);
+
+        assertEquals("824", ediProber.getDocumentType());
+        assertEquals("000042460", ediProber.getDocumentControl());
+        assertTrue(charsRead[0] <= 2 * EdiProber.HEADER_LENGTH);
+    }
+
     @Test
     public void probeJunk() throws IOException {
         EdiProber ediProber = new EdiProber();
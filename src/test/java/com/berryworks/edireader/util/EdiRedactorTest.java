@@ -0,0 +1,164 @@
+package com.berryworks.edireader.util;
+
+import com.berryworks.edireader.EDIReader;
+import com.berryworks.edireader.EDISyntaxException;
+import org.junit.Before;
+import org.junit.Test;
+import org.xml.sax.InputSource;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+public class EdiRedactorTest {
+
+    private static final String X12 = """
+            ISA*00*          *00*          *ZZ*SUBMITTER      *ZZ*RECEIVER       *030101*1253*^*00501*000000905*1*T*:~
+            GS*HC*SUBMITTER*RECEIVER*20030101*1253*1*X*005010X222A1~
+            ST*837*0021*005010X222A1~
+            BHT*0019*00*244579*20061015*1023*CH~
+            NM1*IL*1*SMITH*JANE*Q***MI*123456789A~
+            N3*236 N MAIN ST*APT 2~
+            N4*MIAMI*FL*33413~
+            DMG*D8*19430501*F~
+            SE*7*0021~
+            GE*1*1~
+            IEA*1*000000905~
+            """;
+
+    private static final String EDIFACT = "UNA:+.? '" +
+            "UNB+UNOB:1+SENDER1:16:ZZUK+RECEIVER1:01:ZZUK+071101:1701+131++ORDRSP++1++1'" +
+            "UNH+1+ORDRSP:D:96A:UN'" +
+            "NAD+BY+++O?'BRIEN?+SONS:LTD'" +
+            "UNT+3+1'" +
+            "UNZ+1+131'";
+
+    private EdiRedactor redactor;
+
+    @Before
+    public void setUp() {
+        redactor = new EdiRedactor("NM103", "NM104", "N3", "DMG02");
+    }
+
+    @Test
+    public void masksElementsAndSegments() throws Exception {
+        String redacted = redactor.redact(X12);
+
+        assertEquals(X12.length(), redacted.length());
+        assertTrue(redacted.contains("NM1*IL*1*XXXXX*XXXX*Q***MI*123456789A~"));
+        assertTrue(redacted.contains("N3*XXXXXXXXXXXXX*XXXXX~"));
+        assertTrue(redacted.contains("N4*MIAMI*FL*33413~"));
+        assertTrue(redacted.contains("DMG*D8*XXXXXXXX*F~"));
+        assertEquals(X12.replace("SMITH", "XXXXX").replace("JANE", "XXXX").replace("236 N MAIN ST", "XXXXXXXXXXXXX")
+                .replace("APT 2", "XXXXX").replace("19430501", "XXXXXXXX"), redacted);
+    }
+
+    @Test
+    public void redactedOutputStillParses() throws Exception {
+        EDIReader ediReader = new EDIReader();
+        ediReader.setContentHandler(new DefaultHandler());
+        ediReader.parse(new InputSource(new StringReader(redactor.redact(X12))));
+    }
+
+    @Test
+    public void handlesSmallBufferAndManyInterchanges() throws Exception {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            input.append(X12);
+        }
+        redactor.setBufferSize(1);
+        redactor.setMaskCharacter('#');
+        StringWriter output = new StringWriter();
+
+        long masked = redactor.redact(new StringReader(input.toString()), output);
+
+        assertEquals(50 * 5, masked);
+        String expected = redactor.redact(X12);
+        StringBuilder expectedOutput = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            expectedOutput.append(expected);
+        }
+        assertEquals(expectedOutput.toString(), output.toString());
+        assertTrue(expected.contains("NM1*IL*1*#####*####*Q"));
+    }
+
+    @Test
+    public void masksEdifactIncludingReleasedCharacters() throws Exception {
+        redactor = new EdiRedactor("NAD04");
+        String redacted = redactor.redact(EDIFACT);
+
+        assertEquals(EDIFACT.replace("O?'BRIEN?+SONS:LTD", "XXXXXXXXXXXXXXXXXX"), redacted);
+        EDIReader ediReader = new EDIReader();
+        ediReader.setContentHandler(new DefaultHandler());
+        ediReader.parse(new InputSource(new StringReader(redacted)));
+    }
+
+    @Test
+    public void masksInterchangesWithAndWithoutUna() throws Exception {
+        String withUna = "UNA:*.? '" +
+                         "UNB*UNOA:3*SENDER*RECEIVER*030603:1337*REF1'" +
+                         "UNH*1*ORDERS:D:96A:UN'" +
+                         "NAD*BY***SECRET'" +
+                         "UNT*3*1'" +
+                         "UNZ*1*REF1'\n";
+        String withoutUna = "UNB+UNOA:3+SENDER+RECEIVER+030603:1337+REF2'" +
+                            "UNH+1+ORDERS:D:96A:UN'" +
+                            "NAD+BY+++SECRET'" +
+                            "UNT+3+1'" +
+                            "UNZ+1+REF2'\n";
+        redactor = new EdiRedactor("NAD04");
+
+        String redacted = redactor.redact(withUna + withoutUna + withUna + withoutUna);
+
+        assertEquals((withUna + withoutUna + withUna + withoutUna).replace("SECRET", "XXXXXX"), redacted);
+    }
+
+    @Test
+    public void copiesBinaryDataAfterBinUnchanged() throws Exception {
+        String input = X12.replace("N4*", "BIN*13*~NM1*IL*1*ZZZ~\nN4*");
+
+        String redacted = redactor.redact(input);
+
+        assertTrue(redacted.contains("BIN*13*~NM1*IL*1*ZZZ~"));
+        assertEquals(redactor.redact(X12).replace("N4*", "BIN*13*~NM1*IL*1*ZZZ~\nN4*"), redacted);
+    }
+
+    @Test
+    public void copiesObjectAfterUnoUnchanged() throws Exception {
+        String input = "UNB+UNOA:3+SENDER+RECEIVER+030603:1337+REF1'" +
+                "UNH+1+ORDERS:D:96A:UN'" +
+                "UNO+15+PKG1'NAD+BY+++SECRET" +
+                "UNP+15+PKG1'" +
+                "NAD+BY+++SECRET'" +
+                "UNT+5+1'" +
+                "UNZ+1+REF1'";
+        redactor = new EdiRedactor("NAD04");
+        redactor.setBufferSize(1);
+
+        String redacted = redactor.redact(input);
+
+        assertEquals(input.replace("NAD+BY+++SECRET'", "NAD+BY+++XXXXXX'"), redacted);
+    }
+
+    @Test
+    public void rejectsOverlongSegmentTag() throws Exception {
+        StringBuilder input = new StringBuilder(X12.substring(0, X12.indexOf("GS")));
+        for (int i = 0; i < 300; i++) {
+            input.append('A');
+        }
+        redactor.setBufferSize(1);
+        try {
+            redactor.redact(input.toString());
+            fail("Expected an EDISyntaxException");
+        } catch (EDISyntaxException e) {
+            assertEquals(2, e.getErrorSegmentNumber());
+        }
+    }
+
+    @Test(expected = EDISyntaxException.class)
+    public void requiresAnEnvelope() throws Exception {
+        redactor.redact("NM1*IL*1*SMITH~");
+    }
+}
@@ -0,0 +1,92 @@
+package com.berryworks.edireader.util;
+
+import com.berryworks.edireader.EDIReader;
+import com.berryworks.edireader.ParseMetricsSink;
+import org.junit.Before;
+import org.junit.Test;
+import org.xml.sax.InputSource;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParseMetricsRegistryTest {
+
+    private static final String X12_850 = "" +
+            "ISA*00*          *00*          *ZZ*0011223456     *ZZ*999999999      *990320*0157*U*00300*000000015*0*P*~$" +
+            "GS*PO*0011223456*999999999*950120*0147*5*X*004010$" +
+            "ST*850*000000001$" +
+            "BEG*00*SA*95018017***950118$" +
+            "N1*SE*UNIVERSAL WIDGETS$" +
+            "N3*375 PLYMOUTH PARK*SUITE 205$" +
+            "N1*ST*JIT MANUFACTURING$" +
+            "PO1*001*4*EA*330*TE*IN*525*VN*X357-W2$" +
+            "CTT*1*1$" +
+            "SE*8*000000001$" +
+            "GE*1*5$" +
+            "IEA*1*000000015$";
+
+    private static final String EDIFACT = "" +
+            "UNB+UNOB:1+SENDER1:16:ZZUK+RECEIVER1:01:ZZUK+071101:1701+131++ORDRSP++1++1'" +
+            "UNH+1+ORDRSP:D:96A:UN'" +
+            "BGM+231+1'" +
+            "DTM+137:20071101:102'" +
+            "DTM+137:20071101:102'" +
+            "UNT+5+1'" +
+            "UNZ+1+131'";
+
+    private ParseMetricsRegistry registry;
+
+    @Before
+    public void setUp() {
+        registry = new ParseMetricsRegistry();
+    }
+
+    @Test
+    public void countsSegmentsLoopsAndTransactions() throws Exception {
+        parse(X12_850, registry);
+
+        assertEquals(Long.valueOf(2), registry.getSegmentCounts().get("N1"));
+        assertEquals(Long.valueOf(6), registry.getElementCounts().get("BEG"));
+        assertEquals(Long.valueOf("BEG*00*SA*95018017***950118$".length()), registry.getCharCounts().get("BEG"));
+        assertEquals(Long.valueOf(2), registry.getLoopTransitionCounts().get("N1"));
+        assertEquals(Long.valueOf(1), registry.getLoopTransitionCounts().get("PO1"));
+        assertEquals(1, registry.getMaxLoopDepth());
+        assertEquals(Long.valueOf(1), registry.getTransactionCounts().get("850"));
+        assertTrue(registry.getTransactionNanos().get("850") > 0);
+        assertTrue(registry.toString().contains("segment PO1: count=1 elements=9"));
+
+        registry.reset();
+        assertTrue(registry.getSegmentCounts().isEmpty());
+    }
+
+    @Test
+    public void measuresEdifactMessages() throws Exception {
+        parse(EDIFACT, registry);
+        parse(EDIFACT, registry);
+
+        assertEquals(Long.valueOf(2), registry.getSegmentCounts().get("BGM"));
+        assertEquals(Long.valueOf(2), registry.getTransactionCounts().get("ORDRSP"));
+    }
+
+    @Test
+    public void callbackNeedOnlyImplementWhatItUses() throws Exception {
+        StringBuilder log = new StringBuilder();
+        parse(X12_850, new ParseMetricsSink() {
+            @Override
+            public void transaction(String documentType, String controlNumber, int segmentCount, long nanos) {
+                log.append(documentType).append('/').append(controlNumber).append('/').append(segmentCount);
+            }
+        });
+        assertEquals("850/000000001/8", log.toString());
+    }
+
+    private void parse(String edi, ParseMetricsSink sink) throws Exception {
+        EDIReader ediReader = new EDIReader();
+        ediReader.setContentHandler(new DefaultHandler());
+        ediReader.setParseMetricsSink(sink);
+        ediReader.parse(new InputSource(new StringReader(edi)));
+    }
+}
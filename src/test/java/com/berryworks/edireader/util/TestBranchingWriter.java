@@ -11,7 +11,7 @@ import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 public class TestBranchingWriter {
 
@@ -59,4 +59,43 @@ public class TestBranchingWriter {
 
         assertEquals("Part1/Part2trunk/Part3", sw.toString());
     }
+
+    @Test
+    public void testLargeDivergenceSpillsToTemporaryFile() throws IOException {
+        StringBuilder expectedTrunk = new StringBuilder("ISA/");
+        StringBuilder expectedBranch = new StringBuilder("ISA/");
+        StringWriter trunkOutput = new StringWriter();
+        StringWriter branchOutput = new StringWriter();
+        BranchingWriter trunkWriter = new BranchingWriter(trunkOutput, 1024, null);
+        BranchingWriter branchWriter = new BranchingWriter(branchOutput, 1024, null);
+
+        for (BranchingWriter writer : new BranchingWriter[]{trunkWriter, branchWriter}) {
+            writer.write("ISA/");
+            for (int i = 0; i < 5000; i++) {
+                writer.writeTrunk("AK2*" + i + "/AK5*A\u00e9/");
+                if (i % 1000 == 0) {
+                    writer.writeBranch("note" + i + "/");
+                    writer.write('!');
+                }
+            }
+            writer.write("IEA/");
+        }
+        for (int i = 0; i < 5000; i++) {
+            expectedTrunk.append("AK2*").append(i).append("/AK5*A\u00e9/");
+            if (i % 1000 == 0) {
+                expectedTrunk.append('!');
+                expectedBranch.append("note").append(i).append("/!");
+            }
+        }
+        expectedTrunk.append("IEA/");
+        expectedBranch.append("IEA/");
+
+        assertTrue(trunkWriter.isSpilled());
+        trunkWriter.close();
+        branchWriter.closeUsingBranch();
+        assertFalse(trunkWriter.isSpilled());
+
+        assertEquals(expectedTrunk.toString(), trunkOutput.toString());
+        assertEquals(expectedBranch.toString(), branchOutput.toString());
+    }
 }
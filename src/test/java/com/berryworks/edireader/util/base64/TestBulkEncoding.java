@@ -0,0 +1,114 @@
+package com.berryworks.edireader.util.base64;
+
+import com.berryworks.edireader.util.ContentHandlerBase64Encoder;
+import org.junit.Test;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class TestBulkEncoding {
+
+    private final Random random = new Random(17);
+
+    @Test
+    public void encodesLikeJavaUtilBase64InBlocksOfAnySize() {
+        for (int length = 0; length < 40; length++) {
+            byte[] data = randomBytes(length);
+            String expected = Base64.getEncoder().encodeToString(data);
+            for (int blockSize = 1; blockSize <= 7; blockSize++) {
+                assertEquals(expected, encodeInBlocks(data, blockSize));
+            }
+        }
+    }
+
+    @Test
+    public void decodesLikeJavaUtilBase64InBlocksOfAnySize() {
+        for (int length = 0; length < 40; length++) {
+            byte[] data = randomBytes(length);
+            byte[] encoded = Base64.getMimeEncoder(8, "\r\n".getBytes()).encode(data);
+            for (int blockSize = 1; blockSize <= 7; blockSize++) {
+                assertArrayEquals(data, decodeInBlocks(encoded, blockSize));
+            }
+        }
+    }
+
+    @Test
+    public void abstractEncoderAndDecoderUseBulkPaths() throws IOException {
+        byte[] data = randomBytes(5000);
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        AbstractEncoder encoder = new AbstractEncoder() {
+            @Override
+            protected void emit(byte b) {
+                encoded.write(b);
+            }
+        };
+        encoder.encode(new ByteArrayInputStream(data));
+        assertEquals(Base64.getEncoder().encodeToString(data), encoded.toString("ISO-8859-1"));
+
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        AbstractDecoder decoder = new AbstractDecoder() {
+            @Override
+            protected void emit(byte b) {
+                decoded.write(b);
+            }
+        };
+        decoder.decode(new ByteArrayInputStream(encoded.toByteArray()));
+        assertArrayEquals(data, decoded.toByteArray());
+    }
+
+    @Test
+    public void stringDecoderAndContentHandlerEncoderRoundTrip() {
+        byte[] data = randomBytes(10000);
+        String text = new String(data, StandardCharsets.ISO_8859_1);
+
+        StringBuilder sb = new StringBuilder();
+        new ContentHandlerBase64Encoder().encode(text.toCharArray(), new DefaultHandler() {
+            @Override
+            public void characters(char[] ch, int start, int length) {
+                sb.append(ch, start, length);
+            }
+        });
+        assertEquals(Base64.getEncoder().encodeToString(data), sb.toString());
+
+        StringBase64Decoder decoder = new StringBase64Decoder();
+        assertEquals(text, decoder.decodeAsString(sb.toString()));
+        assertEquals("abc", decoder.decodeAsString("YWJj"));
+    }
+
+    private String encodeInBlocks(byte[] data, int blockSize) {
+        BulkEncoder encoder = new BulkEncoder();
+        char[] chars = new char[BulkEncoder.encodedLength(data.length) + 4];
+        int n = 0;
+        for (int i = 0; i < data.length; i += blockSize) {
+            n += encoder.encode(data, i, Math.min(blockSize, data.length - i), chars, n);
+        }
+        n += encoder.finish(chars, n);
+        return new String(chars, 0, n);
+    }
+
+    private byte[] decodeInBlocks(byte[] encoded, int blockSize) {
+        BulkDecoder decoder = new BulkDecoder();
+        byte[] bytes = new byte[BulkDecoder.decodedLength(encoded.length)];
+        int n = 0;
+        for (int i = 0; i < encoded.length; i += blockSize) {
+            n += decoder.decode(encoded, i, Math.min(blockSize, encoded.length - i), bytes, n);
+        }
+        byte[] result = new byte[n];
+        System.arraycopy(bytes, 0, result, 0, n);
+        return result;
+    }
+
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -101,6 +101,39 @@ public class ContextAwareSaxAdapterTest {
         assertContext(adapter, "(A(BB)A)", "aaa aaa |bbb   |", null);
     }
 
+    @Test
+    public void contextCanBeReadByDepthAndId() throws SAXException {
+        int a = adapter.idOf("A");
+        adapter.startElement(null, "A", null, attributes);
+        adapter.startElement(null, "B", null, attributes);
+        adapter.startElement(null, "A", null, attributes);
+
+        assertEquals(3, adapter.getContextDepth());
+        assertEquals(a, adapter.getContextId(0));
+        assertEquals(adapter.idOf("B"), adapter.getContextId(1));
+        assertEquals(a, adapter.getContextId(2));
+        assertEquals("B", adapter.getContextName(1));
+
+        adapter.endElement(null, "A", null);
+        adapter.endElement(null, "B", null);
+        assertEquals(1, adapter.getContextDepth());
+        assertEquals(a, adapter.getContextId(0));
+        assertEquals(1, adapter.getContext().size());
+    }
+
+    @Test
+    public void attributesAreDeliveredFromReusableHolder() throws SAXException {
+        attributes.addCDATA("Id", "N1");
+        adapter.startElement(null, "A", null, attributes);
+        attributes.clear();
+        attributes.addCDATA("Id", "N2");
+        adapter.startElement(null, "B", null, attributes);
+        adapter.endElement(null, "B", null);
+        adapter.endElement(null, "A", null);
+
+        assertEquals("N1|N2|", adapter.getIds());
+    }
+
     @Test
     public void canHandleEdi() throws SAXException, IOException {
         EDIReader ediReader;
@@ -160,6 +193,7 @@ public class ContextAwareSaxAdapterTest {
 
         private final StringBuilder data = new StringBuilder();
         private final StringBuilder sequence = new StringBuilder();
+        private final StringBuilder ids = new StringBuilder();
 
         public MyContextAwareSaxAdapter(boolean isTrimmingEnabled) {
             super(isTrimmingEnabled);
@@ -173,6 +207,10 @@ public class ContextAwareSaxAdapterTest {
             return data.toString();
         }
 
+        public String getIds() {
+            return ids.toString();
+        }
+
         public String getStartsAndEnds() {
             return sequence.toString();
         }
@@ -181,6 +219,7 @@ public class ContextAwareSaxAdapterTest {
         public void start(String uri, String name, String data, EDIAttributes attributes) throws SAXException {
             this.data.append(data).append('|');
             this.sequence.append('(').append(name);
+            if (attributes.getValue("Id") != null) this.ids.append(attributes.getValue("Id")).append('|');
         }
 
         @Override
@@ -0,0 +1,95 @@
+package com.berryworks.edireader.util.sax;
+
+import com.berryworks.edireader.EDIAttributes;
+import com.berryworks.edireader.EDIReader;
+import org.junit.Before;
+import org.junit.Test;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+
+public class JsonWriterContentHandlerTest {
+
+    private static final String TINY_INTERCHANGE =
+            "ISA~00~          ~00~          ~ZZ~04000          ~ZZ~58401          ~040714~1003~U~00204~000038449~0~P~<$" +
+                    "GS~AG~04000~58401~040714~1003~38327~X~002040CHRY$" +
+                    "ST~824~000042460$" +
+                    "BGN~11~A\"B<C\\~040714$" +
+                    "N1~SU~~92~58401O$" +
+                    "SE~4~000042460$" +
+                    "GE~1~38327$" +
+                    "IEA~1~000038449$\n";
+
+    private StringWriter writer;
+    private JsonWriterContentHandler handler;
+
+    @Before
+    public void setUp() {
+        writer = new StringWriter();
+        handler = new JsonWriterContentHandler(writer);
+    }
+
+    @Test
+    public void basics() throws SAXException {
+        EDIAttributes attributes = new EDIAttributes();
+        attributes.addCDATA("Id", "BGN");
+
+        handler.startDocument();
+        handler.startElement("", "segment", "segment", attributes);
+        handler.startElement("", "element", "element", new EDIAttributes());
+        handler.characters("abc".toCharArray(), 0, 3);
+        handler.endElement("", "element", "element");
+        handler.startElement("", "element", "element", new EDIAttributes());
+        handler.characters("d\"e\n".toCharArray(), 0, 4);
+        handler.endElement("", "element", "element");
+        handler.endElement("", "segment", "segment");
+        handler.endDocument();
+
+        assertEquals("{\"segment\":{\"Id\":\"BGN\",\"element\":[{\"value\":\"abc\"},{\"value\":\"d\\\"e\\n\"}]}}", writer.toString());
+    }
+
+    @Test
+    public void keepsSegmentsAndLoopsInOrder() throws SAXException {
+        EDIAttributes loopAttributes = new EDIAttributes();
+        loopAttributes.addCDATA("Id", "N1");
+
+        handler.startDocument();
+        handler.startElement("", "transaction", "transaction", new EDIAttributes());
+        handler.startElement("", "segment", "segment", new EDIAttributes());
+        handler.endElement("", "segment", "segment");
+        handler.startElement("", "loop", "loop", loopAttributes);
+        handler.startElement("", "segment", "segment", new EDIAttributes());
+        handler.endElement("", "segment", "segment");
+        handler.endElement("", "loop", "loop");
+        handler.startElement("", "segment", "segment", new EDIAttributes());
+        handler.endElement("", "segment", "segment");
+        handler.endElement("", "transaction", "transaction");
+        handler.endDocument();
+
+        assertEquals("{\"transaction\":{\"segment\":[{},{\"loop\":\"N1\",\"segment\":[{}]},{}]}}", writer.toString());
+    }
+
+    @Test
+    public void canWriteEdiReaderOutput() throws IOException, SAXException {
+        EDIReader ediReader = new EDIReader();
+        ediReader.setContentHandler(handler);
+        ediReader.parse(new InputSource(new StringReader(TINY_INTERCHANGE)));
+
+        assertEquals("{\"ediroot\":{\"interchange\":[{" +
+                "\"Standard\":\"ANSI X.12\",\"AuthorizationQual\":\"00\",\"Authorization\":\"          \",\"SecurityQual\":\"00\",\"Security\":\"          \"," +
+                "\"Date\":\"040714\",\"Time\":\"1003\",\"StandardsId\":\"U\",\"Version\":\"00204\",\"Control\":\"000038449\",\"AckRequest\":\"0\",\"TestIndicator\":\"P\"," +
+                "\"sender\":{\"address\":{\"Id\":\"04000          \",\"Qual\":\"ZZ\"}}," +
+                "\"receiver\":{\"address\":{\"Id\":\"58401          \",\"Qual\":\"ZZ\"}}," +
+                "\"group\":[{\"GroupType\":\"AG\",\"ApplSender\":\"04000\",\"ApplReceiver\":\"58401\",\"Date\":\"040714\",\"Time\":\"1003\",\"Control\":\"38327\",\"StandardCode\":\"X\",\"StandardVersion\":\"002040CHRY\"," +
+                "\"transaction\":[{\"DocType\":\"824\",\"Name\":\"Application Advice\",\"Control\":\"000042460\"," +
+                "\"segment\":[" +
+                "{\"Id\":\"BGN\",\"element\":[{\"Id\":\"BGN01\",\"value\":\"11\"},{\"Id\":\"BGN02\",\"Composite\":\"yes\",\"subelement\":[{\"Sequence\":\"1\",\"value\":\"A\\\"B\"},{\"Sequence\":\"2\",\"value\":\"C\\\\\"}]},{\"Id\":\"BGN03\",\"value\":\"040714\"}]}," +
+                "{\"loop\":\"N1\",\"segment\":[{\"Id\":\"N1\",\"element\":[{\"Id\":\"N101\",\"value\":\"SU\"},{\"Id\":\"N103\",\"value\":\"92\"},{\"Id\":\"N104\",\"value\":\"58401O\"}]}]}" +
+                "]}]}]}]}}", writer.toString());
+    }
+}
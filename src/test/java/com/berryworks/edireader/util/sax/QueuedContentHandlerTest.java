@@ -6,8 +6,7 @@ import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertSame;
+import static org.junit.Assert.*;
 
 public class QueuedContentHandlerTest {
     private QueuedContentHandler handler;
@@ -75,6 +74,55 @@ public class QueuedContentHandlerTest {
         assertEquals("(A.empty:data)(B.empty)", wrappedHandler.getImage());
     }
 
+    @Test
+    public void canGetAndPutAttributesOfQueuedElements() throws SAXException {
+        wrappedHandler = new SimpleHandler();
+        handler = new QueuedContentHandler(wrappedHandler, 4, null);
+
+        attributes = new EDIAttributes();
+        attributes.addCDATA("a", "1");
+        handler.startElement("", "A", "A", attributes);
+        handler.startElement("", "B", "B", null);
+        handler.endElement("", "B", "B");
+        assertEquals("1", handler.getAttribute("A", "a"));
+        assertNull(handler.getAttribute("A", "b"));
+        assertNull(handler.getAttribute("C", "a"));
+
+        handler.putAttribute("A", "a", "2");
+        handler.putAttribute("A", "b", "3");
+        assertEquals("2", handler.getAttribute("A", "a"));
+        handler.endElement("", "A", "A");
+        handler.drainQueue();
+        assertEquals("(A.a = 2, b = 3(B.empty))", wrappedHandler.getImage());
+
+        try {
+            handler.putAttribute("A", "a", "4");
+            fail("RuntimeException expected");
+        } catch (RuntimeException ignore) {
+        }
+    }
+
+    @Test
+    public void recyclesSlotsAsQueueWrapsAround() throws SAXException {
+        wrappedHandler = new SimpleHandler();
+        handler = new QueuedContentHandler(wrappedHandler, 3, null);
+
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            attributes = new EDIAttributes();
+            attributes.addCDATA("n", i);
+            handler.startElement("", "E", "E", attributes);
+            char[] data = ("data" + i + "-".repeat(i)).toCharArray();
+            handler.characters(data, 0, data.length);
+            handler.endElement("", "E", "E");
+            assertEquals(String.valueOf(i), handler.getAttribute("E", "n"));
+            expected.append("(E.n = ").append(i).append(":").append(data).append(")");
+        }
+        handler.drainQueue();
+        assertEquals(50, wrappedHandler.getElementCount());
+        assertEquals(expected.toString(), wrappedHandler.getImage());
+    }
+
     private static class SimpleHandler extends DefaultHandler {
         private int elementCount;
         private final StringBuilder image = new StringBuilder();
@@ -0,0 +1,118 @@
+package com.berryworks.edireader.util.sax;
+
+import com.berryworks.edireader.EDIAttributes;
+import com.berryworks.edireader.EDIReader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class SAXEventBufferTest {
+
+    private File directory;
+    private SAXEventBuffer buffer;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("SAXEventBufferTest").toFile();
+        buffer = new SAXEventBuffer(1024, directory);
+    }
+
+    @After
+    public void tearDown() {
+        buffer.close();
+        directory.delete();
+    }
+
+    @Test
+    public void replaysSmallDocumentFromMemory() throws SAXException {
+        record(buffer, 3);
+        assertFalse(buffer.isSpilled());
+        assertEquals(13, buffer.getEventCount());
+
+        assertEquals(expectedXml(3), replay(buffer));
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void spillsLargeDocumentToTemporaryFile() throws SAXException {
+        record(buffer, 5000);
+        assertTrue(buffer.isSpilled());
+
+        assertEquals(expectedXml(5000), replay(buffer));
+        assertFalse(buffer.isSpilled());
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void canBeReusedAfterReplay() throws SAXException {
+        record(buffer, 5000);
+        replay(buffer);
+
+        record(buffer, 10);
+        assertEquals(expectedXml(10), replay(buffer));
+    }
+
+    @Test
+    public void replaysEdiReaderOutput() throws IOException, SAXException {
+        StringBuilder sb = new StringBuilder(
+                "ISA~00~          ~00~          ~ZZ~04000          ~ZZ~58401          ~040714~1003~U~00204~000038449~0~P~<$" +
+                        "GS~AG~04000~58401~040714~1003~38327~X~002040CHRY$" +
+                        "ST~824~000042460$");
+        for (int i = 0; i < 2000; i++) {
+            sb.append("BGN~11~A&B<C>D~").append(i).append('$');
+        }
+        sb.append("SE~2002~000042460$GE~1~38327$IEA~1~000038449$\n");
+        String edi = sb.toString();
+
+        StringWriter direct = new StringWriter();
+        EDIReader ediReader = new EDIReader();
+        ediReader.setContentHandler(new XmlWriterContentHandler(direct));
+        ediReader.parse(new InputSource(new StringReader(edi)));
+
+        ediReader = new EDIReader();
+        ediReader.setContentHandler(buffer);
+        ediReader.parse(new InputSource(new StringReader(edi)));
+        assertTrue(buffer.isSpilled());
+
+        assertEquals(direct.toString(), replay(buffer));
+    }
+
+    private static void record(SAXEventBuffer buffer, int n) throws SAXException {
+        buffer.startDocument();
+        buffer.startElement("", "root", "root", new EDIAttributes());
+        for (int i = 0; i < n; i++) {
+            EDIAttributes attributes = new EDIAttributes();
+            attributes.addCDATA("Id", "E" + i);
+            char[] chars = ("value" + i).toCharArray();
+            buffer.startElement("", "element", "element", attributes);
+            buffer.characters(chars, 0, chars.length);
+            buffer.endElement("", "element", "element");
+        }
+        buffer.endElement("", "root", "root");
+        buffer.endDocument();
+    }
+
+    private static String expectedXml(int n) {
+        StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?><root>");
+        for (int i = 0; i < n; i++) {
+            sb.append("<element Id=\"E").append(i).append("\">value").append(i).append("</element>");
+        }
+        return sb.append("</root>").toString();
+    }
+
+    private static String replay(SAXEventBuffer buffer) throws SAXException {
+        StringWriter writer = new StringWriter();
+        buffer.replay(new XmlWriterContentHandler(writer));
+        return writer.toString();
+    }
+}
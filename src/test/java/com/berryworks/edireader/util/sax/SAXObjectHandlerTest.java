@@ -0,0 +1,148 @@
+package com.berryworks.edireader.util.sax;
+
+import com.berryworks.edireader.EDIAttributes;
+import com.berryworks.edireader.EDIReader;
+import com.berryworks.edireader.benchmark.EDITestData;
+import org.junit.Test;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SAXObjectHandlerTest {
+
+    @Test
+    public void canRecordAndReplay() throws IOException, SAXException {
+        String edi = EDITestData.getAnsiInterchange();
+
+        // Parse directly to XML
+        StringWriter expected = new StringWriter();
+        EDIReader ediReader = new EDIReader();
+        ediReader.setContentHandler(new XmlWriterContentHandler(expected));
+        ediReader.parse(new InputSource(new StringReader(edi)));
+
+        // Parse again, recording the SAX events
+        ByteArrayOutputStream recording = new ByteArrayOutputStream();
+        SAXObjectHandler handler = new SAXObjectHandler(recording);
+        ediReader = new EDIReader();
+        ediReader.setContentHandler(handler);
+        ediReader.parse(new InputSource(new StringReader(edi)));
+        handler.markEndOfStream();
+        assertTrue(handler.getSAXEventsWritten() > 100);
+
+        // Replay the recorded events to XML
+        StringWriter replayed = new StringWriter();
+        SAXObjectReader reader = new SAXObjectReader();
+        reader.setContentHandler(new XmlWriterContentHandler(replayed));
+        InputSource inputSource = new InputSource(new ByteArrayInputStream(recording.toByteArray()));
+        reader.parse(inputSource);
+        assertEquals(expected.toString(), replayed.toString());
+
+        // The next parse() reaches the end of the stream
+        try {
+            reader.parse(inputSource);
+            fail("EOFException expected");
+        } catch (EOFException ignore) {
+        }
+    }
+
+    @Test
+    public void recordingIsCompact() throws IOException, SAXException {
+        String edi = EDITestData.getAnsiInterchange();
+        ByteArrayOutputStream recording = new ByteArrayOutputStream();
+        EDIReader ediReader = new EDIReader();
+        ediReader.setContentHandler(new SAXObjectHandler(recording));
+        ediReader.parse(new InputSource(new StringReader(edi)));
+
+        // For comparison, record the same events as serialized SAXObjects
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        ObjectOutputStream objectStream = new ObjectOutputStream(serialized);
+        ediReader = new EDIReader();
+        ediReader.setContentHandler(new DefaultHandler() {
+            @Override
+            public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+                write(new SAXStartElement(uri, localName, qName, attributes));
+            }
+
+            @Override
+            public void endElement(String uri, String localName, String qName) throws SAXException {
+                write(new SAXEndElement(uri, localName, qName));
+            }
+
+            @Override
+            public void characters(char[] ch, int start, int length) throws SAXException {
+                write(new SAXCharacters(ch, start, length));
+            }
+
+            private void write(SAXObject saxObject) throws SAXException {
+                try {
+                    objectStream.writeObject(saxObject);
+                } catch (IOException e) {
+                    throw new SAXException(e);
+                }
+            }
+        });
+        ediReader.parse(new InputSource(new StringReader(edi)));
+        objectStream.close();
+
+        assertTrue(recording.size() * 3 < serialized.size());
+    }
+
+    @Test
+    public void canReplaySeveralDocumentsWithUnusualContent() throws IOException, SAXException {
+        ByteArrayOutputStream recording = new ByteArrayOutputStream();
+        SAXObjectHandler handler = new SAXObjectHandler(recording);
+        EDIAttributes attributes = new EDIAttributes();
+        attributes.addCDATA("Id", "Ж中é");
+        char[] chars = "abcЖ中￿".toCharArray();
+        for (int i = 0; i < 2; i++) {
+            handler.startDocument();
+            handler.startElement("urn:x", "root", "x:root", attributes);
+            handler.characters(chars, 1, chars.length - 1);
+            handler.endElement("urn:x", "root", "x:root");
+            handler.endDocument();
+        }
+        handler.markEndOfStream();
+
+        SAXObjectReader reader = new SAXObjectReader();
+        StringWriter replayed = new StringWriter();
+        reader.setContentHandler(new XmlWriterContentHandler(replayed));
+        InputSource inputSource = new InputSource(new ByteArrayInputStream(recording.toByteArray()));
+        reader.parse(inputSource);
+        reader.parse(inputSource);
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+                "<x:root Id=\"Ж中é\">bcЖ中￿</x:root>";
+        assertEquals(xml + xml, replayed.toString());
+    }
+
+    @Test
+    public void canReplaySerializedObjects() throws IOException, SAXException {
+        ByteArrayOutputStream recording = new ByteArrayOutputStream();
+        ObjectOutputStream objectStream = new ObjectOutputStream(recording);
+        objectStream.writeObject(new SAXStartDocument());
+        objectStream.writeObject(new SAXStartElement("", "root", "root", new EDIAttributes()));
+        objectStream.writeObject(new SAXCharacters("abc".toCharArray(), 0, 3));
+        objectStream.writeObject(new SAXEndElement("", "root", "root"));
+        objectStream.writeObject(new SAXEndDocument());
+        objectStream.writeObject(new SAXEndOfStreamMarker());
+        objectStream.close();
+
+        SAXObjectReader reader = new SAXObjectReader();
+        StringWriter replayed = new StringWriter();
+        reader.setContentHandler(new XmlWriterContentHandler(replayed));
+        InputSource inputSource = new InputSource(new ByteArrayInputStream(recording.toByteArray()));
+        reader.parse(inputSource);
+        assertEquals("<?xml version=\"1.0\" encoding=\"UTF-8\"?><root>abc</root>", replayed.toString());
+        try {
+            reader.parse(inputSource);
+            fail("EOFException expected");
+        } catch (EOFException ignore) {
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.berryworks.edireader.util.sax;
+
+import com.berryworks.edireader.EDIAttributes;
+import com.berryworks.edireader.EDIReader;
+import org.junit.Before;
+import org.junit.Test;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static com.berryworks.edireader.demo.EDItoXML.NEW_LINE;
+import static org.junit.Assert.assertEquals;
+
+public class XmlWriterContentHandlerTest {
+
+    private static final String TINY_INTERCHANGE =
+            "ISA~00~          ~00~          ~ZZ~04000          ~ZZ~58401          ~040714~1003~U~00204~000038449~0~P~<$" +
+                    "GS~AG~04000~58401~040714~1003~38327~X~002040CHRY$" +
+                    "ST~824~000042460$" +
+                    "BGN~11~A&B<C>D~040714$" +
+                    "SE~3~000042460$" +
+                    "GE~1~38327$" +
+                    "IEA~1~000038449$\n";
+
+    private StringWriter writer;
+    private XmlWriterContentHandler handler;
+
+    @Before
+    public void setUp() {
+        writer = new StringWriter();
+        handler = new XmlWriterContentHandler(writer);
+    }
+
+    @Test
+    public void basics() throws SAXException {
+        EDIAttributes attributes = new EDIAttributes();
+        attributes.addCDATA("Id", "BGN");
+
+        handler.startDocument();
+        handler.startElement("", "segment", "segment", attributes);
+        handler.startElement("", "element", "element", new EDIAttributes());
+        handler.characters("abc".toCharArray(), 0, 3);
+        handler.endElement("", "element", "element");
+        handler.startElement("", "empty", "empty", new EDIAttributes());
+        handler.endElement("", "empty", "empty");
+        handler.endElement("", "segment", "segment");
+        handler.endDocument();
+
+        assertEquals("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+                "<segment Id=\"BGN\"><element>abc</element><empty/></segment>", writer.toString());
+    }
+
+    @Test
+    public void escapesTextAndAttributes() throws SAXException {
+        EDIAttributes attributes = new EDIAttributes();
+        attributes.addCDATA("A", "<\"&'>");
+
+        handler.setEncoding(null);
+        handler.startDocument();
+        handler.startElement("", "x", "x", attributes);
+        char[] chars = "a<b>c&d\"e'f\rg".toCharArray();
+        handler.characters(chars, 0, chars.length);
+        handler.endElement("", "x", "x");
+        handler.endDocument();
+
+        assertEquals("<?xml version=\"1.0\"?><x A=\"&lt;&quot;&amp;'&gt;\">a&lt;b&gt;c&amp;d\"e'f&#13;g</x>", writer.toString());
+    }
+
+    @Test
+    public void declaresNamespace() throws SAXException {
+        handler.startDocument();
+        handler.startElement("http://a.b/c", "root", "root", new EDIAttributes());
+        handler.startElement("", "child", "child", new EDIAttributes());
+        handler.endElement("", "child", "child");
+        handler.endElement("http://a.b/c", "root", "root");
+        handler.endDocument();
+
+        assertEquals("<?xml version=\"1.0\" encoding=\"UTF-8\"?><root xmlns=\"http://a.b/c\"><child/></root>", writer.toString());
+    }
+
+    @Test
+    public void handlesOutputLargerThanBuffer() throws SAXException {
+        handler = new XmlWriterContentHandler(writer, false, 256);
+        StringBuilder expected = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?><root>");
+        handler.startDocument();
+        handler.startElement("", "root", "root", new EDIAttributes());
+        for (int i = 0; i < 1000; i++) {
+            char[] chars = ("item" + i + "&").toCharArray();
+            handler.startElement("", "e", "e", new EDIAttributes());
+            handler.characters(chars, 0, chars.length);
+            handler.endElement("", "e", "e");
+            expected.append("<e>item").append(i).append("&amp;</e>");
+        }
+        handler.endElement("", "root", "root");
+        handler.endDocument();
+
+        assertEquals(expected.append("</root>").toString(), writer.toString());
+    }
+
+    @Test
+    public void canIndentEdiReaderOutput() throws IOException, SAXException {
+        EDIReader ediReader = new EDIReader();
+        ediReader.setContentHandler(new XmlWriterContentHandler(writer, true));
+        ediReader.parse(new InputSource(new StringReader(TINY_INTERCHANGE)));
+
+        assertEquals("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + NEW_LINE +
+                "<ediroot>" + NEW_LINE +
+                "    <interchange Standard=\"ANSI X.12\" AuthorizationQual=\"00\" Authorization=\"          \" SecurityQual=\"00\" Security=\"          \" Date=\"040714\" Time=\"1003\" StandardsId=\"U\" Version=\"00204\" Control=\"000038449\" AckRequest=\"0\" TestIndicator=\"P\">" + NEW_LINE +
+                "        <sender>" + NEW_LINE +
+                "            <address Id=\"04000          \" Qual=\"ZZ\"/>" + NEW_LINE +
+                "        </sender>" + NEW_LINE +
+                "        <receiver>" + NEW_LINE +
+                "            <address Id=\"58401          \" Qual=\"ZZ\"/>" + NEW_LINE +
+                "        </receiver>" + NEW_LINE +
+                "        <group GroupType=\"AG\" ApplSender=\"04000\" ApplReceiver=\"58401\" Date=\"040714\" Time=\"1003\" Control=\"38327\" StandardCode=\"X\" StandardVersion=\"002040CHRY\">" + NEW_LINE +
+                "            <transaction DocType=\"824\" Name=\"Application Advice\" Control=\"000042460\">" + NEW_LINE +
+                "                <segment Id=\"BGN\">" + NEW_LINE +
+                "                    <element Id=\"BGN01\">11</element>" + NEW_LINE +
+                "                    <element Id=\"BGN02\" Composite=\"yes\">" + NEW_LINE +
+                "                        <subelement Sequence=\"1\">A&amp;B</subelement>" + NEW_LINE +
+                "                        <subelement Sequence=\"2\">C&gt;D</subelement>" + NEW_LINE +
+                "                    </element>" + NEW_LINE +
+                "                    <element Id=\"BGN03\">040714</element>" + NEW_LINE +
+                "                </segment>" + NEW_LINE +
+                "            </transaction>" + NEW_LINE +
+                "        </group>" + NEW_LINE +
+                "    </interchange>" + NEW_LINE +
+                "</ediroot>", writer.toString());
+    }
+}
@@ -0,0 +1,136 @@
+package com.berryworks.edireader.writer;
+
+import com.berryworks.edireader.EDIReader;
+import com.berryworks.edireader.SyntaxDescriptor;
+import org.junit.Before;
+import org.junit.Test;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+
+public class EdiWriterContentHandlerTest {
+
+    private static final String ANSI =
+            "ISA*00*          *00*          *ZZ*04000          *ZZ*58401          *040714*1003*^*00501*000038449*0*P*<~" +
+            "GS*AG*04000*58401*20040714*1003*38327*X*005010~" +
+            "ST*824*000042460~" +
+            "BGN*11*A<<C*040714~" +
+            "N1*ST*NAME**ID1^ID2<X~" +
+            "SE*4*000042460~" +
+            "ST*824*000042461~" +
+            "BGN*11**040715~" +
+            "SE*3*000042461~" +
+            "GE*2*38327~" +
+            "IEA*1*000038449~";
+
+    private static final String EDIFACT =
+            "UNB+UNOA:3+SENDER:14+RECEIVER:14:EXTRA+030603:1337+REF1++APPL'" +
+            "UNH+1+ORDERS:D:96A:UN'" +
+            "BGM+220+PO12345+9'" +
+            "DTM+137:20030603:102'" +
+            "FTX+AAI+++A?+B?:C?'D'" +
+            "NAD+BY+5412345000013::9'" +
+            "UNT+6+1'" +
+            "UNH+2+ORDERS:D:96A:UN'" +
+            "BGM+220+PO12346+9'" +
+            "UNT+3+2'" +
+            "UNZ+2+REF1'";
+
+    private StringWriter writer;
+
+    @Before
+    public void setUp() {
+        writer = new StringWriter();
+    }
+
+    @Test
+    public void roundTripsAnsi() throws IOException, SAXException {
+        EDIReader ediReader = new EDIReader();
+        ediReader.setIncludeSyntaxCharacters(true);
+        ediReader.setContentHandler(new EdiWriterContentHandler(writer));
+        ediReader.parse(new InputSource(new StringReader(ANSI)));
+
+        assertEquals(ANSI, writer.toString());
+    }
+
+    @Test
+    public void roundTripsEdifact() throws IOException, SAXException {
+        EDIReader ediReader = new EDIReader();
+        ediReader.setContentHandler(new EdiWriterContentHandler(writer));
+        ediReader.parse(new InputSource(new StringReader(EDIFACT)));
+
+        assertEquals(EDIFACT, writer.toString());
+    }
+
+    @Test
+    public void usesGivenSyntaxCharacters() throws IOException, SAXException {
+        SyntaxDescriptor sd = new SyntaxDescriptor();
+        sd.setDelimiter('|');
+        sd.setTerminator('\'');
+        sd.setTerminatorSuffix("\n");
+        EDIReader ediReader = new EDIReader();
+        ediReader.setIncludeSyntaxCharacters(true);
+        ediReader.setContentHandler(new EdiWriterContentHandler(writer, sd));
+        ediReader.parse(new InputSource(new StringReader(ANSI)));
+
+        assertEquals(ANSI.replace('*', '|').replace("~", "'\n"), writer.toString());
+    }
+
+    @Test
+    public void writesEdiFromXml() throws IOException, SAXException, ParserConfigurationException {
+        String xml = """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <ediroot>
+                  <interchange Standard="ANSI X.12" AuthorizationQual="00" Authorization="" SecurityQual="00" Security=""
+                               Date="040714" Time="1003" StandardsId="U" Version="00401" Control="000038449"
+                               AckRequest="0" TestIndicator="P" ElementDelimiter="*" SubElementDelimiter=":" SegmentTerminator="~">
+                    <sender><address Id="04000" Qual="ZZ"/></sender>
+                    <receiver><address Id="58401" Qual="ZZ"/></receiver>
+                    <group GroupType="PO" ApplSender="04000" ApplReceiver="58401" Date="20040714" Time="1003"
+                           Control="1" StandardCode="X" StandardVersion="004010">
+                      <transaction DocType="850" Control="0001">
+                        <segment Id="BEG">
+                          <element Id="BEG01">00</element>
+                          <element Id="BEG02">SA</element>
+                          <element Id="BEG03">A99999-01</element>
+                          <element Id="BEG05">20040714</element>
+                        </segment>
+                        <loop Id="N1">
+                          <segment Id="N1">
+                            <element Id="N101">ST</element>
+                            <element Id="N102">R&amp;D</element>
+                          </segment>
+                        </loop>
+                        <segment Id="SLN">
+                          <element Id="SLN01" Composite="yes">
+                            <subelement Sequence="2">B</subelement>
+                            <subelement Sequence="3">C</subelement>
+                          </element>
+                        </segment>
+                      </transaction>
+                    </group>
+                  </interchange>
+                </ediroot>
+                """;
+        SAXParserFactory factory = SAXParserFactory.newDefaultInstance();
+        factory.setNamespaceAware(true);
+        factory.newSAXParser().parse(new InputSource(new StringReader(xml)), new EdiWriterContentHandler(writer));
+
+        assertEquals("ISA*00*          *00*          *ZZ*04000          *ZZ*58401          *040714*1003*U*00401*000038449*0*P*:~" +
+                     "GS*PO*04000*58401*20040714*1003*1*X*004010~" +
+                     "ST*850*0001~" +
+                     "BEG*00*SA*A99999-01**20040714~" +
+                     "N1*ST*R&D~" +
+                     "SLN*:B:C~" +
+                     "SE*5*0001~" +
+                     "GE*1*1~" +
+                     "IEA*1*000038449~", writer.toString());
+    }
+}
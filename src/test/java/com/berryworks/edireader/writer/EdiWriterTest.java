@@ -0,0 +1,203 @@
+package com.berryworks.edireader.writer;
+
+import com.berryworks.edireader.EDIReader;
+import com.berryworks.edireader.EDIStandard;
+import com.berryworks.edireader.EDISyntaxException;
+import com.berryworks.edireader.SyntaxDescriptor;
+import org.junit.Before;
+import org.junit.Test;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class EdiWriterTest {
+
+    private StringWriter writer;
+
+    @Before
+    public void setUp() {
+        writer = new StringWriter();
+    }
+
+    @Test
+    public void writesAnsiInterchange() throws IOException, SAXException {
+        SyntaxDescriptor sd = new SyntaxDescriptor();
+        sd.setTerminatorSuffix("\n");
+        EdiWriter ediWriter = new EdiWriter(writer, EDIStandard.ANSI, sd);
+
+        ediWriter.segment("ISA", "00", "", "00", "", "ZZ", "D00111", "ZZ", "0055", "030603", "1337", "U", "00401", "000000121", "0", "T");
+        ediWriter.segment("GS", "PO", "D00111", "0055", "20030603", "1337", "1210001", "X", "004010");
+        ediWriter.segment("ST", "850", "0001");
+        ediWriter.segment("BEG", "00", "SA", "A99999-01", null, "20030603");
+        ediWriter.startSegment("REF");
+        ediWriter.element("ZZ");
+        ediWriter.element(null);
+        ediWriter.element("A");
+        ediWriter.subElement("B");
+        ediWriter.endSegment();
+        ediWriter.endInterchange();
+        ediWriter.flush();
+
+        String expected = """
+                ISA*00*          *00*          *ZZ*D00111         *ZZ*0055           *030603*1337*U*00401*000000121*0*T*:~
+                GS*PO*D00111*0055*20030603*1337*1210001*X*004010~
+                ST*850*0001~
+                BEG*00*SA*A99999-01**20030603~
+                REF*ZZ**A:B~
+                SE*4*0001~
+                GE*1*1210001~
+                IEA*1*000000121~
+                """;
+        assertEquals(expected, writer.toString());
+        parse(expected);
+    }
+
+    @Test
+    public void generatesControlNumbers() throws IOException, SAXException {
+        EdiWriter ediWriter = new EdiWriter(writer, EDIStandard.ANSI);
+
+        ediWriter.segment("ISA", "00", "", "00", "", "ZZ", "D00111", "ZZ", "0055", "030603", "1337", "U", "00401");
+        ediWriter.segment("GS", "PO", "D00111", "0055", "20030603", "1337");
+        for (int i = 0; i < 2; i++) {
+            ediWriter.segment("ST", "850");
+            ediWriter.segment("BEG", "00", "SA", "A99999-01", null, "20030603");
+            ediWriter.endTransaction();
+        }
+        ediWriter.endInterchange();
+        ediWriter.flush();
+
+        String edi = writer.toString();
+        assertEquals("ISA*00*          *00*          *ZZ*D00111         *ZZ*0055           *030603*1337*U*00401*000000001* * *:~" +
+                     "GS*PO*D00111*0055*20030603*1337*1~" +
+                     "ST*850*0001~BEG*00*SA*A99999-01**20030603~SE*3*0001~" +
+                     "ST*850*0002~BEG*00*SA*A99999-01**20030603~SE*3*0002~" +
+                     "GE*2*1~IEA*1*000000001~", edi);
+    }
+
+    @Test
+    public void padsShortIsaControlNumberWithZeros() throws IOException, SAXException {
+        EdiWriter ediWriter = new EdiWriter(writer, EDIStandard.ANSI);
+
+        ediWriter.segment("ISA", "00", "", "00", "", "ZZ", "D00111", "ZZ", "0055", "030603", "1337", "U", "00401", "121", "0", "T");
+        ediWriter.segment("GS", "PO", "D00111", "0055", "20030603", "1337", "1", "X", "004010");
+        ediWriter.segment("ST", "850", "0001");
+        ediWriter.segment("BEG", "00", "SA", "A99999-01", null, "20030603");
+        ediWriter.endInterchange();
+        ediWriter.flush();
+
+        String edi = writer.toString();
+        assertEquals("ISA*00*          *00*          *ZZ*D00111         *ZZ*0055           *030603*1337*U*00401*000000121*0*T*:~",
+                edi.substring(0, edi.indexOf("GS")));
+        assertEquals("IEA*1*000000121~", edi.substring(edi.indexOf("IEA")));
+        parse(edi);
+    }
+
+    @Test
+    public void rejectsDelimiterInAnsiData() throws IOException {
+        EdiWriter ediWriter = new EdiWriter(writer, EDIStandard.ANSI);
+        ediWriter.startSegment("N1");
+        try {
+            ediWriter.element("A*B");
+            fail("Expected an EDISyntaxException");
+        } catch (EDISyntaxException e) {
+            assertEquals("Data character '*' in N1 cannot be represented without a release character", e.getMessage());
+        }
+    }
+
+    @Test
+    public void rejectsOverlongIsaElement() throws IOException {
+        EdiWriter ediWriter = new EdiWriter(writer, EDIStandard.ANSI);
+        try {
+            ediWriter.segment("ISA", "00", "", "00", "", "ZZ", "D00111", "ZZ", "0055", "030603", "1337", "U", "00401", "1234567890");
+            fail("Expected an EDISyntaxException");
+        } catch (EDISyntaxException e) {
+            assertEquals("ISA13 value '1234567890' is longer than 9 characters", e.getMessage());
+        }
+    }
+
+    @Test
+    public void rejectsDelimiterInIsaElement() throws IOException {
+        EdiWriter ediWriter = new EdiWriter(writer, EDIStandard.ANSI);
+        try {
+            ediWriter.segment("ISA", "00", "", "00", "", "ZZ", "D00*111");
+            fail("Expected an EDISyntaxException");
+        } catch (EDISyntaxException e) {
+            assertEquals("Data character '*' in ISA cannot be represented without a release character", e.getMessage());
+        }
+    }
+
+    @Test
+    public void writesEdifactInterchange() throws IOException, SAXException {
+        EdiWriter ediWriter = new EdiWriter(writer, EDIStandard.EDIFACT);
+
+        ediWriter.startSegment("UNB");
+        ediWriter.element("UNOA");
+        ediWriter.subElement("3");
+        ediWriter.element("SENDER");
+        ediWriter.element("RECEIVER");
+        ediWriter.element("030603");
+        ediWriter.subElement("1337");
+        ediWriter.endSegment();
+        ediWriter.startSegment("UNH");
+        ediWriter.element("1");
+        ediWriter.element("ORDERS");
+        ediWriter.subElement("D");
+        ediWriter.subElement("96A");
+        ediWriter.subElement("UN");
+        ediWriter.endSegment();
+        ediWriter.segment("FTX", "AAI", null, null, "A+B:C'D?");
+        ediWriter.endInterchange();
+        ediWriter.flush();
+
+        String expected = "UNB+UNOA:3+SENDER+RECEIVER+030603:1337+1'" +
+                          "UNH+1+ORDERS:D:96A:UN'" +
+                          "FTX+AAI+++A?+B?:C?'D??'" +
+                          "UNT+3+1'" +
+                          "UNZ+1+1'";
+        assertEquals(expected, writer.toString());
+    }
+
+    @Test
+    public void writesUnaForOtherSyntaxCharacters() throws IOException, SAXException {
+        SyntaxDescriptor sd = new SyntaxDescriptor();
+        sd.setDelimiter('*');
+        sd.setRepetitionSeparator('^');
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        EdiWriter ediWriter = new EdiWriter(Channels.newChannel(bytes), StandardCharsets.UTF_8, EDIStandard.EDIFACT, sd);
+
+        ediWriter.segment("UNB", "UNOW", "SENDER", "RECEIVER", "030603", "REF1");
+        ediWriter.segment("UNG", "ORDERS", "SENDER", "RECEIVER", "030603");
+        ediWriter.segment("UNH", "1", "ORDERS");
+        ediWriter.startSegment("FTX");
+        ediWriter.element("AAI");
+        ediWriter.repetition("Grüße^");
+        ediWriter.endSegment();
+        ediWriter.endInterchange();
+        ediWriter.close();
+
+        assertEquals("UNA:*.?^'" +
+                     "UNB*UNOW*SENDER*RECEIVER*030603*REF1'" +
+                     "UNG*ORDERS*SENDER*RECEIVER*030603*1'" +
+                     "UNH*1*ORDERS'" +
+                     "FTX*AAI^Grüße?^'" +
+                     "UNT*3*1'" +
+                     "UNE*1*1'" +
+                     "UNZ*1*REF1'", bytes.toString(StandardCharsets.UTF_8));
+    }
+
+    private void parse(String edi) throws IOException, SAXException {
+        EDIReader ediReader = new EDIReader();
+        ediReader.setContentHandler(new DefaultHandler());
+        ediReader.parse(new InputSource(new StringReader(edi)));
+    }
+}